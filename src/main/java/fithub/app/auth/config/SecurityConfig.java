@@ -2,8 +2,11 @@ package fithub.app.auth.config;
 
 import fithub.app.auth.handler.JwtAccessDeniedHandler;
 import fithub.app.auth.handler.JwtAuthenticationEntryPoint;
+import fithub.app.auth.provider.BoundedPasswordEncoder;
 import fithub.app.auth.provider.TokenProvider;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -28,8 +31,12 @@ public class SecurityConfig {
 
     private final TokenProvider tokenProvider;
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.bcrypt.strength}") int strength,
+                                           @Value("${password.executor.pool-size}") int poolSize,
+                                           @Value("${password.executor.queue-capacity}") int queueCapacity,
+                                           @Value("${password.executor.timeout-ms}") long timeoutMs,
+                                           MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeoutMs, meterRegistry);
     }
 
     @Bean
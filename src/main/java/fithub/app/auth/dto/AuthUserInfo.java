@@ -0,0 +1,55 @@
+package fithub.app.auth.dto;
+
+import fithub.app.domain.User;
+import fithub.app.domain.UserExercise;
+import lombok.Getter;
+
+/**
+ * 인증된 유저의 가벼운 스냅샷. 요청마다 User 엔티티를 읽지 않도록 캐시에 올려두고,
+ * 프로필/메인 운동/알림 설정이 바뀌면 AuthUserService 에서 지운다.
+ */
+@Getter
+public class AuthUserInfo {
+
+    private final Long id;
+
+    private final String nickname;
+
+    private final String profileUrl;
+
+    private final Boolean isDefaultProfile;
+
+    private final Boolean communityPermit;
+
+    private final Boolean marketingAgree;
+
+    private final Integer mainExerciseCategoryId;
+
+    private final String mainExerciseCategory;
+
+    private final String mainExerciseGradeName;
+
+    private final Integer mainExerciseLevel;
+
+    private AuthUserInfo(User user) {
+        UserExercise mainExercise = user.getMainExercise();
+        this.id = user.getId();
+        this.nickname = user.getNickname();
+        this.profileUrl = user.getProfileUrl();
+        this.isDefaultProfile = user.getIsDefaultProfile();
+        this.communityPermit = user.getCommunityPermit();
+        this.marketingAgree = user.getMarketingAgree();
+        this.mainExerciseCategoryId = mainExercise == null ? null : mainExercise.getExerciseCategory().getId();
+        this.mainExerciseCategory = mainExercise == null ? null : mainExercise.getExerciseCategory().getName();
+        this.mainExerciseGradeName = mainExercise == null ? null : mainExercise.getGrade().getName();
+        this.mainExerciseLevel = mainExercise == null ? null : mainExercise.getGrade().getLevel();
+    }
+
+    public static AuthUserInfo of(User user) {
+        return new AuthUserInfo(user);
+    }
+
+    public boolean hasMainExercise() {
+        return mainExerciseCategoryId != null;
+    }
+}
@@ -24,8 +24,8 @@ public class JwtRequestFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         HttpServletRequest httpServletRequest = request;
         String jwt = tokenProvider.resolveToken(httpServletRequest);
-        if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt, TokenProvider.TokenType.ACCESS)){
-            Authentication authentication = tokenProvider.getAuthentication(jwt);
+        if (StringUtils.hasText(jwt)){
+            Authentication authentication = tokenProvider.authenticate(jwt, TokenProvider.TokenType.ACCESS);
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }else{
             throw new JwtAuthenticationException(Code.JWT_TOKEN_NOT_FOUND);
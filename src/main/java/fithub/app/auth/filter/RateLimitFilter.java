@@ -0,0 +1,306 @@
+package fithub.app.auth.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fithub.app.base.Code;
+import fithub.app.base.exception.common.ApiErrorResult;
+import fithub.app.config.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Redis 토큰 버킷으로 엔드포인트별 요청 수를 제한하는 필터.
+ * 노드마다 같은 규칙의 로컬 버킷을 두고, 로컬 버킷이 비어 있으면 Redis 를 거치지 않고 바로 거절한다.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String KEY_PREFIX = "rate-limit:";
+
+    // KEYS[1] = 버킷 키, ARGV = capacity, 밀리초당 충전량, 키 TTL(ms)
+    private static final String TOKEN_BUCKET_SCRIPT =
+            "local capacity = tonumber(ARGV[1]) " +
+            "local rate = tonumber(ARGV[2]) " +
+            "local ttl = tonumber(ARGV[3]) " +
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+            "local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(bucket[1]) " +
+            "local ts = tonumber(bucket[2]) " +
+            "if tokens == nil or ts == nil then tokens = capacity ts = now end " +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate) " +
+            "local allowed = 0 " +
+            "if tokens >= 1 then tokens = tokens - 1 allowed = 1 end " +
+            "redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)) " +
+            "redis.call('PEXPIRE', KEYS[1], ttl) " +
+            "return {allowed, tostring(tokens)}";
+
+    private static final DefaultRedisScript<List> SCRIPT = new DefaultRedisScript<>(TOKEN_BUCKET_SCRIPT, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RateLimitProperties rateLimitProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Cache<String, LocalBucket> localBuckets;
+
+    public RateLimitFilter(StringRedisTemplate redisTemplate, RateLimitProperties rateLimitProperties, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.rateLimitProperties = rateLimitProperties;
+        this.objectMapper = objectMapper;
+        long maxPeriodSeconds = rateLimitProperties.getRules().stream()
+                .mapToLong(RateLimitProperties.Rule::getPeriodSeconds)
+                .max()
+                .orElse(60L);
+        this.localBuckets = Caffeine.newBuilder()
+                .maximumSize(rateLimitProperties.getLocalCacheMaximumSize())
+                .expireAfterAccess(Duration.ofSeconds(maxPeriodSeconds))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !Boolean.TRUE.equals(rateLimitProperties.getEnabled()) || matchedRules(request).isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        List<RateLimitProperties.Rule> rules = matchedRules(request);
+
+        HttpServletRequest target = request;
+        JsonNode body = null;
+        if (rules.stream().anyMatch(rule -> rule.getKey() == RateLimitProperties.KeyType.PHONE) && isJson(request)) {
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            body = readBody(cached.getBody());
+            target = cached;
+        }
+
+        for (RateLimitProperties.Rule rule : rules) {
+            String identifier = resolveIdentifier(rule, request, body);
+            if (identifier == null)
+                continue;
+            if (!tryAcquire(rule, KEY_PREFIX + rule.getName() + ":" + identifier)) {
+                writeTooManyRequests(response);
+                return;
+            }
+        }
+        filterChain.doFilter(target, response);
+    }
+
+    private List<RateLimitProperties.Rule> matchedRules(HttpServletRequest request) {
+        List<RateLimitProperties.Rule> matched = new ArrayList<>();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (RateLimitProperties.Rule rule : rateLimitProperties.getRules()) {
+            if (rule.getMethod() != null && !rule.getMethod().equalsIgnoreCase(request.getMethod()))
+                continue;
+            if (pathMatcher.match(rule.getPath(), path))
+                matched.add(rule);
+        }
+        return matched;
+    }
+
+    private String resolveIdentifier(RateLimitProperties.Rule rule, HttpServletRequest request, JsonNode body) {
+        switch (rule.getKey()) {
+            case IP:
+                return clientIp(request);
+            case PHONE:
+                if (body == null || rule.getBodyField() == null)
+                    return null;
+                JsonNode phone = body.get(rule.getBodyField());
+                return phone == null || !StringUtils.hasText(phone.asText()) ? null : phone.asText();
+            case USER:
+                // 토큰 필터가 넣어 주는 principal 의 name 이 유저 id, 익명 요청은 principal 이 문자열이다
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails))
+                    return null;
+                return authentication.getName();
+            default:
+                return null;
+        }
+    }
+
+    // 로드밸런서가 붙여준 X-Forwarded-For 의 마지막 값이 실제로 접속한 주소, 앞쪽 값은 클라이언트가 조작할 수 있다
+    private String clientIp(HttpServletRequest request) {
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(forwarded)) {
+            String[] hops = forwarded.split(",");
+            return hops[hops.length - 1].trim();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private boolean tryAcquire(RateLimitProperties.Rule rule, String key) {
+        double capacity = rule.getCapacity();
+        double ratePerMillis = capacity / (rule.getPeriodSeconds() * 1000.0);
+
+        LocalBucket localBucket = localBuckets.get(key, k -> new LocalBucket(capacity));
+        // 로컬 버킷은 이 노드로 온 요청만 반영하므로 항상 전역 버킷보다 토큰이 많거나 같다
+        if (!localBucket.hasToken(capacity, ratePerMillis))
+            return false;
+
+        List<?> result;
+        try {
+            result = redisTemplate.execute(SCRIPT, Collections.singletonList(key),
+                    String.valueOf(rule.getCapacity()),
+                    String.valueOf(ratePerMillis),
+                    String.valueOf(rule.getPeriodSeconds() * 1000L));
+        } catch (RuntimeException e) {
+            // Redis 장애 시 로그인/인증이 막히지 않도록 통과시킨다
+            log.warn("rate limit check failed for {} : {}", key, e.getMessage());
+            return true;
+        }
+        if (result == null || result.size() < 2)
+            return true;
+
+        boolean allowed = Long.valueOf(1L).equals(result.get(0));
+        localBucket.sync(Double.parseDouble(String.valueOf(result.get(1))));
+        return allowed;
+    }
+
+    private void writeTooManyRequests(HttpServletResponse response) throws IOException {
+        Code code = Code.TOO_MANY_REQUESTS;
+        response.setContentType("application/json; charset=UTF-8");
+        response.setStatus(code.getHttpStatus().value());
+
+        ApiErrorResult apiErrorResult = ApiErrorResult.builder()
+                .isSuccess(false)
+                .code(code.getCode())
+                .message(code.getMessage())
+                .result(null)
+                .build();
+
+        PrintWriter writer = response.getWriter();
+        writer.write(apiErrorResult.toString());
+        writer.flush();
+        writer.close();
+    }
+
+    private boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    private JsonNode readBody(byte[] body) {
+        if (body.length == 0)
+            return null;
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static class LocalBucket {
+
+        private double tokens;
+
+        private long lastRefillNanos;
+
+        LocalBucket(double capacity) {
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        // 토큰은 Redis 가 허용했을 때만 sync 로 줄어든다
+        synchronized boolean hasToken(double capacity, double ratePerMillis) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1_000_000.0 * ratePerMillis);
+            lastRefillNanos = now;
+            return tokens >= 1;
+        }
+
+        synchronized void sync(double remaining) {
+            tokens = remaining;
+            lastRefillNanos = System.nanoTime();
+        }
+    }
+
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // body 는 이미 메모리에 다 읽혀 있어서 바로 읽을 수 있다고 알려주면 된다
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        readListener.onDataAvailable();
+                        if (isFinished())
+                            readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return inputStream.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package fithub.app.auth.handler.annotation;
 
+import fithub.app.auth.dto.AuthUserInfo;
 import fithub.app.base.Code;
-import fithub.app.service.converter.UserConverter;
 import fithub.app.domain.User;
 import fithub.app.base.exception.handler.UserException;
+import fithub.app.service.AuthUserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.MethodParameter;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -18,11 +19,14 @@ import org.springframework.web.method.support.ModelAndViewContainer;
 @Component
 @RequiredArgsConstructor
 public class AuthUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final AuthUserService authUserService;
+
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
         AuthUser authUser = parameter.getParameterAnnotation(AuthUser.class);
         if (authUser == null) return false;
-        if (parameter.getParameterType().equals(User.class) == false) {
+        if (parameter.getParameterType().equals(User.class) == false && parameter.getParameterType().equals(AuthUserInfo.class) == false) {
             return false;
         }
         return true;
@@ -41,7 +45,11 @@ public class AuthUserArgumentResolver implements HandlerMethodArgumentResolver {
         }
 
         UsernamePasswordAuthenticationToken authenticationToken = (UsernamePasswordAuthenticationToken) authentication;
-        User member = UserConverter.toUser(Long.valueOf(authenticationToken.getName()));
+        Long userId = Long.valueOf(authenticationToken.getName());
+        if (parameter.getParameterType().equals(AuthUserInfo.class))
+            return authUserService.getAuthUserInfo(userId);
+        // 토큰은 필터에서 검증했으니 DB 는 엔티티 필드를 실제로 쓰는 곳에서만 읽는다
+        User member = authUserService.getUserReference(userId);
         return member;
     }
 }
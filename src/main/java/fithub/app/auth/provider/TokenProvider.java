@@ -1,10 +1,15 @@
 package fithub.app.auth.provider;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import fithub.app.base.Code;
 import fithub.app.base.exception.handler.JwtAuthenticationException;
 //import fithub.app.redis.repository.RefreshTokenRepository;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
@@ -18,11 +23,16 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -42,23 +52,50 @@ public class TokenProvider implements InitializingBean {
 
     private Key key;
 
+    private JwtParser jwtParser;
+
+    // 검증이 끝난 토큰의 내용. 토큰 원문 대신 SHA-256 digest 를 키로 쓰고, 토큰의 exp 에 맞춰 만료시킨다
+    private final Cache<String, VerifiedToken> verifiedTokenCache;
+
     public enum TokenType{
         ACCESS, REFRESH;
     }
 
     public TokenProvider(@Value("${jwt.secret}") String secret,
                          @Value("${jwt.authorities-key}") String authoritiesKey,
-                         @Value("${jwt.access-token-validity-in-seconds}") long accessTokenValidityInMilliseconds){
+                         @Value("${jwt.access-token-validity-in-seconds}") long accessTokenValidityInMilliseconds,
+                         @Value("${jwt.verified-cache.maximum-size}") long verifiedCacheMaximumSize){
         this.secret = secret;
         this.AUTHORITIES_KEY = authoritiesKey;
         this.accessTokenValidityInMilliseconds = accessTokenValidityInMilliseconds;
 //        this.refreshTokenRepository = refreshTokenRepository;
+        this.verifiedTokenCache = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken verifiedToken, long currentTime) {
+                        long remainMillis = verifiedToken.getExpiration() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     @Override
     public void afterPropertiesSet() throws Exception {
         byte[] keyBytes = Base64.getDecoder().decode(secret);
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String createAccessToken(Long userId,String socialType, String socialId,Collection<? extends GrantedAuthority> authorities){
@@ -89,28 +126,24 @@ public class TokenProvider implements InitializingBean {
     }
 
     public Authentication getAuthentication(String token){
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        Collection<? extends GrantedAuthority> authorities =
-                Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
-        User principal = new User(claims.getSubject(), "", authorities);
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        return toAuthentication(token, verify(token));
+    }
+
+    // 필터에서 검증과 Authentication 생성을 한 번에 처리한다. 검증한 결과를 그대로 써서 digest 와 캐시 조회를 한 번만 한다
+    public Authentication authenticate(String token, TokenType type) throws JwtAuthenticationException {
+        return toAuthentication(token, verify(token, type));
     }
 
     public boolean validateToken(String token, TokenType type) throws JwtAuthenticationException {
+        verify(token, type);
+        return true;
+    }
+
+    public Long validateAndReturnId(String token) throws JwtAuthenticationException{
         try{
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
+            return Long.valueOf(verify(token).getPrincipal().getUsername());
         }catch (io.jsonwebtoken.security.SecurityException | MalformedJwtException e){
             throw new JwtAuthenticationException(Code.JWT_BAD_REQUEST);
-        }catch (ExpiredJwtException e){
-            if (type == TokenType.ACCESS) throw new JwtAuthenticationException(Code.JWT_ACCESS_TOKEN_EXPIRED);
-            else throw new JwtAuthenticationException(Code.JWT_REFRESH_TOKEN_EXPIRED);
         }catch (UnsupportedJwtException e){
             throw new JwtAuthenticationException(Code.JWT_UNSUPPORTED_TOKEN);
         }catch (IllegalArgumentException e){
@@ -118,12 +151,22 @@ public class TokenProvider implements InitializingBean {
         }
     }
 
-    public Long validateAndReturnId(String token) throws JwtAuthenticationException{
+    public String resolveToken(HttpServletRequest request){
+        String bearerToken = request.getHeader(AUTHORIZATION_HEADER);
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")){
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+
+    private VerifiedToken verify(String token, TokenType type) throws JwtAuthenticationException {
         try{
-            Claims body = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-            return Long.valueOf(body.getSubject());
+            return verify(token);
         }catch (io.jsonwebtoken.security.SecurityException | MalformedJwtException e){
             throw new JwtAuthenticationException(Code.JWT_BAD_REQUEST);
+        }catch (ExpiredJwtException e){
+            if (type == TokenType.ACCESS) throw new JwtAuthenticationException(Code.JWT_ACCESS_TOKEN_EXPIRED);
+            else throw new JwtAuthenticationException(Code.JWT_REFRESH_TOKEN_EXPIRED);
         }catch (UnsupportedJwtException e){
             throw new JwtAuthenticationException(Code.JWT_UNSUPPORTED_TOKEN);
         }catch (IllegalArgumentException e){
@@ -131,11 +174,46 @@ public class TokenProvider implements InitializingBean {
         }
     }
 
-    public String resolveToken(HttpServletRequest request){
-        String bearerToken = request.getHeader(AUTHORIZATION_HEADER);
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")){
-            return bearerToken.substring(7);
+    // 서명 검증과 claim 파싱은 토큰마다 한 번만 하고, 이후 요청은 캐시된 결과를 쓴다
+    private VerifiedToken verify(String token) {
+        if (token == null)
+            throw new IllegalArgumentException("token is null");
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokenCache.getIfPresent(digest);
+        if (cached != null && cached.getExpiration() > System.currentTimeMillis())
+            return cached;
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        List<GrantedAuthority> authorities =
+                Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+        if (claims.getExpiration() == null)
+            return new VerifiedToken(new User(claims.getSubject(), "", authorities), Long.MAX_VALUE);
+        VerifiedToken verifiedToken = new VerifiedToken(new User(claims.getSubject(), "", authorities), claims.getExpiration().getTime());
+        verifiedTokenCache.put(digest, verifiedToken);
+        return verifiedToken;
+    }
+
+    private Authentication toAuthentication(String token, VerifiedToken verifiedToken) {
+        return new UsernamePasswordAuthenticationToken(verifiedToken.getPrincipal(), token, verifiedToken.getPrincipal().getAuthorities());
+    }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
-        return null;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class VerifiedToken {
+
+        private final User principal;
+
+        private final long expiration;
     }
 }
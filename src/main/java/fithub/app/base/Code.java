@@ -38,11 +38,13 @@ public enum Code {
     PASSWORD_INCORRECT(HttpStatus.OK, 2023, "비밀번호가 일치하지 않습니다"),
     // Error Code
     INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, 5000, "Internal server Error"),
+    PASSWORD_HASH_BUSY(HttpStatus.SERVICE_UNAVAILABLE, 5002, "요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요."),
 
     //Common
     FORBIDDEN(HttpStatus.FORBIDDEN, 4003, "접근 권한이 없습니다."),
     UNAUTHORIZED(HttpStatus.UNAUTHORIZED,4004 ,"인증정보가 유효하지 않습니다."),
     BAD_REQUEST(HttpStatus.BAD_REQUEST,4005 ,"잘못된 요청 입니다."),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, 4001, "요청이 너무 많습니다. 잠시 후 다시 시도해주세요."),
 
     // Auth
     JWT_BAD_REQUEST(HttpStatus.UNAUTHORIZED, 4006,"잘못된 JWT 서명입니다."),
@@ -61,6 +63,10 @@ public enum Code {
 
     PHONE_AUTH_NOT_FOUND(HttpStatus.BAD_REQUEST, 4016, "인증문자 발급이 필요합니다."),
 
+    PHONE_AUTH_ATTEMPTS_EXCEEDED(HttpStatus.UNAUTHORIZED, 4021, "인증 번호를 여러 번 틀렸습니다. 인증문자를 다시 요청해주세요."),
+
+    SMS_SEND_BUSY(HttpStatus.SERVICE_UNAVAILABLE, 5004, "인증 문자 요청이 많아 보내지 못했습니다. 잠시 후 다시 시도해주세요."),
+
     NO_EXERCISE_CATEGORY_EXIST(HttpStatus.BAD_REQUEST, 4017, "선호하는 운동 카테고리가 잘못 되었습니다."),
 
 
@@ -73,6 +79,9 @@ public enum Code {
     // category error
     CATEGORY_ERROR(HttpStatus.BAD_REQUEST,4030, "카테고리가 잘못 되었습니다."),
 
+    // paging error
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST,4034, "커서가 잘못 되었습니다."),
+
     // article error
     ARTICLE_NOT_FOUND(HttpStatus.NOT_FOUND, 4031, "게시글이 존재하지 않습니다."),
     ARTICLE_FORBIDDEN(HttpStatus.FORBIDDEN, 4032, "다른 사람의 게시글"),
@@ -95,6 +104,7 @@ public enum Code {
 
     // notification error
     ALARM_NOT_FOUND(HttpStatus.BAD_REQUEST, 4071, "알림을 찾지 못했습니다."),
+    ALARM_STREAM_BUSY(HttpStatus.SERVICE_UNAVAILABLE, 5003, "알림 연결이 많아 연결하지 못했습니다. 잠시 후 다시 시도해주세요."),
 
 
     //feign error
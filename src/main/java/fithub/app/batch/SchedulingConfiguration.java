@@ -1,15 +1,35 @@
     package fithub.app.batch;
 
+    import fithub.app.domain.Advertise;
+    import fithub.app.repository.AdvertiseRepository;
     import lombok.RequiredArgsConstructor;
+    import lombok.extern.slf4j.Slf4j;
+    import org.springframework.batch.core.BatchStatus;
+    import org.springframework.batch.core.ExitStatus;
     import org.springframework.batch.core.Job;
+    import org.springframework.batch.core.JobExecution;
     import org.springframework.batch.core.JobExecutionException;
     import org.springframework.batch.core.JobParameters;
     import org.springframework.batch.core.JobParametersBuilder;
     import org.springframework.batch.core.launch.JobLauncher;
+    import org.springframework.batch.core.launch.support.SimpleJobLauncher;
+    import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+    import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+    import org.springframework.batch.core.StepExecution;
+    import org.springframework.batch.core.repository.JobRepository;
+    import org.springframework.beans.factory.annotation.Value;
     import org.springframework.context.annotation.Configuration;
+    import org.springframework.core.task.SimpleAsyncTaskExecutor;
+    import org.springframework.dao.DataAccessException;
     import org.springframework.scheduling.annotation.EnableScheduling;
     import org.springframework.scheduling.annotation.Scheduled;
 
+    import javax.annotation.PostConstruct;
+    import java.time.LocalDateTime;
+    import java.time.YearMonth;
+    import java.util.Date;
+
+    @Slf4j
     @Configuration
     @EnableScheduling
     @RequiredArgsConstructor
@@ -23,13 +43,43 @@
 
         private final Job deleteWeeklyAlarm;
 
-        // 매달 첫 날 0 0 0 1 * *
-        @Scheduled(cron = "0 0 0 1 * *")
+        private final Job rebuildPopularFeed;
+
+        private final Job rollupTrending;
+
+        private final Job broadcastCampaign;
+
+        private final JobRepository jobRepository;
+
+        private final AdvertiseRepository advertiseRepository;
+
+        // 캠페인 step 은 batch 하나마다 갱신되므로 이보다 오래 조용하면 실행하던 노드가 죽은 것으로 본다
+        @Value("${campaign.stale-minutes}")
+        private Long staleMinutes;
+
+        // 캠페인은 오래 걸려서 스케줄러 스레드를 잡고 있지 않도록 따로 띄운다
+        private SimpleJobLauncher campaignJobLauncher;
+
+        @PostConstruct
+        public void initCampaignJobLauncher() throws Exception {
+            campaignJobLauncher = new SimpleJobLauncher();
+            campaignJobLauncher.setJobRepository(jobRepository);
+            campaignJobLauncher.setTaskExecutor(new SimpleAsyncTaskExecutor("campaign-job-"));
+            campaignJobLauncher.afterPropertiesSet();
+        }
+
+        // 매달 첫 날 0시부터 한 시간마다. 달마다 한 번만 돌도록 month 로만 구분하고, 실패했으면 같은 파라미터로 다시 띄워 rollover.nextId 부터 이어서 한다
+        @Scheduled(cron = "0 0 * 1 * *")
         public void monthlySetRecordCounts() throws JobExecutionException {
             JobParameters jobParameters = new JobParametersBuilder()
-                    .addLong("timestamp", System.currentTimeMillis())
+                    .addString("month", YearMonth.now().minusMonths(1).toString())
                     .toJobParameters();
-            jobLauncher.run(returnMonthlyRecord, jobParameters);
+            try {
+                failIfStale(returnMonthlyRecord, jobParameters);
+                jobLauncher.run(returnMonthlyRecord, jobParameters);
+            } catch (JobExecutionAlreadyRunningException | JobInstanceAlreadyCompleteException e) {
+                // 다른 노드에서 도는 중이거나 이번 달은 이미 끝났다
+            }
         }
 
         // 매일 수행 0 0 0 * * ?
@@ -49,4 +99,76 @@
                     .toJobParameters();
             jobLauncher.run(deleteWeeklyAlarm, jobParameters);
         }
+
+        // Redis 가 재시작되어 인기순 피드가 사라졌을 때를 대비해 매시간 확인
+        @Scheduled(cron = "0 30 * * * ?")
+        public void rebuildPopularFeed() throws JobExecutionException{
+            JobParameters jobParameters = new JobParametersBuilder()
+                    .addLong("timestamp", System.currentTimeMillis())
+                    .toJobParameters();
+            jobLauncher.run(rebuildPopularFeed, jobParameters);
+        }
+
+        // 매시간 5분에 트렌딩 집계
+        @Scheduled(cron = "0 5 * * * ?")
+        public void rollupTrending() throws JobExecutionException{
+            JobParameters jobParameters = new JobParametersBuilder()
+                    .addLong("timestamp", System.currentTimeMillis())
+                    .toJobParameters();
+            jobLauncher.run(rollupTrending, jobParameters);
+        }
+
+        // 매분 보낼 시각이 된 광고 캠페인 확인, 실패했던 캠페인은 같은 파라미터로 다시 띄워 이어서 보낸다
+        @Scheduled(cron = "0 * * * * ?")
+        public void broadcastCampaign() {
+            for (Advertise advertise : advertiseRepository.findDueCampaigns(LocalDateTime.now())) {
+                JobParameters jobParameters = new JobParametersBuilder()
+                        .addLong("advertiseId", advertise.getId())
+                        .toJobParameters();
+                try {
+                    failIfStale(broadcastCampaign, jobParameters);
+                    campaignJobLauncher.run(broadcastCampaign, jobParameters);
+                } catch (JobExecutionAlreadyRunningException e) {
+                    // 이 노드나 다른 노드에서 이미 보내는 중
+                } catch (JobInstanceAlreadyCompleteException e) {
+                    advertiseRepository.markSent(advertise.getId(), LocalDateTime.now());
+                } catch (JobExecutionException e) {
+                    log.warn("campaign {} launch failed : {}", advertise.getId(), e.getMessage());
+                } catch (DataAccessException e) {
+                    // 다른 노드가 같은 캠페인을 동시에 띄우거나 닫으면 JobRepository 에서 충돌한다. 다음 캠페인은 계속 확인한다
+                    log.info("campaign {} launch raced with another node : {}", advertise.getId(), e.getMessage());
+                }
+            }
+        }
+
+        // 노드가 죽으면 실행이 STARTED 로 남아 다시 띄울 수 없다. 오래 갱신되지 않은 실행은 FAILED 로 닫아서 이어서 하게 한다
+        private void failIfStale(Job job, JobParameters jobParameters) {
+            JobExecution lastExecution = jobRepository.getLastJobExecution(job.getName(), jobParameters);
+            if (lastExecution == null || !lastExecution.isRunning())
+                return;
+
+            Date lastUpdated = lastExecution.getLastUpdated();
+            for (StepExecution stepExecution : lastExecution.getStepExecutions()) {
+                if (lastUpdated == null || (stepExecution.getLastUpdated() != null && stepExecution.getLastUpdated().after(lastUpdated)))
+                    lastUpdated = stepExecution.getLastUpdated();
+            }
+            Date staleBefore = new Date(System.currentTimeMillis() - staleMinutes * 60_000L);
+            if (lastUpdated != null && lastUpdated.after(staleBefore))
+                return;
+
+            Date now = new Date();
+            for (StepExecution stepExecution : lastExecution.getStepExecutions()) {
+                if (!stepExecution.getStatus().isRunning())
+                    continue;
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("stale execution"));
+                stepExecution.setEndTime(now);
+                jobRepository.update(stepExecution);
+            }
+            lastExecution.setStatus(BatchStatus.FAILED);
+            lastExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("stale execution"));
+            lastExecution.setEndTime(now);
+            jobRepository.update(lastExecution);
+            log.warn("{} execution {} was not updated since {}, marked FAILED to restart", job.getName(), lastExecution.getId(), lastUpdated);
+        }
     }
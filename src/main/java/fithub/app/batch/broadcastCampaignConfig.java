@@ -0,0 +1,201 @@
+package fithub.app.batch;
+
+import fithub.app.domain.Advertise;
+import fithub.app.firebase.exception.FcmSendException;
+import fithub.app.firebase.service.FireBaseService;
+import fithub.app.repository.AdvertiseRepository;
+import fithub.app.repository.BroadcastTarget;
+import fithub.app.repository.FcmTokenRepository;
+import fithub.app.utils.FCMType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.listener.JobExecutionListenerSupport;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 광고(Advertise) 캠페인 푸시를 마케팅 수신 동의한 유저의 토큰 전체로 보낸다.
+ * 토큰은 id 순으로 batch 단위로 읽고, 알림 푸시와 겹치지 않도록 별도 풀에서 전역 초당 한도 안에서 보낸다.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class broadcastCampaignConfig {
+
+    private static final String AFTER_ID = "campaign.afterId";
+
+    private static final String MAX_ID = "campaign.maxId";
+
+    private static final String SENT = "campaign.sent";
+
+    private static final String FAILED = "campaign.failed";
+
+    // 노드가 여러 대여도 초당 보내는 수를 같이 세도록 Redis 에 초 단위로 센다
+    private static final String RATE_KEY_PREFIX = "campaign-rate:";
+
+    private final JobBuilderFactory jobBuilderFactory;
+    private final StepBuilderFactory stepBuilderFactory;
+    private final AdvertiseRepository advertiseRepository;
+    private final FcmTokenRepository fcmTokenRepository;
+    private final FireBaseService fireBaseService;
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${campaign.batch-size}")
+    Integer batchSize;
+
+    @Value("${campaign.rate-per-second}")
+    Integer ratePerSecond;
+
+    @Value("${campaign.executor.pool-size}")
+    Integer poolSize;
+
+    private ThreadPoolExecutor campaignSendExecutor;
+
+    // 알림 푸시 풀(push-send-)과 나눠서 캠페인이 밀려도 알림은 바로 나가게 한다. 큐가 차면 호출한 스텝 스레드가 직접 보내 속도를 늦춘다
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("campaign-send-");
+        threadFactory.setThreadPriority(Thread.NORM_PRIORITY - 1);
+        campaignSendExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        campaignSendExecutor.shutdown();
+        campaignSendExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // advertiseId 가 JobParameters 라 같은 광고로 다시 실행하면 실패한 실행이 체크포인트부터 이어서 돈다
+    @Bean
+    public Job broadcastCampaign(Step broadcastCampaignStep){
+        return jobBuilderFactory.get("broadcast campaign")
+                .start(broadcastCampaignStep)
+                .listener(new JobExecutionListenerSupport() {
+                    @Override
+                    public void afterJob(JobExecution jobExecution) {
+                        if (jobExecution.getStatus() == BatchStatus.COMPLETED)
+                            advertiseRepository.markSent(jobExecution.getJobParameters().getLong("advertiseId"), LocalDateTime.now());
+                    }
+                })
+                .build();
+    }
+
+    @Bean
+    public Step broadcastCampaignStep(Tasklet broadcastCampaignTasklet){
+        return stepBuilderFactory.get("broadcastCampaignStep")
+                .tasklet(broadcastCampaignTasklet)
+                .build();
+    }
+
+    // 한 번 호출에 batch 하나를 보내고 마지막 토큰 id 를 ExecutionContext 에 남긴다. 중간에 죽으면 그 batch 만 다시 보낸다
+    @Bean
+    @StepScope
+    public Tasklet broadcastCampaignTasklet(@Value("#{jobParameters['advertiseId']}") Long advertiseId){
+        return (contribution, chunkContext) -> {
+            Advertise advertise = advertiseRepository.findById(advertiseId).orElse(null);
+            if (advertise == null || advertise.getBody() == null) {
+                log.warn("캠페인 발송 ===> 보낼 광고가 없음 {}", advertiseId);
+                return RepeatStatus.FINISHED;
+            }
+            Integer categoryId = advertise.getExerciseCategory() == null ? null : advertise.getExerciseCategory().getId();
+
+            ExecutionContext context = chunkContext.getStepContext().getStepExecution().getExecutionContext();
+            // 시작할 때의 마지막 토큰까지만 보낸다. 발송 중 새로 등록된 토큰까지 쫓아가지 않는다
+            if (!context.containsKey(MAX_ID)) {
+                Long maxId = fcmTokenRepository.findMaxId();
+                context.putLong(AFTER_ID, 0L);
+                context.putLong(MAX_ID, maxId == null ? 0L : maxId);
+                context.putLong(SENT, 0L);
+                context.putLong(FAILED, 0L);
+            }
+
+            List<BroadcastTarget> targets = fcmTokenRepository.findBroadcastTargets(context.getLong(AFTER_ID), context.getLong(MAX_ID),
+                    categoryId, Math.min(batchSize, ratePerSecond));
+            if (targets.isEmpty()) {
+                log.info("캠페인 발송 ===> 광고 {} 성공 {} 건, 실패 {} 건", advertiseId, context.getLong(SENT), context.getLong(FAILED));
+                return RepeatStatus.FINISHED;
+            }
+
+            acquire(targets.size());
+
+            AtomicInteger sent = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            Queue<String> invalidTokens = new ConcurrentLinkedQueue<>();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (BroadcastTarget target : targets) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        fireBaseService.sendMessageToApple(target.getToken(), advertise.getTitle(), advertise.getBody(),
+                                FCMType.HOME.toString(), advertise.getId().toString(), "0");
+                        sent.incrementAndGet();
+                    } catch (FcmSendException e) {
+                        if (e.isTokenInvalid())
+                            invalidTokens.add(target.getToken());
+                        failed.incrementAndGet();
+                    } catch (IOException | RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }, campaignSendExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+            if (!invalidTokens.isEmpty())
+                fcmTokenRepository.deleteByTokens(new ArrayList<>(invalidTokens));
+
+            contribution.incrementWriteCount(sent.get());
+            context.putLong(AFTER_ID, targets.get(targets.size() - 1).getId());
+            context.putLong(SENT, context.getLong(SENT) + sent.get());
+            context.putLong(FAILED, context.getLong(FAILED) + failed.get());
+            return RepeatStatus.CONTINUABLE;
+        };
+    }
+
+    // 이번 초의 한도가 차 있으면 다음 초까지 기다린다. batch 크기는 초당 한도를 넘지 않게 잘라서 읽는다
+    private void acquire(int permits) throws InterruptedException {
+        while (true) {
+            long now = System.currentTimeMillis();
+            String key = RATE_KEY_PREFIX + now / 1000;
+            try {
+                Long used = redisTemplate.opsForValue().increment(key, permits);
+                redisTemplate.expire(key, Duration.ofSeconds(2));
+                if (used != null && used <= ratePerSecond)
+                    return;
+            } catch (RuntimeException e) {
+                // Redis 가 안 되면 이 노드 기준으로만 속도를 맞춘다
+                log.warn("campaign rate limit check failed : {}", e.getMessage());
+                Thread.sleep(permits * 1000L / ratePerSecond);
+                return;
+            }
+            Thread.sleep(1000 - now % 1000);
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package fithub.app.batch;
 
-import fithub.app.domain.User;
+import fithub.app.repository.MonthlyRecordHistoryRepository;
 import fithub.app.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,28 +8,42 @@ import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 
 @Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class monthlySetRecordCountsConfig {
 
+    private static final String NEXT_ID = "rollover.nextId";
+
+    private static final String MAX_ID = "rollover.maxId";
+
+    private static final String RESET = "rollover.reset";
+
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
 
     private final UserRepository userRepository;
 
+    private final MonthlyRecordHistoryRepository monthlyRecordHistoryRepository;
+
+    @Value("${record.rollover.id-range}")
+    Long idRange;
+
+    // 지난달 인증 수를 monthly_record_history 에 옮겨 두고 그만큼 뺀다
     @Bean
     public Job returnMonthlyRecord(Step MonthlyRecordFirstStep){
         return jobBuilderFactory.get("return Monthly Record")
@@ -39,39 +53,51 @@ public class monthlySetRecordCountsConfig {
     }
 
     @Bean
-    public Step MonthlyRecordFirstStep(ItemReader<User> userItemReader, ItemProcessor<User, User> userItemProcessor, ItemWriter<User> userItemWriter){
+    public Step MonthlyRecordFirstStep(Tasklet monthlyRecordRolloverTasklet){
         return stepBuilderFactory.get("firstStep")
-                .<User, User>chunk(100)
-                .reader(userItemReader)
-                .processor(userItemProcessor)
-                .writer(userItemWriter)
+                .tasklet(monthlyRecordRolloverTasklet)
                 .build();
     }
 
+    // id 구간마다 INSERT ... SELECT 와 UPDATE 를 한 트랜잭션으로 돌린다. 0 으로 덮지 않고 옮긴 값만큼 빼서 격리 수준과 상관없이 그 사이 올라간 인증 수가 남는다
     @Bean
-    public ItemWriter<User> userItemWriter(){
-        return items -> {};
-    }
+    @StepScope
+    public Tasklet monthlyRecordRolloverTasklet(@Value("#{jobParameters['month']}") String month){
+        YearMonth recordMonth = month == null ? YearMonth.now().minusMonths(1) : YearMonth.parse(month);
+        LocalDate monthStart = recordMonth.atDay(1);
+        // 지난달 이후 가입한 유저는 지난달 기록이 없다
+        LocalDateTime monthEnd = recordMonth.plusMonths(1).atDay(1).atStartOfDay();
+        // DATETIME 컬럼에 그대로 비교되도록 초 단위로 자른다
+        LocalDateTime runAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
 
-    @Bean
-    public ItemReader<User> userItemReader(){
-        log.info("Batch Reader ===>");
-        List<User> allTargetUsers = userRepository.findAll();
+        return (contribution, chunkContext) -> {
+            ExecutionContext context = chunkContext.getStepContext().getStepExecution().getExecutionContext();
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < allTargetUsers.size(); i++)
-            sb.append(" ").append(allTargetUsers.get(i).getNickname());
+            if (!context.containsKey(NEXT_ID)) {
+                Long minId = userRepository.findMinId();
+                Long maxId = userRepository.findMaxId();
+                if (minId == null)
+                    return RepeatStatus.FINISHED;
+                context.putLong(NEXT_ID, minId);
+                context.putLong(MAX_ID, maxId);
+                context.putLong(RESET, 0L);
+            }
 
-        log.info("업데이트 대상 유저 ===> {}", sb);
-        return new ListItemReader<>(allTargetUsers);
-    }
+            long fromId = context.getLong(NEXT_ID);
+            long maxId = context.getLong(MAX_ID);
+            long toId = Math.min(fromId + idRange - 1, maxId);
 
-    @Bean
-    public ItemProcessor<User, User> userItemProcessor(){
-        return user ->{
-            userRepository.resetMonthlyRecordForUsers(user.getId());
-            return user;
+            monthlyRecordHistoryRepository.snapshot(fromId, toId, monthStart, monthEnd, runAt);
+            int reset = userRepository.resetMonthlyRecord(fromId, toId, monthStart, runAt);
+            contribution.incrementWriteCount(reset);
+            context.putLong(RESET, context.getLong(RESET) + reset);
+            context.putLong(NEXT_ID, toId + 1);
+
+            if (toId < maxId)
+                return RepeatStatus.CONTINUABLE;
+
+            log.info("월간 인증 수 이월 ===> {} 기록 {} 명", recordMonth, context.getLong(RESET));
+            return RepeatStatus.FINISHED;
         };
     }
-
 }
@@ -0,0 +1,43 @@
+package fithub.app.batch;
+
+import fithub.app.service.PopularFeedService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class rebuildPopularFeedConfig {
+
+    private final JobBuilderFactory jobBuilderFactory;
+    private final StepBuilderFactory stepBuilderFactory;
+    private final PopularFeedService popularFeedService;
+
+    // Redis 가 비어있을 때(콜드 스타트) MySQL 의 좋아요 수로 인기순 sorted set 을 다시 채운다
+    @Bean
+    public Job rebuildPopularFeed(Step RebuildPopularFeedStep){
+        return jobBuilderFactory.get("rebuildPopularFeed")
+                .incrementer(new RunIdIncrementer())
+                .start(RebuildPopularFeedStep)
+                .build();
+    }
+
+    @Bean
+    public Step RebuildPopularFeedStep(){
+        return stepBuilderFactory.get("rebuildPopularFeedStep")
+                .tasklet((contribution, chunkContext) -> {
+                    Boolean rebuilt = popularFeedService.rebuildIfAbsent();
+                    log.info("인기순 피드 재구성 여부 ===> {}", rebuilt);
+                    return RepeatStatus.FINISHED;
+                })
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package fithub.app.batch;
+
+import fithub.app.service.PopularFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.launch.support.RunIdIncrementer;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@RequiredArgsConstructor
+public class rollupTrendingConfig {
+
+    private final JobBuilderFactory jobBuilderFactory;
+    private final StepBuilderFactory stepBuilderFactory;
+    private final PopularFeedService popularFeedService;
+
+    // 시간별 좋아요 버킷을 모아 트렌딩 상위 K 개와 인증글의 dailyLikes/weeklyLikes 를 갱신한다
+    @Bean
+    public Job rollupTrending(Step RollupTrendingStep){
+        return jobBuilderFactory.get("rollupTrending")
+                .incrementer(new RunIdIncrementer())
+                .start(RollupTrendingStep)
+                .build();
+    }
+
+    @Bean
+    public Step RollupTrendingStep(){
+        return stepBuilderFactory.get("rollupTrendingStep")
+                .tasklet((contribution, chunkContext) -> {
+                    popularFeedService.rollupTrending();
+                    return RepeatStatus.FINISHED;
+                })
+                .build();
+    }
+}
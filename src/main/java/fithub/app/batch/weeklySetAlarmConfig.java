@@ -1,35 +1,51 @@
 package fithub.app.batch;
 
-import fithub.app.domain.Notification;
-import fithub.app.domain.User;
 import fithub.app.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.weaver.ast.Not;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.configuration.annotation.JobBuilderFactory;
 import org.springframework.batch.core.configuration.annotation.StepBuilderFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.launch.support.RunIdIncrementer;
-import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.ItemReader;
-import org.springframework.batch.item.ItemWriter;
-import org.springframework.batch.item.support.ListItemReader;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 
 @Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class weeklySetAlarmConfig {
 
+    private static final String NEXT_ID = "retention.nextId";
+
+    private static final String MAX_ID = "retention.maxId";
+
+    private static final String DELETED = "retention.deleted";
+
     private final JobBuilderFactory jobBuilderFactory;
     private final StepBuilderFactory stepBuilderFactory;
     private final NotificationRepository notificationRepository;
 
+    @Value("${notification.retention.confirmed-days}")
+    Long confirmedDays;
+
+    @Value("${notification.retention.id-range}")
+    Long idRange;
+
+    @Value("${notification.retention.delete-limit}")
+    Integer deleteLimit;
+
+    // 읽은 지 오래된 알림을 id 구간별로 나눠 지운다. 한 번의 delete 는 limit 건까지, 구간을 다 지우면 다음 구간으로 넘어간다
     @Bean
     public Job deleteWeeklyAlarm(Step WeeklyAlarmFirstStep){
         return jobBuilderFactory.get("delete weekly alarm")
@@ -39,41 +55,49 @@ public class weeklySetAlarmConfig {
     }
 
     @Bean
-    public Step WeeklyAlarmFirstStep(ItemReader<Notification> notificationItemReader, ItemProcessor<Notification, Notification> notificationItemProcessor, ItemWriter<Notification> notificationItemWriter){
-        return stepBuilderFactory.get("firstStep")
-                .<Notification, Notification>chunk(100)
-                .reader(notificationItemReader)
-                .processor(notificationItemProcessor)
-                .writer(notificationItemWriter)
+    public Step WeeklyAlarmFirstStep(Tasklet notificationRetentionTasklet){
+        return stepBuilderFactory.get("notificationRetentionStep")
+                .tasklet(notificationRetentionTasklet)
                 .build();
     }
 
+    // CONTINUABLE 을 돌려주는 동안 한 번 호출이 한 트랜잭션이라 락을 짧게 잡고, 진행 위치는 ExecutionContext 에 남겨 재시작하면 이어서 지운다
     @Bean
-    public ItemWriter<Notification> notificationItemWriter(){
-        return items -> {};
-    }
+    @StepScope
+    public Tasklet notificationRetentionTasklet(){
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(confirmedDays);
+        return (contribution, chunkContext) -> {
+            StepExecution stepExecution = chunkContext.getStepContext().getStepExecution();
+            ExecutionContext context = stepExecution.getExecutionContext();
 
-    @Bean
-    @Transactional
-    public ItemReader<Notification> notificationItemReader(){
-        log.info("Batch Reader ===>");
-        List<Notification> allTargetNotifications = notificationRepository.findTargetNotification();
+            if (!context.containsKey(NEXT_ID)) {
+                Long minId = notificationRepository.findMinId();
+                Long maxId = notificationRepository.findMaxId();
+                if (minId == null)
+                    return RepeatStatus.FINISHED;
+                context.putLong(NEXT_ID, minId);
+                context.putLong(MAX_ID, maxId);
+                context.putLong(DELETED, 0L);
+            }
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < allTargetNotifications.size(); i++)
-            sb.append(" ").append(allTargetNotifications.get(i).getNotificationBody());
+            long fromId = context.getLong(NEXT_ID);
+            long maxId = context.getLong(MAX_ID);
+            long toId = Math.min(fromId + idRange - 1, maxId);
 
-        log.info("삭제 대상 알람 ===> {}", sb);
-        return new ListItemReader<>(allTargetNotifications);
-    }
+            int deleted = notificationRepository.deleteConfirmedBefore(fromId, toId, cutoff, deleteLimit);
+            contribution.incrementWriteCount(deleted);
+            context.putLong(DELETED, context.getLong(DELETED) + deleted);
 
-    @Bean
-    @Transactional
-    public ItemProcessor<Notification, Notification> notificationItemProcessor(){
-        return notification ->{
-            notificationRepository.delete(notification);
-            return null;
+            // limit 만큼 지웠으면 같은 구간에 더 남아 있을 수 있다
+            if (deleted < deleteLimit)
+                context.putLong(NEXT_ID, toId + 1);
+            if (deleted == deleteLimit || toId < maxId)
+                return RepeatStatus.CONTINUABLE;
+
+            long total = context.getLong(DELETED);
+            double seconds = Math.max(Duration.between(stepExecution.getStartTime().toInstant(), Instant.now()).toMillis(), 1L) / 1000.0;
+            log.info("알림 보관 기간 정리 ===> 삭제 {} 건, 초당 {} 건, 기준 {}", total, String.format("%.1f", total / seconds), cutoff);
+            return RepeatStatus.FINISHED;
         };
     }
-
 }
@@ -0,0 +1,43 @@
+package fithub.app.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 엔드포인트별 요청 제한 설정. 규칙마다 IP / 전화번호 / 유저 단위의 토큰 버킷을 따로 둔다.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private Boolean enabled = true;
+
+    private Long localCacheMaximumSize = 100000L;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    public enum KeyType {
+        IP, PHONE, USER
+    }
+
+    @Getter
+    @Setter
+    public static class Rule {
+        private String name;
+        private String method;
+        private String path;
+        private KeyType key;
+        // key 가 PHONE 일 때 요청 body(JSON) 에서 읽을 필드
+        private String bodyField;
+        // 버킷 크기, period-seconds 동안 capacity 만큼 다시 채워진다
+        private Long capacity;
+        private Long periodSeconds;
+    }
+}
@@ -1,9 +1,14 @@
 package fithub.app.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fithub.app.auth.filter.RateLimitFilter;
 import fithub.app.auth.handler.annotation.AuthUserArgumentResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
@@ -17,6 +22,9 @@ import java.util.List;
 public class WebConfig implements WebMvcConfigurer {
     private final AuthUserArgumentResolver authUserArgumentResolver;
     private final CorsProperties corsProperties;
+    private final RateLimitProperties rateLimitProperties;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
 
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolverList) {
@@ -39,4 +47,12 @@ public class WebConfig implements WebMvcConfigurer {
         corsConfigSource.registerCorsConfiguration("/**", configuration);
         return corsConfigSource;
     }
+
+    // web.ignoring() 으로 빠지는 로그인/문자 요청도 막아야 해서 시큐리티 체인 밖의 서블릿 필터로 등록, 유저 키를 쓰도록 시큐리티 다음 순서
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(new RateLimitFilter(redisTemplate, rateLimitProperties, objectMapper));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
 }
@@ -4,6 +4,7 @@ import fithub.app.domain.common.BaseEntity;
 import lombok.*;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Getter
 @Builder
@@ -20,4 +21,16 @@ public class Advertise extends BaseEntity {
     private String title;
 
     private String link;
+
+    // 푸시로 보낼 문구, 비어 있으면 캠페인으로 보내지 않는다
+    private String body;
+
+    // 이 운동을 관심 운동으로 고른 유저에게만 보낸다, 없으면 마케팅 수신 동의한 전체
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category")
+    private ExerciseCategory exerciseCategory;
+
+    private LocalDateTime sendAt;
+
+    private LocalDateTime sentAt;
 }
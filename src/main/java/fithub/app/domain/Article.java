@@ -21,6 +21,12 @@ import java.util.List;
 @DynamicUpdate
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = {
+        @Index(name = "idx_article_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_article_likes", columnList = "likes, created_at, id"),
+        @Index(name = "idx_article_category_created_at", columnList = "category, created_at, id"),
+        @Index(name = "idx_article_category_likes", columnList = "category, likes, created_at, id")
+})
 public class Article extends BaseEntity {
 
     @Override
@@ -107,24 +113,6 @@ public class Article extends BaseEntity {
         this.articleHashTagList = articleHashTagList;
     }
 
-    public Article likeToggle(Boolean flag){
-        if (flag)
-            this.likes += 1;
-        else
-            this.likes -= 1;
-
-        return this;
-    }
-
-    public Article saveToggle(Boolean flag){
-        if (flag)
-            this.saves += 1;
-        else
-            this.saves -= 1;
-
-        return this;
-    }
-
     public void update(ArticleRequestDto.UpdateArticleDto request, ExerciseCategory exerciseCategory){
         this.title = request.getTitle();
         this.contents = request.getContents();
@@ -80,10 +80,6 @@ public class Comments extends BaseEntity {
         record.getCommentsList().add(this);
     }
 
-    public void toggleLikes(Boolean flag){
-        this.likes  = flag ? this.likes - 1 : this.likes + 1;
-    }
-
     public Comments setContents(String contents){this.contents = contents; return this;}
 
     public void countReport(){this.reported += 1;}
@@ -0,0 +1,29 @@
+package fithub.app.domain;
+
+import fithub.app.domain.common.BaseEntity;
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+@Getter
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_monthly_record_history_user_month", columnNames = {"user_id", "record_month"}))
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MonthlyRecordHistory extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 탈퇴할 때 user 삭제를 막지 않도록 외래키 없이 id 만 둔다
+    private Long userId;
+
+    // 집계한 달의 1일
+    private LocalDate recordMonth;
+
+    // 그 달에 남긴 운동 인증 수, 월이 바뀔 때 user.monthly_record_num 을 그대로 옮겨 둔다
+    private Long recordNum;
+}
@@ -7,12 +7,15 @@ import org.hibernate.annotations.DynamicInsert;
 import org.hibernate.annotations.DynamicUpdate;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Getter
 @Builder
 @Entity
 @DynamicInsert
 @DynamicUpdate
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_notification_coalesce", columnNames = {"user_id", "coalesce_key", "window_start"}),
+        indexes = @Index(name = "idx_notification_user_created_at", columnList = "user_id, created_at, id"))
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Notification extends BaseEntity {
@@ -40,10 +43,26 @@ public class Notification extends BaseEntity {
     @JoinColumn(name = "record_id")
     private Record record;
 
+    // 목록 조회에서 게시글/인증을 불러오지 않도록 대상 id 를 따로 들고 있다. 종류는 notificationCategory
+    private Long targetId;
+
     private String notificationBody;
 
     private Boolean isConfirmed;
 
+    // 좋아요/댓글 알림을 묶는 단위, 같은 키와 같은 구간에 들어온 알림은 한 row 로 합쳐진다
+    private String coalesceKey;
+
+    private LocalDateTime windowStart;
+
+    private Integer eventCount;
+
+    // 마지막으로 묶인 알림을 보낸 유저, 같은 유저가 연달아 오면 eventCount 를 올리지 않는다
+    private Long lastActorId;
+
+    // 묶인 알림이 마지막으로 들어온 시각. created_at 은 처음 만들어진 시각 그대로 둔다
+    private LocalDateTime lastEventAt;
+
 
     public void setUser(User user){
         if(this.user != null){
@@ -0,0 +1,66 @@
+package fithub.app.domain;
+
+import fithub.app.domain.common.BaseEntity;
+import fithub.app.domain.enums.PushPlatform;
+import fithub.app.domain.enums.PushStatus;
+import lombok.*;
+import org.hibernate.annotations.DynamicInsert;
+import org.hibernate.annotations.DynamicUpdate;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 보낼 푸시 알림. 알림(Notification)과 같은 트랜잭션에서 저장하고, 워커가 커밋된 것만 꺼내서 보낸다.
+ * 보내는 데 성공하면 지우고, 재시도를 모두 실패하면 DEAD 로 남긴다.
+ */
+@Getter
+@Builder
+@Entity
+@DynamicInsert
+@DynamicUpdate
+@Table(indexes = {
+        @Index(name = "idx_push_outbox_status_next_attempt", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_push_outbox_claim_token", columnList = "claim_token")
+})
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class PushOutbox extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String targetToken;
+
+    @Enumerated(EnumType.STRING)
+    private PushPlatform platform;
+
+    private String title;
+
+    private String body;
+
+    private String targetView;
+
+    private String targetPK;
+
+    private String targetNotification;
+
+    private String targetImage;
+
+    // 묶인 알림은 보낼 때 알림 row 의 최신 문구를 읽는다
+    private Boolean refreshBody;
+
+    @Enumerated(EnumType.STRING)
+    private PushStatus status;
+
+    private Integer attempts;
+
+    // PENDING 이면 다음 시도 시각, SENDING 이면 선점이 풀리는 시각
+    private LocalDateTime nextAttemptAt;
+
+    private String claimToken;
+
+    @Column(length = 500)
+    private String lastError;
+}
@@ -23,6 +23,12 @@ import java.util.List;
 @DynamicUpdate
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(indexes = {
+        @Index(name = "idx_record_created_at", columnList = "created_at, id"),
+        @Index(name = "idx_record_likes", columnList = "likes, created_at, id"),
+        @Index(name = "idx_record_category_created_at", columnList = "category, created_at, id"),
+        @Index(name = "idx_record_category_likes", columnList = "category, likes, created_at, id")
+})
 public class Record extends BaseEntity {
 
     @Id
@@ -88,15 +94,6 @@ public class Record extends BaseEntity {
         user.getRecordList().add(this);
     }
 
-    public Record likeToggle(Boolean flag){
-        if (flag)
-            this.likes += 1;
-        else
-            this.likes -= 1;
-
-        return this;
-    }
-
     public void update(RecordRequestDto.updateRecordDto request, ExerciseCategory exerciseCategory){
         this.contents = request.getContents();
         this.exerciseCategory = exerciseCategory;
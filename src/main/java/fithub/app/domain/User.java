@@ -15,7 +15,6 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Entity
 @Builder
@@ -159,30 +158,6 @@ public class User extends BaseEntity {
         return  this;
     }
 
-    public Boolean isLikedCommentsFind(Comments comments){
-        return this.commentsLikesList.stream()
-                .filter(commentsLikes -> commentsLikes.getComments().getId().equals(comments.getId()))
-                .collect(Collectors.toList()).size() > 0;
-    }
-
-    public Boolean isLikedArticle(Article article){
-        return this.articleLikesList.stream()
-                .filter(articleLikes -> articleLikes.getArticle().getId().equals(article.getId()))
-                .collect(Collectors.toList()).size() > 0;
-    }
-
-    public Boolean isSavedArticle(Article article){
-        return this.savedArticleList.stream()
-                .filter(savedArticle -> savedArticle.getArticle().getId().equals(article.getId()))
-                .collect(Collectors.toList()).size() > 0;
-    }
-
-    public Boolean isLikedRecord(Record record){
-        return this.recordLikesList.stream()
-                .filter(recordLikes -> recordLikes.getRecord().getId().equals(record.getId()))
-                .collect(Collectors.toList()).size() > 0;
-    }
-
     public void setUserExerciseList(List<UserExercise> exerciseList){
         this.userExerciseList = exerciseList;
     }
@@ -224,12 +199,6 @@ public class User extends BaseEntity {
         this.bestRecordExercise = bestExercise;
     }
 
-    public Boolean isLikedComments(Comments comments){
-        return this.commentsLikesList.stream()
-                .filter(commentsLikes -> commentsLikes.getComments().getId().equals(comments.getId()))
-                .collect(Collectors.toList()).size() > 0;
-    }
-
     public void countReport(){
         this.reported += 1;
     }
@@ -0,0 +1,9 @@
+package fithub.app.domain.enums;
+
+import lombok.Getter;
+
+@Getter
+public enum PushPlatform {
+
+    ANDROID, IOS
+}
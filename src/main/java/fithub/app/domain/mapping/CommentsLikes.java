@@ -11,6 +11,7 @@ import javax.persistence.*;
 @Getter
 @Builder
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_comments_likes_comment_user", columnNames = {"target_comment", "user_id"}))
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class CommentsLikes extends BaseEntity {
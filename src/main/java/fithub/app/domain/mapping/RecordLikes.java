@@ -10,6 +10,7 @@ import javax.persistence.*;
 @Getter
 @Builder
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_record_likes_record_user", columnNames = {"record_id", "user_id"}))
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class RecordLikes extends BaseEntity {
@@ -10,6 +10,7 @@ import javax.persistence.*;
 @Getter
 @Builder
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_saved_article_article_user", columnNames = {"article_id", "user_id"}))
 @AllArgsConstructor(access = AccessLevel.PROTECTED)
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class SavedArticle extends BaseEntity {
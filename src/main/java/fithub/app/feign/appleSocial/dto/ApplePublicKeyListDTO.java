@@ -1,7 +1,5 @@
 package fithub.app.feign.appleSocial.dto;
 
-import fithub.app.base.Code;
-import fithub.app.base.exception.handler.AppleOAuthException;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -15,12 +13,4 @@ import java.util.List;
 public class ApplePublicKeyListDTO {
 
     private List<ApplePublicKeyDTO> keys;
-
-    public ApplePublicKeyDTO getMatchesKey(String alg, String kid) {
-        return this.keys
-                .stream()
-                .filter(k -> k.getAlg().equals(alg) && k.getKid().equals(kid))
-                .findFirst()
-                .orElseThrow(() -> new AppleOAuthException(Code.FAILED_TO_FIND_AVALIABLE_RSA));
-    }
 }
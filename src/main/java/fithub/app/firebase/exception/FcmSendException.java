@@ -0,0 +1,33 @@
+package fithub.app.firebase.exception;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * FCM 이 보낸 실패 응답. HTTP 상태와 FcmError 의 errorCode 로 다시 보낼지, 토큰을 지울지 나눈다.
+ */
+@Getter
+public class FcmSendException extends IOException {
+
+    private final int httpStatus;
+
+    private final String errorCode;
+
+    public FcmSendException(int httpStatus, String errorCode, String message) {
+        super("fcm send failed : " + httpStatus + " " + errorCode + " " + message);
+        this.httpStatus = httpStatus;
+        this.errorCode = errorCode;
+    }
+
+    // 앱 삭제, 토큰 만료, 다른 프로젝트의 토큰 등 같은 토큰으로는 다시 보내도 소용없는 경우
+    public boolean isTokenInvalid() {
+        if ("UNREGISTERED".equals(errorCode) || "SENDER_ID_MISMATCH".equals(errorCode))
+            return true;
+        return "INVALID_ARGUMENT".equals(errorCode) && getMessage().contains("registration token");
+    }
+
+    public boolean isRetryable() {
+        return httpStatus == 429 || httpStatus == 401 || httpStatus >= 500;
+    }
+}
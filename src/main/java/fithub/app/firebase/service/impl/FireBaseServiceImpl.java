@@ -1,14 +1,15 @@
 package fithub.app.firebase.service.impl;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.auth.oauth2.GoogleCredentials;
 import fithub.app.firebase.dto.FcmMessageApple;
 import fithub.app.firebase.dto.FcmMessageAppleV2;
 import fithub.app.firebase.dto.FcmMessageV1;
 import fithub.app.firebase.dto.FcmMessage;
+import fithub.app.firebase.exception.FcmSendException;
 import fithub.app.firebase.service.FireBaseService;
-import lombok.RequiredArgsConstructor;
 import okhttp3.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,100 +19,82 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 public class FireBaseServiceImpl implements FireBaseService {
 
-    @Value("${fcm.url}")
-    private final String API_URL = "https://fcm.googleapis.com/v1/projects/fithub-push-alarm/messages:send";
+    private static final String FIREBASE_CONFIG_PATH = "firebase/fithub-firebase-key.json";
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final String API_URL;
     private final ObjectMapper objectMapper;
 
-    Logger logger = LoggerFactory.getLogger(FireBaseServiceImpl.class);
+    // 커넥션 풀과 HTTP/2 커넥션을 재사용하도록 하나의 클라이언트를 공유
+    private final OkHttpClient client;
 
-    @Override
-    public void sendMessageTo(String targetToken, String title, String body, String targetView, String targetPK,String targetNotification) throws IOException {
-        String message = makeMessage(targetToken, title, body, targetView, targetPK, targetNotification);
+    // 토큰을 들고 있다가 만료가 가까워졌을 때만 다시 발급받는다
+    private final GoogleCredentials googleCredentials;
 
-        OkHttpClient client = new OkHttpClient();
-        RequestBody requestBody = RequestBody.create(
-                message, MediaType.get("application/json; charset=utf-8")
-        );
+    Logger logger = LoggerFactory.getLogger(FireBaseServiceImpl.class);
 
-        Request request = new Request.Builder()
-                .url(API_URL)
-                .post(requestBody)
-                .addHeader(HttpHeaders.AUTHORIZATION, "Bearer "+ getAccessToken())
-                .addHeader(HttpHeaders.CONTENT_TYPE, "application/json; UTF-8")
+    public FireBaseServiceImpl(ObjectMapper objectMapper,
+                               @Value("${fcm.url}") String apiUrl,
+                               @Value("${fcm.http.connect-timeout-ms}") long connectTimeoutMs,
+                               @Value("${fcm.http.read-timeout-ms}") long readTimeoutMs,
+                               @Value("${fcm.http.max-idle-connections}") int maxIdleConnections,
+                               @Value("${fcm.http.keep-alive-minutes}") long keepAliveMinutes) throws IOException {
+        this.objectMapper = objectMapper;
+        this.API_URL = apiUrl;
+        this.client = new OkHttpClient.Builder()
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMinutes, TimeUnit.MINUTES))
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
                 .build();
+        try (InputStream inputStream = new ClassPathResource(FIREBASE_CONFIG_PATH).getInputStream()) {
+            this.googleCredentials = GoogleCredentials
+                    .fromStream(inputStream)
+                    .createScoped(List.of("https://www.googleapis.com/auth/cloud-platform"));
+        }
+    }
 
-        try (Response response = client.newCall(request).execute()) {
+    @PreDestroy
+    public void shutdown() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
 
-            logger.info("fire base 푸쉬알림 결과 : {}", response.code());
-            logger.info("fire base 푸쉬알림 내용 : {}", message);
-        }
+    @Override
+    public void sendMessageTo(String targetToken, String title, String body, String targetView, String targetPK,String targetNotification) throws IOException {
+        send(makeMessage(targetToken, title, body, targetView, targetPK, targetNotification));
     }
 
     @Override
     public void sendMessageToV2(String targetToken, String title, String body, String targetView, String targetPK,String targetNotification, String targetImage) throws IOException {
-        String message = makeMessageV2(targetToken, title, body, targetView, targetPK, targetImage, targetNotification);
-
-        OkHttpClient client = new OkHttpClient();
-        RequestBody requestBody = RequestBody.create(
-                message, MediaType.get("application/json; charset=utf-8")
-        );
-
-        Request request = new Request.Builder()
-                .url(API_URL)
-                .post(requestBody)
-                .addHeader(HttpHeaders.AUTHORIZATION, "Bearer "+ getAccessToken())
-                .addHeader(HttpHeaders.CONTENT_TYPE, "application/json; UTF-8")
-                .build();
-
-        try (Response response = client.newCall(request).execute()) {
-
-            logger.info("fire base 푸쉬알림 결과 : {}", response.code());
-            logger.info("fire base 푸쉬알림 내용 : {}", message);
-        }
+        send(makeMessageV2(targetToken, title, body, targetView, targetPK, targetImage, targetNotification));
     }
 
     @Override
     public void sendMessageToApple(String targetToken, String title, String body, String targetView, String targetPK, String targetNotification) throws IOException {
-        String message = makeMessageApple(targetToken, title, body, targetView, targetPK, targetNotification);
-
-        OkHttpClient client = new OkHttpClient();
-        RequestBody requestBody = RequestBody.create(
-                message, MediaType.get("application/json; charset=utf-8")
-        );
-
-        Request request = new Request.Builder()
-                .url(API_URL)
-                .post(requestBody)
-                .addHeader(HttpHeaders.AUTHORIZATION, "Bearer "+ getAccessToken())
-                .addHeader(HttpHeaders.CONTENT_TYPE, "application/json; UTF-8")
-                .build();
-
-        try (Response response = client.newCall(request).execute()) {
-
-            logger.info("fire base 푸쉬알림 결과 : {}", response.code());
-            logger.info("fire base 푸쉬알림 내용 : {}", message);
-        }
+        send(makeMessageApple(targetToken, title, body, targetView, targetPK, targetNotification));
     }
 
     @Override
     public void sendMessageToAppleV2(String targetToken, String title, String body, String targetView, String targetPK, String targetNotification,String targetImage) throws IOException {
-        String message = makeMessageAppleV2(targetToken, title, body, targetView, targetPK, targetImage,targetNotification);
-
-        OkHttpClient client = new OkHttpClient();
-        RequestBody requestBody = RequestBody.create(
-                message, MediaType.get("application/json; charset=utf-8")
-        );
+        send(makeMessageAppleV2(targetToken, title, body, targetView, targetPK, targetImage,targetNotification));
+    }
 
+    private void send(String message) throws IOException {
         Request request = new Request.Builder()
                 .url(API_URL)
-                .post(requestBody)
+                .post(RequestBody.create(message, JSON))
                 .addHeader(HttpHeaders.AUTHORIZATION, "Bearer "+ getAccessToken())
                 .addHeader(HttpHeaders.CONTENT_TYPE, "application/json; UTF-8")
                 .build();
@@ -120,7 +103,29 @@ public class FireBaseServiceImpl implements FireBaseService {
 
             logger.info("fire base 푸쉬알림 결과 : {}", response.code());
             logger.info("fire base 푸쉬알림 내용 : {}", message);
+            // 실패를 알려야 outbox 에서 다시 시도하거나 토큰을 지운다
+            if (!response.isSuccessful())
+                throw toSendException(response.code(), response.body() == null ? "" : response.body().string());
+        }
+    }
+
+    // {"error": {"status": ..., "message": ..., "details": [{"errorCode": "UNREGISTERED"}]}}
+    private FcmSendException toSendException(int httpStatus, String responseBody) {
+        String errorCode = null;
+        String errorMessage = responseBody;
+        try {
+            JsonNode error = objectMapper.readTree(responseBody).path("error");
+            errorMessage = error.path("message").asText(responseBody);
+            for (JsonNode detail : error.path("details")) {
+                if (detail.hasNonNull("errorCode"))
+                    errorCode = detail.get("errorCode").asText();
+            }
+            if (errorCode == null && error.hasNonNull("status"))
+                errorCode = error.get("status").asText();
+        } catch (JsonProcessingException e) {
+            // 본문이 JSON 이 아니면 HTTP 상태로만 판단한다
         }
+        return new FcmSendException(httpStatus, errorCode, errorMessage);
     }
 
 
@@ -204,11 +209,6 @@ public class FireBaseServiceImpl implements FireBaseService {
 
 
     private String getAccessToken() throws IOException{
-        String fireBaseConfigPath = "firebase/fithub-firebase-key.json";
-
-        GoogleCredentials googleCredentials = GoogleCredentials
-                .fromStream(new ClassPathResource(fireBaseConfigPath).getInputStream())
-                .createScoped(List.of("https://www.googleapis.com/auth/cloud-platform"));
         googleCredentials.refreshIfExpired();
         return googleCredentials.getAccessToken().getTokenValue();
     }
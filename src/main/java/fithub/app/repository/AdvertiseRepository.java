@@ -0,0 +1,22 @@
+package fithub.app.repository;
+
+import fithub.app.domain.Advertise;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AdvertiseRepository extends JpaRepository<Advertise, Long> {
+
+    @Query("select a from Advertise a where a.body is not null and a.sendAt <= :now and a.sentAt is null")
+    List<Advertise> findDueCampaigns(@Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update Advertise a set a.sentAt = :sentAt where a.id = :id")
+    int markSent(@Param("id") Long id, @Param("sentAt") LocalDateTime sentAt);
+}
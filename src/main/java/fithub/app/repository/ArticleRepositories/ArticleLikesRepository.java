@@ -3,11 +3,34 @@ package fithub.app.repository.ArticleRepositories;
 import fithub.app.domain.Article;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.ArticleLikes;
+import fithub.app.repository.ContentsCount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ArticleLikesRepository extends JpaRepository<ArticleLikes, Long> {
 
     Optional<ArticleLikes> findByArticleAndUser(Article article, User user);
+
+    @Query("select al.article.id as contentsId, count(al) as total from ArticleLikes al where al.article.id in :articleIds and al.user.id not in :blockedIds group by al.article.id")
+    List<ContentsCount> countLikesGroupByArticle(@Param("articleIds") List<Long> articleIds, @Param("blockedIds") List<Long> blockedIds);
+
+    @Query("select al.article.id as contentsId, count(al) as total from ArticleLikes al where al.article.id in :articleIds group by al.article.id")
+    List<ContentsCount> countAllLikesGroupByArticle(@Param("articleIds") List<Long> articleIds);
+
+    @Query("select al.article.id from ArticleLikes al where al.user.id = :userId and al.article.id in :articleIds")
+    List<Long> findLikedArticleIds(@Param("userId") Long userId, @Param("articleIds") List<Long> articleIds);
+
+    @Modifying
+    @Query("delete from ArticleLikes al where al.article.id = :articleId and al.user.id = :userId")
+    int deleteLike(@Param("articleId") Long articleId, @Param("userId") Long userId);
+
+    // (글, 유저) 유니크 키에 걸리면 0 을 돌려준다
+    @Modifying
+    @Query(value = "insert ignore into article_likes (article_id, user_id, created_at, updated_at) values (:articleId, :userId, now(), now())", nativeQuery = true)
+    int insertLikeIfAbsent(@Param("articleId") Long articleId, @Param("userId") Long userId);
 }
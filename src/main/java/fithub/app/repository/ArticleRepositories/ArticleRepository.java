@@ -3,36 +3,65 @@ package fithub.app.repository.ArticleRepositories;
 import fithub.app.domain.Article;
 import fithub.app.domain.ExerciseCategory;
 import fithub.app.domain.User;
+import fithub.app.repository.ContentsScore;
 import lombok.extern.java.Log;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ArticleRepository extends JpaRepository<Article, Long> {
 
-    @Query("select a from Article a where a.user.id not in (select us.user.id from UserReport us where us.reporter = :reporter) and a.user.id not in (select ur.reporter.id from UserReport ur where ur.user =:target) order by a.createdAt desc")
-    Page<Article> findAllByOrderByCreatedAtDesc(Pageable pageable, @Param("reporter") User reporter, @Param("target") User target);
-    @Query("select a from Article a where a.user.id not in (select us.user.id from UserReport us where us.reporter = :reporter) and a.user.id not in (select ur.reporter.id from UserReport ur where ur.user =:target) and a.exerciseCategory = :category order by a.createdAt desc ")
-    Page<Article> findAllByExerciseCategoryOrderByCreatedAtDesc(@Param("category") ExerciseCategory exerciseCategory, @Param("reporter") User reporter,@Param("target") User target,Pageable pageable);
+    @Query("select a from Article a where a.user.id not in :blockedIds order by a.createdAt desc")
+    Page<Article> findByOrderByCreatedAtDescExcludingUsers(@Param("blockedIds") List<Long> blockedIds, Pageable pageable);
+    @Query("select a from Article a where a.user.id not in :blockedIds and a.exerciseCategory = :category order by a.createdAt desc ")
+    Page<Article> findByExerciseCategoryOrderByCreatedAtDescExcludingUsers(@Param("category") ExerciseCategory exerciseCategory, @Param("blockedIds") List<Long> blockedIds, Pageable pageable);
 
-    @Query("select a from Article a where a.user.id not in (select us.user.id from UserReport us where us.reporter = :reporter) and a.user.id not in (select ur.reporter.id from UserReport ur where ur.user =:target) order by a.likes desc , a.createdAt desc ")
-    Page<Article> findAllByOrderByLikesDescCreatedAtDesc(Pageable pageable, @Param("reporter") User reporter,@Param("target") User target);
+    @Query("select a from Article a where a.user.id not in :blockedIds order by a.likes desc , a.createdAt desc ")
+    Page<Article> findByOrderByLikesDescCreatedAtDescExcludingUsers(@Param("blockedIds") List<Long> blockedIds, Pageable pageable);
 
-    @Query("select a from Article a where a.user.id not in (select us.user.id from UserReport us where us.reporter = :reporter ) and a.user.id not in (select ur.reporter.id from UserReport ur where ur.user =:target) and a.exerciseCategory = :category order by a.likes desc , a.createdAt desc ")
-    Page<Article> findAllByExerciseCategoryOrderByLikesDescCreatedAtDesc(@Param("category") ExerciseCategory category,@Param("reporter") User reporter,@Param("target") User target, Pageable pageable);
+    @Query("select a from Article a where a.user.id not in :blockedIds and a.exerciseCategory = :category order by a.likes desc , a.createdAt desc ")
+    Page<Article> findByExerciseCategoryOrderByLikesDescCreatedAtDescExcludingUsers(@Param("category") ExerciseCategory category, @Param("blockedIds") List<Long> blockedIds, Pageable pageable);
 
-    @Query("select a from Article a where a in (select sa.article from SavedArticle sa where sa.user = :owner) and a.user.id not in (select us.user.id from UserReport us where us.reporter = :reporter) and a.user.id not in (select ur.reporter.id from UserReport ur where ur.user = :target) and a.exerciseCategory = :category order by a.likes desc , a.createdAt desc ")
-    Page<Article> findAllSavedArticleCategory(@Param("owner") User owner, @Param("reporter") User reporter, @Param("target") User targe,@Param("category") ExerciseCategory category, Pageable pageable);
+    // 차단 관계가 없는 유저는 필터 없이 조회
+    Page<Article> findByOrderByCreatedAtDesc(Pageable pageable);
+    Page<Article> findByExerciseCategoryOrderByCreatedAtDesc(ExerciseCategory exerciseCategory, Pageable pageable);
+    Page<Article> findByOrderByLikesDescCreatedAtDesc(Pageable pageable);
+    Page<Article> findByExerciseCategoryOrderByLikesDescCreatedAtDesc(ExerciseCategory exerciseCategory, Pageable pageable);
 
-    @Query("select a from Article a where a in (select sa.article from SavedArticle sa where sa.user = :owner) and a.user.id not in (select us.user.id from UserReport us where us.reporter = :reporter) and a.user.id not in (select ur.reporter.id from UserReport ur where ur.user = :target) order by a.likes desc, a.createdAt desc")
-    Page<Article> findAllSavedArticle(@Param("owner") User owner, @Param("reporter") User reporter, @Param("target") User target,Pageable pageable);
+    // 커서 조회는 차단 필터 없이 넉넉히 가져와서 서비스에서 걸러낸다
+    @Query("select a from Article a where a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id) order by a.createdAt desc, a.id desc")
+    Slice<Article> findSliceByOrderByCreatedAtDesc(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select a from Article a where a.exerciseCategory = :category and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)) order by a.createdAt desc, a.id desc")
+    Slice<Article> findSliceByExerciseCategoryOrderByCreatedAtDesc(@Param("category") ExerciseCategory category, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select a from Article a where a.likes < :likes or (a.likes = :likes and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id))) order by a.likes desc, a.createdAt desc, a.id desc")
+    Slice<Article> findSliceByOrderByLikesDescCreatedAtDesc(@Param("likes") Long likes, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select a from Article a where a.exerciseCategory = :category and (a.likes < :likes or (a.likes = :likes and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)))) order by a.likes desc, a.createdAt desc, a.id desc")
+    Slice<Article> findSliceByExerciseCategoryOrderByLikesDescCreatedAtDesc(@Param("category") ExerciseCategory category, @Param("likes") Long likes, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select a from Article a where a in (select sa.article from SavedArticle sa where sa.user = :owner) and a.user.id not in :blockedIds and a.exerciseCategory = :category order by a.likes desc , a.createdAt desc ")
+    Page<Article> findAllSavedArticleCategoryExcludingUsers(@Param("owner") User owner, @Param("blockedIds") List<Long> blockedIds, @Param("category") ExerciseCategory category, Pageable pageable);
+
+    @Query("select a from Article a where a in (select sa.article from SavedArticle sa where sa.user = :owner) and a.user.id not in :blockedIds order by a.likes desc, a.createdAt desc")
+    Page<Article> findAllSavedArticleExcludingUsers(@Param("owner") User owner, @Param("blockedIds") List<Long> blockedIds, Pageable pageable);
+
+    @Query("select a from Article a where a in (select sa.article from SavedArticle sa where sa.user = :owner) and a.exerciseCategory = :category order by a.likes desc , a.createdAt desc ")
+    Page<Article> findAllSavedArticleCategory(@Param("owner") User owner, @Param("category") ExerciseCategory category, Pageable pageable);
+
+    @Query("select a from Article a where a in (select sa.article from SavedArticle sa where sa.user = :owner) order by a.likes desc, a.createdAt desc")
+    Page<Article> findAllSavedArticle(@Param("owner") User owner, Pageable pageable);
 
     Page<Article> findByIdInAndCreatedAtLessThanOrderByCreatedAtDesc(List<Long> articleIds, LocalDateTime createdAt, Pageable pageable);
     Page<Article> findByIdInOrderByCreatedAtDesc(List<Long> articleIds, Pageable pageable);
@@ -48,15 +77,28 @@ public interface ArticleRepository extends JpaRepository<Article, Long> {
 
     List<Article> findByIdIn(List<Long> articleList);
 
-    List<Article> findAllByExerciseCategory(ExerciseCategory exerciseCategory);
-    void deleteAllByIdInBatch(Iterable<Long> artilceIdList);
+    @Query("select a from Article a where a.id in :ids and a.user.id not in :blockedIds")
+    List<Article> findByIdInExcludingUsers(@Param("ids") List<Long> ids, @Param("blockedIds") List<Long> blockedIds);
+
+    @Query("select a.id as contentsId, a.exerciseCategory.id as categoryId, a.likes as likes from Article a where a.id > :lastId order by a.id")
+    List<ContentsScore> findScoresAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("select a.id as contentsId, a.exerciseCategory.id as categoryId, a.likes as likes from Article a where a.id in :ids")
+    List<ContentsScore> findScoresByIdIn(@Param("ids") List<Long> ids);
 
-    @Query("select count(al) from ArticleLikes al where al.article = :article and al.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and al.user not in (select ur.reporter from UserReport ur where ur.user = :target)")
-    Long countLikes(@Param("article") Article article, @Param("reporter") User reporter, @Param("target") User target);
+    @Query("select a.exerciseCategory.id from Article a where a.id = :articleId")
+    Optional<Integer> findCategoryIdById(@Param("articleId") Long articleId);
 
-    @Query("select count(c) from Comments c where c.article = :article and c.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and c.user not in (select ur.reporter from UserReport ur where ur.user = :target)")
-    Long countComments(@Param("article") Article article, @Param("reporter") User reporter, @Param("target") User target);
+    @Transactional
+    @Modifying
+    @Query("update Article a set a.likes = a.likes + :delta where a.id in :ids")
+    int addLikes(@Param("delta") Long delta, @Param("ids") List<Long> ids);
 
-    @Query("select count (sa) from SavedArticle sa where sa.article = :article and sa.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and sa.user not in (select ur.reporter from UserReport ur where ur.user = :target)")
-    Long countScraps(@Param("article") Article article, @Param("reporter") User reporter, @Param("target") User target);
+    @Transactional
+    @Modifying
+    @Query("update Article a set a.saves = a.saves + :delta where a.id in :ids")
+    int addSaves(@Param("delta") Long delta, @Param("ids") List<Long> ids);
+
+    List<Article> findAllByExerciseCategory(ExerciseCategory exerciseCategory);
+    void deleteAllByIdInBatch(Iterable<Long> artilceIdList);
 }
@@ -3,11 +3,34 @@ package fithub.app.repository.ArticleRepositories;
 import fithub.app.domain.Article;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.SavedArticle;
+import fithub.app.repository.ContentsCount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface SavedArticleRepository extends JpaRepository<SavedArticle, Long> {
 
     Optional<SavedArticle> findByArticleAndUser(Article article, User user);
+
+    @Query("select sa.article.id as contentsId, count(sa) as total from SavedArticle sa where sa.article.id in :articleIds and sa.user.id not in :blockedIds group by sa.article.id")
+    List<ContentsCount> countScrapsGroupByArticle(@Param("articleIds") List<Long> articleIds, @Param("blockedIds") List<Long> blockedIds);
+
+    @Query("select sa.article.id as contentsId, count(sa) as total from SavedArticle sa where sa.article.id in :articleIds group by sa.article.id")
+    List<ContentsCount> countAllScrapsGroupByArticle(@Param("articleIds") List<Long> articleIds);
+
+    @Query("select sa.article.id from SavedArticle sa where sa.user.id = :userId and sa.article.id in :articleIds")
+    List<Long> findSavedArticleIds(@Param("userId") Long userId, @Param("articleIds") List<Long> articleIds);
+
+    @Modifying
+    @Query("delete from SavedArticle sa where sa.article.id = :articleId and sa.user.id = :userId")
+    int deleteSave(@Param("articleId") Long articleId, @Param("userId") Long userId);
+
+    // (글, 유저) 유니크 키에 걸리면 0 을 돌려준다
+    @Modifying
+    @Query(value = "insert ignore into saved_article (article_id, user_id, created_at, updated_at) values (:articleId, :userId, now(), now())", nativeQuery = true)
+    int insertSaveIfAbsent(@Param("articleId") Long articleId, @Param("userId") Long userId);
 }
@@ -0,0 +1,8 @@
+package fithub.app.repository;
+
+public interface BroadcastTarget {
+
+    Long getId();
+
+    String getToken();
+}
@@ -0,0 +1,8 @@
+package fithub.app.repository;
+
+public interface CommentsLikeTarget {
+
+    Long getUserId();
+
+    Long getLikes();
+}
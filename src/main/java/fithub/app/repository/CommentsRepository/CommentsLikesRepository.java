@@ -5,9 +5,25 @@ import fithub.app.domain.Record;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.CommentsLikes;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CommentsLikesRepository extends JpaRepository<CommentsLikes, Long> {
     Optional<CommentsLikes> findByCommentsAndUser(Comments comments, User user);
+
+    @Query("select cl.comments.id from CommentsLikes cl where cl.user.id = :userId and cl.comments.id in :commentsIds")
+    List<Long> findLikedCommentsIds(@Param("userId") Long userId, @Param("commentsIds") List<Long> commentsIds);
+
+    @Modifying
+    @Query("delete from CommentsLikes cl where cl.comments.id = :commentsId and cl.user.id = :userId")
+    int deleteLike(@Param("commentsId") Long commentsId, @Param("userId") Long userId);
+
+    // (댓글, 유저) 유니크 키에 걸리면 0 을 돌려준다
+    @Modifying
+    @Query(value = "insert ignore into comments_likes (target_comment, user_id, created_at, updated_at) values (:commentsId, :userId, now(), now())", nativeQuery = true)
+    int insertLikeIfAbsent(@Param("commentsId") Long commentsId, @Param("userId") Long userId);
 }
@@ -5,26 +5,54 @@ import fithub.app.domain.Comments;
 import fithub.app.domain.Record;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.ContentsReport;
+import fithub.app.repository.CommentsLikeTarget;
+import fithub.app.repository.ContentsCount;
 import lombok.extern.java.Log;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface CommentsRepository extends JpaRepository<Comments, Long> {
 
     Page<Comments> findByCreatedAtLessThanAndArticleOrderByCreatedAtDesc(LocalDateTime createdAt, Article article, Pageable pageable);
 
-    @Query("select c from Comments c where c.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and c.user.id not in (select ur.reporter from UserReport ur where ur.user = :target) and c.article = :article order by c.createdAt desc ")
-    Page<Comments> findByArticleOrderByCreatedAtDesc(@Param("article") Article article, @Param("reporter") User reporter,@Param("target") User target,Pageable pageable);
+    @Query("select c from Comments c where c.user.id not in :blockedIds and c.article = :article order by c.createdAt desc ")
+    Page<Comments> findByArticleOrderByCreatedAtDesc(@Param("article") Article article, @Param("blockedIds") List<Long> blockedIds, Pageable pageable);
+
+    Page<Comments> findAllByArticleOrderByCreatedAtDesc(Article article, Pageable pageable);
 
     Page<Comments> findByCreatedAtLessThanAndRecordOrderByCreatedAtDesc(LocalDateTime createdAt, Record record, Pageable pageable);
 
-    @Query("select c from Comments c where c.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and c.user.id not in (select ur.reporter from UserReport ur where ur.user = :target) and c.record = :record order by c.createdAt desc ")
-    Page<Comments> findByRecordOrderByCreatedAtDesc(@Param("record") Record record, @Param("reporter") User reporter,@Param("target") User target,Pageable pageable);
+    @Query("select c from Comments c where c.user.id not in :blockedIds and c.record = :record order by c.createdAt desc ")
+    Page<Comments> findByRecordOrderByCreatedAtDesc(@Param("record") Record record, @Param("blockedIds") List<Long> blockedIds, Pageable pageable);
+
+    Page<Comments> findAllByRecordOrderByCreatedAtDesc(Record record, Pageable pageable);
+
     Optional<Comments> findByIdAndIsRecord(Long id, Boolean isRecord);
+
+    @Query("select c.user.id as userId, c.likes as likes from Comments c where c.id = :commentsId")
+    Optional<CommentsLikeTarget> findLikeTargetById(@Param("commentsId") Long commentsId);
+
+    @Modifying
+    @Query("update Comments c set c.likes = c.likes + :delta where c.id = :commentsId")
+    int addLikes(@Param("delta") Long delta, @Param("commentsId") Long commentsId);
+
+    @Query("select c.article.id as contentsId, count(c) as total from Comments c where c.article.id in :articleIds and c.user.id not in :blockedIds group by c.article.id")
+    List<ContentsCount> countCommentsGroupByArticle(@Param("articleIds") List<Long> articleIds, @Param("blockedIds") List<Long> blockedIds);
+
+    @Query("select c.article.id as contentsId, count(c) as total from Comments c where c.article.id in :articleIds group by c.article.id")
+    List<ContentsCount> countAllCommentsGroupByArticle(@Param("articleIds") List<Long> articleIds);
+
+    @Query("select c.record.id as contentsId, count(c) as total from Comments c where c.record.id in :recordIds and c.user.id not in :blockedIds group by c.record.id")
+    List<ContentsCount> countCommentsGroupByRecord(@Param("recordIds") List<Long> recordIds, @Param("blockedIds") List<Long> blockedIds);
+
+    @Query("select c.record.id as contentsId, count(c) as total from Comments c where c.record.id in :recordIds group by c.record.id")
+    List<ContentsCount> countAllCommentsGroupByRecord(@Param("recordIds") List<Long> recordIds);
 }
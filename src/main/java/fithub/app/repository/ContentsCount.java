@@ -0,0 +1,8 @@
+package fithub.app.repository;
+
+public interface ContentsCount {
+
+    Long getContentsId();
+
+    Long getTotal();
+}
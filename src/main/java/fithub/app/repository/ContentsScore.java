@@ -0,0 +1,10 @@
+package fithub.app.repository;
+
+public interface ContentsScore {
+
+    Long getContentsId();
+
+    Integer getCategoryId();
+
+    Long getLikes();
+}
@@ -3,7 +3,12 @@ package fithub.app.repository;
 import fithub.app.domain.FcmToken;
 import fithub.app.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,20 @@ public interface FcmTokenRepository extends JpaRepository<FcmToken, Long> {
     Optional<FcmToken> findByToken(String token);
 
     List<FcmToken>findAllByUser(User user);
+
+    @Transactional
+    @Modifying
+    @Query("delete from FcmToken f where f.token in :tokens")
+    int deleteByTokens(@Param("tokens") Collection<String> tokens);
+
+    @Query("select max(f.id) from FcmToken f")
+    Long findMaxId();
+
+    // 캠페인 대상 토큰을 id 순으로 afterId 다음부터 limit 건씩 읽는다. categoryId 가 없으면 관심 운동과 무관하게 전체
+    @Query(value = "select f.id as id, f.token as token from fcm_token f join user u on u.id = f.user_id " +
+            "where f.id > :afterId and f.id <= :maxId and u.marketing_agree = true and u.status = 'ACTIVE' " +
+            "and (:categoryId is null or exists (select 1 from exercise_preference ep where ep.user_id = u.id and ep.category = :categoryId)) " +
+            "order by f.id limit :limit", nativeQuery = true)
+    List<BroadcastTarget> findBroadcastTargets(@Param("afterId") Long afterId, @Param("maxId") Long maxId,
+                                               @Param("categoryId") Integer categoryId, @Param("limit") Integer limit);
 }
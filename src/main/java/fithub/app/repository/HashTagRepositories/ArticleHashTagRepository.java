@@ -12,6 +12,8 @@ import java.util.List;
 
 public interface ArticleHashTagRepository extends JpaRepository<ArticleHashTag, Long> {
 
-    @Query("select ah from ArticleHashTag ah where ah.hashTag = :hashTag and ah.article.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and ah.article.user not in (select ur.reporter from UserReport  ur where ur.user = :target)")
-    List<ArticleHashTag> findAllByHashTag(@Param("hashTag") HashTag hashTag, @Param("reporter")User reporter, @Param("target") User target);
+    @Query("select ah from ArticleHashTag ah where ah.hashTag = :hashTag and ah.article.user.id not in :blockedIds")
+    List<ArticleHashTag> findAllByHashTag(@Param("hashTag") HashTag hashTag, @Param("blockedIds") List<Long> blockedIds);
+
+    List<ArticleHashTag> findByHashTag(HashTag hashTag);
 }
@@ -11,6 +11,8 @@ import java.util.List;
 
 public interface RecordHashTagRepository extends JpaRepository<RecordHashTag, Long> {
 
-    @Query("select rh from RecordHashTag rh where rh.hashTag = :hashTag and rh.record.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and rh.record.user not in (select ur.reporter from UserReport  ur where ur.user = :target)")
-    List<RecordHashTag> findAllByHashTag(@Param("hashTag") HashTag hashTag, @Param("reporter") User reporter, @Param("target") User target);
+    @Query("select rh from RecordHashTag rh where rh.hashTag = :hashTag and rh.record.user.id not in :blockedIds")
+    List<RecordHashTag> findAllByHashTag(@Param("hashTag") HashTag hashTag, @Param("blockedIds") List<Long> blockedIds);
+
+    List<RecordHashTag> findByHashTag(HashTag hashTag);
 }
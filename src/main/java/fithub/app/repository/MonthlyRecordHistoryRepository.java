@@ -0,0 +1,28 @@
+package fithub.app.repository;
+
+import fithub.app.domain.MonthlyRecordHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MonthlyRecordHistoryRepository extends JpaRepository<MonthlyRecordHistory, Long> {
+
+    List<MonthlyRecordHistory> findTop12ByUserIdOrderByRecordMonthDesc(Long userId);
+
+    @Modifying
+    @Query("delete from MonthlyRecordHistory h where h.userId = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    // 이미 그 달 기록이 있는 유저는 건너뛴다. created_at 에 이번 실행 시각을 넣어 어떤 row 를 새로 만들었는지 구분한다
+    @Modifying
+    @Query(value = "insert ignore into monthly_record_history (user_id, record_month, record_num, created_at, updated_at) " +
+            "select u.id, :recordMonth, coalesce(u.monthly_record_num, 0), :runAt, :runAt from user u " +
+            "where u.id between :fromId and :toId and u.created_at < :monthEnd", nativeQuery = true)
+    int snapshot(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("recordMonth") LocalDate recordMonth,
+                 @Param("monthEnd") LocalDateTime monthEnd, @Param("runAt") LocalDateTime runAt);
+}
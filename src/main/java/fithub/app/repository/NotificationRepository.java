@@ -4,19 +4,68 @@ import fithub.app.domain.Notification;
 import fithub.app.domain.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
     Page<Notification> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
 
-    @Query("select count (n) from Notification n where n.user = :user and n.isConfirmed = false")
-    Long findRemainAlarm(@Param("user") User user);
+    // (user_id, created_at, id) 인덱스 한 번의 범위 스캔으로 다음 페이지를 읽는다
+    @Query("select n from Notification n where n.user.id = :userId and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id)) order by n.createdAt desc, n.id desc")
+    Slice<Notification> findSliceByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
 
-    @Query("select n from Notification n where n.isConfirmed = true")
-    List<Notification> findTargetNotification();
+    @Modifying
+    @Query("update Notification n set n.isConfirmed = true where n.user.id = :userId and n.isConfirmed = false")
+    int confirmAllByUserId(@Param("userId") Long userId);
+
+    @Query("select min(n.id) from Notification n")
+    Long findMinId();
+
+    @Query("select max(n.id) from Notification n")
+    Long findMaxId();
+
+    // 보관 기간 정리용, id 구간으로 범위를 좁혀 한 번에 limit 건까지만 지운다
+    @Modifying
+    @Query(value = "delete from notification where id between :fromId and :toId and is_confirmed = true and created_at < :cutoff limit :limit", nativeQuery = true)
+    int deleteConfirmedBefore(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("cutoff") LocalDateTime cutoff,
+                              @Param("limit") Integer limit);
+
+    // (받는 사람, 묶음 키, 구간) 유니크 키로 처음이면 insert, 이미 있으면 횟수를 올리고 문구를 "외 n명" 으로 바꾼다.
+    // 마지막으로 묶인 사람이 다시 보낸 알림(좋아요 취소 후 다시 좋아요 등)은 횟수와 문구를 그대로 둔다.
+    // created_at 은 커서와 보관 기간의 기준이라 건드리지 않고 last_event_at 만 옮긴다. insert 면 1, update 면 2 를 돌려준다
+    @Modifying
+    @Query(value = "insert into notification (notification_category, user_id, article_id, record_id, target_id, notification_body, is_confirmed, " +
+            "coalesce_key, window_start, event_count, last_actor_id, last_event_at, created_at, updated_at) " +
+            "values (:category, :userId, :articleId, :recordId, :targetId, concat(:actor, '님이', :tail), false, :coalesceKey, :windowStart, 1, :actorId, :now, :now, :now) " +
+            "on duplicate key update id = last_insert_id(id), " +
+            "event_count = if(last_actor_id <=> :actorId, event_count, event_count + 1), " +
+            "notification_body = if(last_actor_id <=> :actorId, notification_body, concat(:actor, '님 외 ', event_count - 1, '명이', :tail)), " +
+            "last_actor_id = :actorId, is_confirmed = false, last_event_at = :now, updated_at = :now", nativeQuery = true)
+    int upsertCoalesced(@Param("category") String category, @Param("userId") Long userId, @Param("articleId") Long articleId,
+                        @Param("recordId") Long recordId, @Param("targetId") Long targetId, @Param("actorId") Long actorId,
+                        @Param("actor") String actor, @Param("tail") String tail,
+                        @Param("coalesceKey") String coalesceKey, @Param("windowStart") LocalDateTime windowStart,
+                        @Param("now") LocalDateTime now);
+
+    // upsertCoalesced 직후 같은 커넥션에서 부르면 insert 든 update 든 그 row 의 id 가 나온다
+    @Query(value = "select last_insert_id()", nativeQuery = true)
+    Long findLastInsertId();
+
+    @Query("select n.isConfirmed from Notification n where n.user.id = :userId and n.coalesceKey = :coalesceKey and n.windowStart = :windowStart")
+    Optional<Boolean> findCoalescedIsConfirmed(@Param("userId") Long userId, @Param("coalesceKey") String coalesceKey,
+                                               @Param("windowStart") LocalDateTime windowStart);
+
+    @Query("select count(n) from Notification n where n.user.id = :userId and n.isConfirmed = false")
+    Long countUnread(@Param("userId") Long userId);
+
+    @Query("select n.user.id as userId, count(n) as total from Notification n where n.user.id in :userIds and n.isConfirmed = false group by n.user.id")
+    List<UnreadCount> countUnreadByUserIds(@Param("userIds") List<Long> userIds);
 }
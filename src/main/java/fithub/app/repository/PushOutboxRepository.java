@@ -0,0 +1,64 @@
+package fithub.app.repository;
+
+import fithub.app.domain.PushOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PushOutboxRepository extends JpaRepository<PushOutbox, Long> {
+
+    // 보낼 차례가 된 row 를 한 문장으로 선점한다. 선점 시간이 지난 SENDING 은 워커가 죽은 것으로 보고 다시 가져간다
+    @Transactional
+    @Modifying
+    @Query(value = "update push_outbox set status = 'SENDING', claim_token = :claimToken, next_attempt_at = :leaseUntil, attempts = attempts + 1 " +
+            "where status in ('PENDING', 'SENDING') and next_attempt_at <= :now and attempts < :maxAttempts " +
+            "order by next_attempt_at limit :limit", nativeQuery = true)
+    int claim(@Param("claimToken") String claimToken, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("maxAttempts") Integer maxAttempts, @Param("limit") Integer limit);
+
+    List<PushOutbox> findAllByClaimToken(String claimToken);
+
+    // 마지막 시도 중에 워커가 죽어 SENDING 으로 남은 row
+    @Transactional
+    @Modifying
+    @Query(value = "update push_outbox set status = 'DEAD', last_error = 'lease expired' " +
+            "where status = 'SENDING' and next_attempt_at <= :now and attempts >= :maxAttempts", nativeQuery = true)
+    int markExpiredDead(@Param("now") LocalDateTime now, @Param("maxAttempts") Integer maxAttempts);
+
+    // 선점 시간이 지나 다른 워커가 다시 가져간 row 는 건드리지 않도록 claim_token 까지 맞춰 본다. 0 이면 선점을 잃은 것
+    @Transactional
+    @Modifying
+    @Query("delete from PushOutbox p where p.id = :id and p.claimToken = :claimToken")
+    int deleteSent(@Param("id") Long id, @Param("claimToken") String claimToken);
+
+    @Transactional
+    @Modifying
+    @Query("update PushOutbox p set p.status = fithub.app.domain.enums.PushStatus.PENDING, p.claimToken = null, p.nextAttemptAt = :nextAttemptAt, p.lastError = :lastError " +
+            "where p.id = :id and p.claimToken = :claimToken")
+    int scheduleRetry(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("lastError") String lastError);
+
+    @Transactional
+    @Modifying
+    @Query("update PushOutbox p set p.status = fithub.app.domain.enums.PushStatus.DEAD, p.claimToken = null, p.lastError = :lastError " +
+            "where p.id = :id and p.claimToken = :claimToken")
+    int markDead(@Param("id") Long id, @Param("claimToken") String claimToken, @Param("lastError") String lastError);
+
+    // 보관 기간이 지난 DEAD row 정리, DEAD 의 next_attempt_at 은 마지막으로 선점했던 시각 근처라 그 기준으로 지운다
+    @Transactional
+    @Modifying
+    @Query(value = "delete from push_outbox where status = 'DEAD' and next_attempt_at < :cutoff limit :limit", nativeQuery = true)
+    int deleteDeadBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") Integer limit);
+
+    // 지운 토큰으로 아직 보내지 않은 것, 보내는 중인 것은 워커가 끝낸다
+    @Transactional
+    @Modifying
+    @Query("delete from PushOutbox p where p.targetToken in :tokens and p.status = fithub.app.domain.enums.PushStatus.PENDING")
+    int deletePendingByTokens(@Param("tokens") Collection<String> tokens);
+}
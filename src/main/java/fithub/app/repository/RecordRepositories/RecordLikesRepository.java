@@ -3,11 +3,34 @@ package fithub.app.repository.RecordRepositories;
 import fithub.app.domain.Record;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.RecordLikes;
+import fithub.app.repository.ContentsCount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface RecordLikesRepository extends JpaRepository<RecordLikes, Long> {
 
     Optional<RecordLikes> findByRecordAndUser(Record record, User user);
+
+    @Query("select rl.record.id as contentsId, count(rl) as total from RecordLikes rl where rl.record.id in :recordIds and rl.user.id not in :blockedIds group by rl.record.id")
+    List<ContentsCount> countLikesGroupByRecord(@Param("recordIds") List<Long> recordIds, @Param("blockedIds") List<Long> blockedIds);
+
+    @Query("select rl.record.id as contentsId, count(rl) as total from RecordLikes rl where rl.record.id in :recordIds group by rl.record.id")
+    List<ContentsCount> countAllLikesGroupByRecord(@Param("recordIds") List<Long> recordIds);
+
+    @Query("select rl.record.id from RecordLikes rl where rl.user.id = :userId and rl.record.id in :recordIds")
+    List<Long> findLikedRecordIds(@Param("userId") Long userId, @Param("recordIds") List<Long> recordIds);
+
+    @Modifying
+    @Query("delete from RecordLikes rl where rl.record.id = :recordId and rl.user.id = :userId")
+    int deleteLike(@Param("recordId") Long recordId, @Param("userId") Long userId);
+
+    // (인증글, 유저) 유니크 키에 걸리면 0 을 돌려준다
+    @Modifying
+    @Query(value = "insert ignore into record_likes (record_id, user_id, created_at, updated_at) values (:recordId, :userId, now(), now())", nativeQuery = true)
+    int insertLikeIfAbsent(@Param("recordId") Long recordId, @Param("userId") Long userId);
 }
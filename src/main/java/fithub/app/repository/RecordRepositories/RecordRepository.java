@@ -5,28 +5,52 @@ import fithub.app.domain.ExerciseCategory;
 import fithub.app.domain.Record;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.ContentsReport;
+import fithub.app.repository.ContentsScore;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface RecordRepository extends JpaRepository<Record, Long> {
 
-    @Query("select r from Record r where r.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and r.user.id not in (select ur.reporter.id from UserReport ur where ur.user =:target) order by r.createdAt desc ")
-    Page<Record> findAllByOrderByCreatedAtDesc(@Param("reporter") User reporter, @Param("target") User target,Pageable pageable);
+    @Query("select r from Record r where r.user.id not in :blockedIds order by r.createdAt desc ")
+    Page<Record> findByOrderByCreatedAtDescExcludingUsers(@Param("blockedIds") List<Long> blockedIds, Pageable pageable);
 
-    @Query("select r from Record r where r.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and r.user.id not in (select ur.reporter.id from UserReport ur where ur.user =:target) and r.exerciseCategory = :category order by r.createdAt desc ")
-    Page<Record> findAllByExerciseCategoryOrderByCreatedAtDesc(@Param("category") ExerciseCategory category,@Param("reporter") User reporter ,@Param("target") User target,Pageable pageable);
+    @Query("select r from Record r where r.user.id not in :blockedIds and r.exerciseCategory = :category order by r.createdAt desc ")
+    Page<Record> findByExerciseCategoryOrderByCreatedAtDescExcludingUsers(@Param("category") ExerciseCategory category, @Param("blockedIds") List<Long> blockedIds, Pageable pageable);
 
-    @Query("select r from Record r where r.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and r.user.id not in (select ur.reporter.id from UserReport ur where ur.user =:target) order by r.likes desc, r.createdAt desc ")
-    Page<Record> findByOrderByLikesDescCreatedAtDesc(@Param("reporter") User reporter,@Param("target") User target,Pageable pageable);
+    @Query("select r from Record r where r.user.id not in :blockedIds order by r.likes desc, r.createdAt desc ")
+    Page<Record> findByOrderByLikesDescCreatedAtDescExcludingUsers(@Param("blockedIds") List<Long> blockedIds, Pageable pageable);
 
-    @Query("select r from Record r where r.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and r.user.id not in (select ur.reporter.id from UserReport ur where ur.user =:target) and r.exerciseCategory = :category order by r.likes desc, r.createdAt desc ")
-    Page<Record> findByExerciseCategoryOrderByLikesDescCreatedAtDesc(@Param("category") ExerciseCategory category, @Param("reporter") User reporter,@Param("target") User target,Pageable pageable);
+    @Query("select r from Record r where r.user.id not in :blockedIds and r.exerciseCategory = :category order by r.likes desc, r.createdAt desc ")
+    Page<Record> findByExerciseCategoryOrderByLikesDescCreatedAtDescExcludingUsers(@Param("category") ExerciseCategory category, @Param("blockedIds") List<Long> blockedIds, Pageable pageable);
+
+    // 차단 관계가 없는 유저는 필터 없이 조회
+    Page<Record> findByOrderByCreatedAtDesc(Pageable pageable);
+    Page<Record> findByExerciseCategoryOrderByCreatedAtDesc(ExerciseCategory exerciseCategory, Pageable pageable);
+    Page<Record> findByOrderByLikesDescCreatedAtDesc(Pageable pageable);
+    Page<Record> findByExerciseCategoryOrderByLikesDescCreatedAtDesc(ExerciseCategory exerciseCategory, Pageable pageable);
+
+    // 커서 조회는 차단 필터 없이 넉넉히 가져와서 서비스에서 걸러낸다
+    @Query("select r from Record r where r.createdAt < :createdAt or (r.createdAt = :createdAt and r.id < :id) order by r.createdAt desc, r.id desc")
+    Slice<Record> findSliceByOrderByCreatedAtDesc(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select r from Record r where r.exerciseCategory = :category and (r.createdAt < :createdAt or (r.createdAt = :createdAt and r.id < :id)) order by r.createdAt desc, r.id desc")
+    Slice<Record> findSliceByExerciseCategoryOrderByCreatedAtDesc(@Param("category") ExerciseCategory category, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select r from Record r where r.likes < :likes or (r.likes = :likes and (r.createdAt < :createdAt or (r.createdAt = :createdAt and r.id < :id))) order by r.likes desc, r.createdAt desc, r.id desc")
+    Slice<Record> findSliceByOrderByLikesDescCreatedAtDesc(@Param("likes") Long likes, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select r from Record r where r.exerciseCategory = :category and (r.likes < :likes or (r.likes = :likes and (r.createdAt < :createdAt or (r.createdAt = :createdAt and r.id < :id)))) order by r.likes desc, r.createdAt desc, r.id desc")
+    Slice<Record> findSliceByExerciseCategoryOrderByLikesDescCreatedAtDesc(@Param("category") ExerciseCategory category, @Param("likes") Long likes, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
 
     Page<Record> findByIdInAndCreatedAtLessThanOrderByCreatedAtDesc(List<Long> recordIds, LocalDateTime createdAt, Pageable pageable);
     Page<Record> findByIdInOrderByCreatedAtDesc(List<Long> recordIds,Pageable pageable);
@@ -41,11 +65,30 @@ public interface RecordRepository extends JpaRepository<Record, Long> {
 
     List<Record> findByIdIn(List<Long> recordIdList);
 
-    List<Record> findAllByExerciseCategory(ExerciseCategory exerciseCategory);
+    @Query("select r from Record r where r.id in :ids and r.user.id not in :blockedIds")
+    List<Record> findByIdInExcludingUsers(@Param("ids") List<Long> ids, @Param("blockedIds") List<Long> blockedIds);
 
-    @Query("select count(rl) from RecordLikes rl where rl.record = :record and rl.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and rl.user not in (select ur.reporter from UserReport ur where ur.user = :target)")
-    Long countLikes(@Param("record") Record record, @Param("reporter") User reporter, @Param("target") User target);
+    @Query("select r.id as contentsId, r.exerciseCategory.id as categoryId, r.likes as likes from Record r where r.id > :lastId order by r.id")
+    List<ContentsScore> findScoresAfter(@Param("lastId") Long lastId, Pageable pageable);
 
-    @Query("select count(c) from Comments c where c.record = :record and c.user not in (select ur.user from UserReport ur where ur.reporter = :reporter) and c.user not in (select ur.reporter from UserReport ur where ur.user = :target)")
-    Long countComments(@Param("record") Record record, @Param("reporter") User reporter, @Param("target") User target);
+    @Query("select r.id as contentsId, r.exerciseCategory.id as categoryId, r.likes as likes from Record r where r.id in :ids")
+    List<ContentsScore> findScoresByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("select r.exerciseCategory.id from Record r where r.id = :recordId")
+    Optional<Integer> findCategoryIdById(@Param("recordId") Long recordId);
+
+    @Transactional
+    @Modifying
+    @Query("update Record r set r.likes = r.likes + :delta where r.id in :ids")
+    int addLikes(@Param("delta") Long delta, @Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("update Record r set r.dailyLikes = 0, r.weeklyLikes = 0 where r.dailyLikes > 0 or r.weeklyLikes > 0")
+    int resetTrendingLikes();
+
+    @Modifying
+    @Query("update Record r set r.dailyLikes = :dailyLikes, r.weeklyLikes = :weeklyLikes where r.id in :recordIds")
+    int updateTrendingLikes(@Param("dailyLikes") Long dailyLikes, @Param("weeklyLikes") Long weeklyLikes, @Param("recordIds") List<Long> recordIds);
+
+    List<Record> findAllByExerciseCategory(ExerciseCategory exerciseCategory);
 }
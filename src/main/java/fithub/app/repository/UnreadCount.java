@@ -0,0 +1,8 @@
+package fithub.app.repository;
+
+public interface UnreadCount {
+
+    Long getUserId();
+
+    Long getTotal();
+}
@@ -15,8 +15,8 @@ public interface UserExerciseRepository extends JpaRepository<UserExercise, Long
     Optional<UserExercise> findByUserAndExerciseCategory(User user, ExerciseCategory exerciseCategory);
     List<UserExercise> findAllByUserAndExerciseCategory(User user, ExerciseCategory exerciseCategory);
 
-    @Query("select ue from UserExercise ue where ue.user = :user and ue.exp > 0")
-    List<UserExercise> findUserExercise(@Param("user") User user);
+    @Query("select ue from UserExercise ue where ue.user.id = :userId and (ue.exp > 0 or ue.exerciseCategory.id = :mainCategoryId)")
+    List<UserExercise> findMyExercises(@Param("userId") Long userId, @Param("mainCategoryId") Integer mainCategoryId);
 
     @Query("select ue from UserExercise ue where ue.id in (select u.bestRecordExercise from User u) order by ue.records desc ")
     List<UserExercise> findTopFiveUserExercises(Pageable pageable);
@@ -19,4 +19,10 @@ public interface UserReportRepository extends JpaRepository<UserReport, Long> {
     List<UserReport> findAllByReporter(User user);
 
     Optional<UserReport> findByReporterAndUser(User reporter, User target);
+
+    @Query("select ur.user.id from UserReport ur where ur.reporter.id = :userId")
+    List<Long> findTargetIdsByReporterId(@Param("userId") Long userId);
+
+    @Query("select ur.reporter.id from UserReport ur where ur.user.id = :userId")
+    List<Long> findReporterIdsByTargetId(@Param("userId") Long userId);
 }
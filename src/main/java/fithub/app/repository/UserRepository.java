@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,7 +22,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findTop5ByOrderByTotalRecordNumDesc();
 
+    @Query("select u from User u left join fetch u.mainExercise me left join fetch me.exerciseCategory left join fetch me.grade where u.id = :userId")
+    Optional<User> findAuthUserById(@Param("userId") Long userId);
+
+    @Query("select min(u.id) from User u")
+    Long findMinId();
+
+    @Query("select max(u.id) from User u")
+    Long findMaxId();
+
+    // 이번 실행에서 월 기록을 새로 남긴 유저만 옮긴 만큼 뺀다. 옮긴 뒤에 올라간 인증 수는 이번 달로 남고, 같은 달로 다시 돌려도 두 번 빠지지 않는다
     @Modifying
-    @Query("UPDATE User u SET u.monthlyRecordNum = 0 WHERE u.id = :id")
-    void resetMonthlyRecordForUsers(@Param("id") Long id);
+    @Query(value = "update user u join monthly_record_history h on h.user_id = u.id and h.record_month = :recordMonth and h.created_at = :runAt " +
+            "set u.monthly_record_num = greatest(coalesce(u.monthly_record_num, 0) - h.record_num, 0) where u.id between :fromId and :toId", nativeQuery = true)
+    int resetMonthlyRecord(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("recordMonth") LocalDate recordMonth,
+                           @Param("runAt") LocalDateTime runAt);
 }
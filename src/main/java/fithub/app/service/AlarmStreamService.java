@@ -0,0 +1,15 @@
+package fithub.app.service;
+
+import fithub.app.domain.Notification;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface AlarmStreamService {
+
+    SseEmitter connect(Long userId);
+
+    void publishAlarm(Long userId, Long unreadDelta, Notification notification);
+
+    void publishUnreadDelta(Long userId, Long unreadDelta);
+
+    void heartbeat();
+}
@@ -0,0 +1,10 @@
+package fithub.app.service;
+
+import java.security.PublicKey;
+
+public interface ApplePublicKeyService {
+
+    PublicKey getPublicKey(String kid, String alg);
+
+    void refresh();
+}
@@ -4,6 +4,7 @@ import fithub.app.domain.Article;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.ContentsReport;
 import fithub.app.web.dto.requestDto.ArticleRequestDto;
+import fithub.app.utils.FeedSlice;
 import org.springframework.data.domain.Page;
 
 import java.io.IOException;
@@ -19,9 +20,9 @@ public interface ArticleService {
 
     Boolean getIsLiked(Article article, User user);
 
-    Article toggleArticleLike(Long articleId, User user);
+    Boolean toggleArticleLike(Long articleId, User user);
 
-    Article toggleArticleSave(Long articleId, User user);
+    Boolean toggleArticleSave(Long articleId, User user);
 
     Article updateArticle(Long articleId, ArticleRequestDto.UpdateArticleDto request, User user)throws IOException;
 
@@ -33,10 +34,15 @@ public interface ArticleService {
     Page<Article> findArticlePagingCategoryAndLikes(User user, Integer categoryId, Integer last);
     Page<Article> findArticlePagingLikes(User user, Integer last);
 
+    Page<Article> findArticlePagingTrending(User user, Integer categoryId, Integer last);
+
+    FeedSlice<Article> findArticleSliceCreatedAt(User user, Integer categoryId, String cursor);
+    FeedSlice<Article> findArticleSliceLikes(User user, Integer categoryId, String cursor);
+
     void deleteArticleBulk(ArticleRequestDto.DeleteListArticleDto request, User user);
 
     ContentsReport reportArticle(Long articleId, User user);
 
-    void alarmArticleLike(Article article, User user) throws IOException;
-    void alarmArticleLikeApple(Article article, User user) throws IOException;
+    void alarmArticleLike(Article article, User user);
+    void alarmArticleLikeApple(Article article, User user);
 }
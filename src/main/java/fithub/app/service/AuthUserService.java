@@ -0,0 +1,13 @@
+package fithub.app.service;
+
+import fithub.app.auth.dto.AuthUserInfo;
+import fithub.app.domain.User;
+
+public interface AuthUserService {
+
+    AuthUserInfo getAuthUserInfo(Long userId);
+
+    User getUserReference(Long userId);
+
+    void evict(Long userId);
+}
@@ -6,6 +6,7 @@ import fithub.app.domain.Record;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.ContentsReport;
 import fithub.app.web.dto.requestDto.CommentsRequestDto;
+import fithub.app.web.dto.responseDto.CommentsResponseDto;
 import io.swagger.models.auth.In;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -23,13 +24,13 @@ public interface CommentsService {
     Comments updateOnRecord(CommentsRequestDto.UpdateCommentDto request, Long id,Long commentsId,User user);
     void deleteOnArticle(Long id, Long commentsId, User user);
     void deleteOnRecord(Long id, Long commentsId, User user);
-    Comments toggleCommentsLikeOnArticle(Long id, Long commentsId, User user);
-    Comments toggleCommentsLikeOnRecord(Long id, Long commentsId, User user);
+    CommentsResponseDto.CommentLikeDto toggleCommentsLikeOnArticle(Long id, Long commentsId, User user);
+    CommentsResponseDto.CommentLikeDto toggleCommentsLikeOnRecord(Long id, Long commentsId, User user);
     ContentsReport reportComments(Long commentsId, User user);
 
-    void commentAlarmArticle(Article article,Comments comments, User user, User owner) throws IOException;
-    void commentAlarmArticleApple(Article article,Comments comments, User user, User owner) throws IOException;
-    void commentAlarmRecord(Record record, Comments comments,User user) throws IOException;
-    void commentAlarmRecordApple(Record record, Comments comments,User user) throws IOException;
+    void commentAlarmArticle(Article article,Comments comments, User user, User owner);
+    void commentAlarmArticleApple(Article article,Comments comments, User user, User owner);
+    void commentAlarmRecord(Record record, Comments comments,User user);
+    void commentAlarmRecordApple(Record record, Comments comments,User user);
 
 }
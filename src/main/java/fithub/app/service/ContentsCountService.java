@@ -0,0 +1,19 @@
+package fithub.app.service;
+
+import fithub.app.domain.User;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ContentsCountService {
+
+    Map<Long, Long> countArticleLikes(List<Long> articleIds, User user);
+
+    Map<Long, Long> countArticleComments(List<Long> articleIds, User user);
+
+    Map<Long, Long> countArticleScraps(List<Long> articleIds, User user);
+
+    Map<Long, Long> countRecordLikes(List<Long> recordIds, User user);
+
+    Map<Long, Long> countRecordComments(List<Long> recordIds, User user);
+}
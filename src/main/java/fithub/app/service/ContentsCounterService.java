@@ -0,0 +1,14 @@
+package fithub.app.service;
+
+public interface ContentsCounterService {
+
+    void addArticleLikes(Long articleId, Long delta);
+
+    void addArticleSaves(Long articleId, Long delta);
+
+    void addRecordLikes(Long recordId, Long delta);
+
+    Long getPendingArticleSaves(Long articleId);
+
+    void flush();
+}
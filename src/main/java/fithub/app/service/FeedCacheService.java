@@ -0,0 +1,20 @@
+package fithub.app.service;
+
+import fithub.app.domain.User;
+import fithub.app.web.dto.responseDto.ArticleResponseDto;
+import fithub.app.web.dto.responseDto.RecordResponseDto;
+
+import java.util.function.Supplier;
+
+public interface FeedCacheService {
+
+    Boolean isCacheable(User user, Integer pageIndex, String cursor);
+
+    ArticleResponseDto.ArticleDtoList getArticleFeed(User user, Integer categoryId, Integer pageIndex, String cursor, Boolean orderByLikes, Supplier<ArticleResponseDto.ArticleDtoList> loader);
+
+    RecordResponseDto.recordDtoList getRecordFeed(User user, Integer categoryId, Integer pageIndex, String cursor, Boolean orderByLikes, Supplier<RecordResponseDto.recordDtoList> loader);
+
+    void evictArticleFeed();
+
+    void evictRecordFeed();
+}
@@ -2,11 +2,19 @@ package fithub.app.service;
 
 import fithub.app.domain.Notification;
 import fithub.app.domain.User;
+import fithub.app.utils.AlarmEvent;
+import fithub.app.utils.FeedSlice;
 import org.springframework.data.domain.Page;
 
 public interface NotificationService {
 
     Page<Notification> getNotification(User user, Integer integer);
 
+    FeedSlice<Notification> getNotificationSlice(User user, String cursor);
+
     void confirmNotification(Long alarmId, User user);
+
+    Integer confirmAllNotification(User user);
+
+    void coalesce(AlarmEvent event);
 }
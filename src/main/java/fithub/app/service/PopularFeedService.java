@@ -0,0 +1,48 @@
+package fithub.app.service;
+
+import fithub.app.domain.Article;
+import fithub.app.domain.Record;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PopularFeedService {
+
+    Optional<Page<Article>> findArticlePage(Integer categoryId, Pageable pageable);
+
+    Optional<Page<Record>> findRecordPage(Integer categoryId, Pageable pageable);
+
+    void saveArticle(Article article);
+
+    void removeArticle(Long articleId, Integer categoryId);
+
+    void incrementArticleLikes(Long articleId, Integer categoryId, Long delta);
+
+    void moveArticle(Long articleId, Integer fromCategoryId, Integer toCategoryId);
+
+    void saveRecord(Record record);
+
+    void removeRecord(Long recordId, Integer categoryId);
+
+    void incrementRecordLikes(Long recordId, Integer categoryId, Long delta);
+
+    void moveRecord(Long recordId, Integer fromCategoryId, Integer toCategoryId);
+
+    Boolean rebuildIfAbsent();
+
+    Optional<Page<Article>> findTrendingArticlePage(Integer categoryId, Pageable pageable);
+
+    Optional<Page<Record>> findTrendingRecordPage(Integer categoryId, Pageable pageable);
+
+    Optional<Page<Article>> findTrendingArticlePage(Integer categoryId, List<Long> blockedIds, Pageable pageable);
+
+    Optional<Page<Record>> findTrendingRecordPage(Integer categoryId, List<Long> blockedIds, Pageable pageable);
+
+    void countArticleLike(Long articleId, Boolean liked);
+
+    void countRecordLike(Long recordId, Boolean liked);
+
+    void rollupTrending();
+}
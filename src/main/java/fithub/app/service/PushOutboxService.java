@@ -0,0 +1,21 @@
+package fithub.app.service;
+
+import fithub.app.domain.Notification;
+import fithub.app.domain.User;
+import fithub.app.domain.enums.PushPlatform;
+import fithub.app.utils.FCMType;
+
+import java.time.LocalDateTime;
+
+public interface PushOutboxService {
+
+    void enqueue(User target, Notification notification, PushPlatform platform, String title, String body,
+                 FCMType targetView, Long targetPK, String targetImage);
+
+    void enqueueSummary(User target, Notification notification, PushPlatform platform, String title,
+                        FCMType targetView, Long targetPK, String targetImage, LocalDateTime sendAt);
+
+    void dispatch();
+
+    void purgeDead();
+}
@@ -5,6 +5,7 @@ import fithub.app.domain.Record;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.ContentsReport;
 import fithub.app.web.dto.requestDto.RecordRequestDto;
+import fithub.app.utils.FeedSlice;
 import org.springframework.data.domain.Page;
 
 import java.io.IOException;
@@ -18,7 +19,7 @@ public interface RecordService {
 
     Boolean getIsLiked(Record record, User user);
 
-    Record toggleRecordLike(Long recordId, User user);
+    Boolean toggleRecordLike(Long recordId, User user);
 
     Record updateRecord(RecordRequestDto.updateRecordDto request, Long recordId, User user) throws IOException;
 
@@ -30,14 +31,19 @@ public interface RecordService {
     Page<Record> findRecordPagingCategoryAndLikes(User user, Integer categoryId, Integer pageIndex);
     Page<Record> findRecordPagingLikes(User user, Integer pageIndex);
 
+    Page<Record> findRecordPagingTrending(User user, Integer categoryId, Integer pageIndex);
+
+    FeedSlice<Record> findRecordSliceCreatedAt(User user, Integer categoryId, String cursor);
+    FeedSlice<Record> findRecordSliceLikes(User user, Integer categoryId, String cursor);
+
     void calcExp(User user, Integer categoryId);
 
     void deleteRecordBulk(RecordRequestDto.deleteListRecordDto request, User user);
 
     ContentsReport reportRecord(Long recordId, User user);
 
-    void alarmRecordLike(Record record, User user) throws IOException;
-    void alarmRecordLikeApple(Record record, User user) throws IOException;
+    void alarmRecordLike(Record record, User user);
+    void alarmRecordLikeApple(Record record, User user);
 
     Boolean checkWriteRecord(User user);
 }
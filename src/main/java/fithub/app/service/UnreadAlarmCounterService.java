@@ -0,0 +1,14 @@
+package fithub.app.service;
+
+public interface UnreadAlarmCounterService {
+
+    Long getUnreadCount(Long userId);
+
+    void increment(Long userId);
+
+    void decrement(Long userId);
+
+    void evict(Long userId);
+
+    void reconcile();
+}
@@ -0,0 +1,10 @@
+package fithub.app.service;
+
+import fithub.app.utils.BlockSet;
+
+public interface UserBlockService {
+
+    BlockSet getBlockSet(Long userId);
+
+    void evict(Long userId);
+}
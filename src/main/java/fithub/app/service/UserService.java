@@ -1,5 +1,6 @@
 package fithub.app.service;
 
+import fithub.app.auth.dto.AuthUserInfo;
 import fithub.app.domain.*;
 import fithub.app.domain.mapping.UserReport;
 import fithub.app.utils.OAuthResult;
@@ -43,7 +44,9 @@ public interface UserService {
     Page<Record> getMyRecordsNoCategory(Integer last, User user);
     Page<Record> getMyRecords(Integer pageIndex, User user, Integer categoryId);
 
-    List<UserExercise> getMyExercises(User user);
+    List<UserExercise> getMyExercises(AuthUserInfo user);
+
+    List<MonthlyRecordHistory> getMonthlyRecordHistory(AuthUserInfo user);
 
     UserExercise patchMainExercise(User user, Integer categoryId);
 
@@ -0,0 +1,15 @@
+package fithub.app.service;
+
+import java.util.List;
+import java.util.Set;
+
+public interface ViewerStateService {
+
+    Set<Long> findLikedArticleIds(Long userId, List<Long> articleIds);
+
+    Set<Long> findSavedArticleIds(Long userId, List<Long> articleIds);
+
+    Set<Long> findLikedRecordIds(Long userId, List<Long> recordIds);
+
+    Set<Long> findLikedCommentsIds(Long userId, List<Long> commentsIds);
+}
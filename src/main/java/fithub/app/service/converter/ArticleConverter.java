@@ -9,6 +9,11 @@ import fithub.app.domain.mapping.ContentsReport;
 import fithub.app.repository.ArticleRepositories.ArticleRepository;
 import fithub.app.repository.ExerciseCategoryRepository;
 import fithub.app.repository.HashTagRepositories.HashTagRepository;
+import fithub.app.service.ContentsCountService;
+import fithub.app.service.ContentsCounterService;
+import fithub.app.service.ViewerStateService;
+import fithub.app.utils.FeedCursor;
+import fithub.app.utils.FeedSlice;
 import fithub.app.utils.TimeConverter;
 import fithub.app.web.dto.requestDto.ArticleRequestDto;
 import fithub.app.web.dto.responseDto.ArticleResponseDto;
@@ -24,7 +29,9 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -56,6 +63,18 @@ public class ArticleConverter {
 
     private static TimeConverter staticTimeConverter;
 
+    private final ContentsCountService contentsCountService;
+
+    private static ContentsCountService staticContentsCountService;
+
+    private final ViewerStateService viewerStateService;
+
+    private static ViewerStateService staticViewerStateService;
+
+    private final ContentsCounterService contentsCounterService;
+
+    private static ContentsCounterService staticContentsCounterService;
+
 
     @PostConstruct
     public void init() {
@@ -65,6 +84,9 @@ public class ArticleConverter {
         staticTimeConverter = this.timeConverter;
         staticLogger = this.logger;
         staticHashTagRepository = this.hashTagRepository;
+        staticContentsCountService = this.contentsCountService;
+        staticViewerStateService = this.viewerStateService;
+        staticContentsCounterService = this.contentsCounterService;
     }
 
     public static Article toArticle(ArticleRequestDto.CreateArticleDto request, User user, List<HashTag> hashTagList, Integer categoryId)throws IOException
@@ -145,6 +167,8 @@ public class ArticleConverter {
 
         HashTag hashTag = exerciseHashTagOptional.get();
 
+        List<Long> articleIds = List.of(article.getId());
+
         return ArticleResponseDto.ArticleSpecDto.builder()
                 .articleId(article.getId())
                 .articleCategory(ExerciseCategoryConverter.toCategoryDto(article.getExerciseCategory()))
@@ -152,18 +176,18 @@ public class ArticleConverter {
                 .userInfo(UserConverter.toCommunityUserInfo(article.getUser()))
                 .title(article.getTitle())
                 .contents(article.getContents())
-                .comments(staticArticleRepository.countComments(article, user, user))
+                .comments(staticContentsCountService.countArticleComments(articleIds, user).getOrDefault(article.getId(), 0L))
                 .articlePictureList(PictureConverter.toPictureDtoList(article.getArticleImageList()))
                 .createdAt(staticTimeConverter.convertTime(article.getCreatedAt()))
                 .Hashtags(HashTagConverter.toHashtagDtoList(article.getArticleHashTagList(), hashTag))
-                .likes(staticArticleRepository.countLikes(article,user,user))
-                .scraps(staticArticleRepository.countScraps(article,user,user))
-                .isLiked(user.isLikedArticle(article))
-                .isScraped(user.isSavedArticle(article))
+                .likes(staticContentsCountService.countArticleLikes(articleIds, user).getOrDefault(article.getId(), 0L))
+                .scraps(staticContentsCountService.countArticleScraps(articleIds, user).getOrDefault(article.getId(), 0L))
+                .isLiked(staticViewerStateService.findLikedArticleIds(user.getId(), articleIds).contains(article.getId()))
+                .isScraped(staticViewerStateService.findSavedArticleIds(user.getId(), articleIds).contains(article.getId()))
                 .build();
     }
 
-    public static ArticleResponseDto.ArticleDto toArticleDto(Article article, User user, Boolean isAll){
+    public static ArticleResponseDto.ArticleDto toArticleDto(Article article, Boolean isAll, Map<Long, Long> likesMap, Map<Long, Long> commentsMap, Set<Long> likedArticleIds){
         return ArticleResponseDto.ArticleDto.builder()
                 .articleId(article.getId())
                 .userInfo(UserConverter.toCommunityUserInfo(article.getUser()))
@@ -172,18 +196,30 @@ public class ArticleConverter {
                 .contents(article.getContents())
                 .pictureUrl(article.getArticleImageList().size() == 0 ? null : article.getArticleImageList().get(0).getImageUrl())
                 .exerciseTag(!isAll ? null : article.getExerciseCategory().getName())
-                .likes(staticArticleRepository.countLikes(article, user,user))
-                .comments(staticArticleRepository.countComments(article,user,user))
-                .isLiked(user.isLikedArticle(article))
+                .likes(likesMap.getOrDefault(article.getId(), 0L))
+                .comments(commentsMap.getOrDefault(article.getId(), 0L))
+                .isLiked(likedArticleIds.contains(article.getId()))
                 .createdAt(staticTimeConverter.convertTime(article.getCreatedAt()))
                 .build();
     }
 
+    // 페이지 단위로 카운트와 좋아요 여부를 미리 가져와서 글마다 쿼리가 나가지 않게 한다
+    private static List<ArticleResponseDto.ArticleDto> toArticleDtoContents(List<Article> articleList, User user, Boolean isAll){
+        List<Long> articleIds = articleList.stream()
+                .map(Article::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, Long> likesMap = staticContentsCountService.countArticleLikes(articleIds, user);
+        Map<Long, Long> commentsMap = staticContentsCountService.countArticleComments(articleIds, user);
+        Set<Long> likedArticleIds = staticViewerStateService.findLikedArticleIds(user.getId(), articleIds);
+
+        return articleList.stream()
+                .map(article -> toArticleDto(article, isAll, likesMap, commentsMap, likedArticleIds))
+                .collect(Collectors.toList());
+    }
+
     public static ArticleResponseDto.ArticleDtoList toArticleDtoList(Page<Article> articleList, User user, Boolean isAll){
-        List<ArticleResponseDto.ArticleDto> articleDtoList =
-                articleList.stream()
-                        .map(article -> toArticleDto(article, user, isAll))
-                        .collect(Collectors.toList());
+        List<ArticleResponseDto.ArticleDto> articleDtoList = toArticleDtoContents(articleList.getContent(), user, isAll);
 
         return ArticleResponseDto.ArticleDtoList.builder()
                 .articleList(articleDtoList)
@@ -195,6 +231,22 @@ public class ArticleConverter {
                 .build();
     }
 
+    public static ArticleResponseDto.ArticleDtoList toArticleSliceDtoList(FeedSlice<Article> articleList, User user, Boolean isAll, Boolean orderByLikes){
+        List<ArticleResponseDto.ArticleDto> articleDtoList = toArticleDtoContents(articleList.getContent(), user, isAll);
+
+        FeedCursor next = articleList.getNextCursor();
+        String nextCursor = next == null ? null : next.encode(orderByLikes);
+
+        return ArticleResponseDto.ArticleDtoList.builder()
+                .articleList(articleDtoList)
+                .listSize(articleDtoList.size())
+                .isFirst(articleList.isFirst())
+                .isLast(articleList.isLast())
+                .hasNext(articleList.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     public static ArticleResponseDto.ArticleCreateDto toArticleCreateDto(Article article){
         return ArticleResponseDto.ArticleCreateDto.builder()
                 .articleId(article.getId())
@@ -231,19 +283,19 @@ public class ArticleConverter {
                 .build();
     }
 
-    public static ArticleResponseDto.ArticleLikeDto toArticleLikeDto(Article article, User user){
+    public static ArticleResponseDto.ArticleLikeDto toArticleLikeDto(Long articleId, Boolean isLiked, User user){
         return ArticleResponseDto.ArticleLikeDto.builder()
-                .articleId(article.getId())
-                .articleLikes(staticArticleRepository.countLikes(article, user,user))
-                .isLiked(user.isLikedArticle(article))
+                .articleId(articleId)
+                .articleLikes(staticContentsCountService.countArticleLikes(List.of(articleId), user).getOrDefault(articleId, 0L))
+                .isLiked(isLiked)
                 .build();
     }
 
-    public static ArticleResponseDto.ArticleSaveDto toArticleSaveDtoDto(Article article, User user){
+    public static ArticleResponseDto.ArticleSaveDto toArticleSaveDtoDto(Article article, Boolean isSaved){
         return ArticleResponseDto.ArticleSaveDto.builder()
                 .articleId(article.getId())
-                .articleSaves(article.getSaves())
-                .isSaved(user.isSavedArticle(article))
+                .articleSaves(article.getSaves() + staticContentsCounterService.getPendingArticleSaves(article.getId()))
+                .isSaved(isSaved)
                 .build();
     }
 
@@ -4,6 +4,7 @@ import fithub.app.domain.Comments;
 import fithub.app.domain.User;
 import fithub.app.domain.mapping.ContentsReport;
 import fithub.app.repository.CommentsRepository.CommentsRepository;
+import fithub.app.service.ViewerStateService;
 import fithub.app.utils.TimeConverter;
 import fithub.app.web.dto.requestDto.CommentsRequestDto;
 import fithub.app.web.dto.responseDto.CommentsResponseDto;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Component;
 import javax.annotation.PostConstruct;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
@@ -27,10 +29,15 @@ public class CommentsConverter {
 
     private static TimeConverter staticTimeConverter;
 
+    private final ViewerStateService viewerStateService;
+
+    private static ViewerStateService staticViewerStateService;
+
     @PostConstruct
     public void init() {
         staticCommentsRepository = this.commentsRepository;
         staticTimeConverter = this.timeConverter;
+        staticViewerStateService = this.viewerStateService;
     }
 
     public static Comments toCommentsArticle(CommentsRequestDto.CreateCommentDto request){
@@ -46,21 +53,26 @@ public class CommentsConverter {
                 .isRecord(true)
                 .build();
     }
-    public static CommentsResponseDto.CommentsDto toCommentsDto(Comments comments, User user) {
+    public static CommentsResponseDto.CommentsDto toCommentsDto(Comments comments, Set<Long> likedCommentsIds) {
         return CommentsResponseDto.CommentsDto.builder()
                 .commentId(comments.getId())
                 .userInfo(UserConverter.toCommunityUserInfo(comments.getUser()))
                 .contents(comments.getContents())
                 .likes(comments.getLikes())
-                .isLiked(user.isLikedCommentsFind(comments))
+                .isLiked(likedCommentsIds.contains(comments.getId()))
                 .createdAt(staticTimeConverter.convertTime(comments.getCreatedAt()))
                 .build();
     }
 
     public static CommentsResponseDto.CommentsDtoList toCommentsDtoList(Page<Comments> commentsList, User user){
+        List<Long> commentsIds = commentsList.stream()
+                .map(Comments::getId)
+                .collect(Collectors.toList());
+        Set<Long> likedCommentsIds = staticViewerStateService.findLikedCommentsIds(user.getId(), commentsIds);
+
         List<CommentsResponseDto.CommentsDto> commentsDtoList =
                 commentsList.stream()
-                        .map(comments -> toCommentsDto(comments, user))
+                        .map(comments -> toCommentsDto(comments, likedCommentsIds))
                         .collect(Collectors.toList());
 
         return CommentsResponseDto.CommentsDtoList.builder()
@@ -95,11 +107,11 @@ public class CommentsConverter {
                 .build();
     }
 
-    public static CommentsResponseDto.CommentLikeDto toCommentLikeDto(Comments comments, User user){
+    public static CommentsResponseDto.CommentLikeDto toCommentLikeDto(Long commentId, Long newLikes, Boolean isLiked){
         return CommentsResponseDto.CommentLikeDto.builder()
-                .commentId(comments.getId())
-                .newLikes(comments.getLikes())
-                .isLiked(user.isLikedComments(comments))
+                .commentId(commentId)
+                .newLikes(newLikes)
+                .isLiked(isLiked)
                 .build();
     }
 
@@ -3,6 +3,8 @@ package fithub.app.service.converter;
 import fithub.app.domain.Notification;
 import fithub.app.domain.enums.NotificationCategory;
 import fithub.app.utils.FCMType;
+import fithub.app.utils.FeedCursor;
+import fithub.app.utils.FeedSlice;
 import fithub.app.utils.TimeConverter;
 import fithub.app.web.dto.responseDto.NotificationResponseDto;
 import lombok.RequiredArgsConstructor;
@@ -28,7 +30,10 @@ public class NotificationConverter {
 
     public static NotificationResponseDto.NotificationDto toNotificationDto(Notification notification){
 
-        Long targetId = notification.getNotificationCategory().equals(NotificationCategory.ARTICLE) ? notification.getArticle().getId() : notification.getRecord().getId();
+        // target_id 가 생기기 전에 쌓인 알림만 연관관계에서 꺼낸다
+        Long targetId = notification.getTargetId();
+        if (targetId == null)
+            targetId = notification.getNotificationCategory().equals(NotificationCategory.ARTICLE) ? notification.getArticle().getId() : notification.getRecord().getId();
 
         return NotificationResponseDto.NotificationDto.builder()
                 .alarmType(notification.getNotificationCategory().toString())
@@ -55,6 +60,31 @@ public class NotificationConverter {
                 .build();
     }
 
+    public static NotificationResponseDto.NotificationDtoList toNotificationSliceDtoList(FeedSlice<Notification> notificationList){
+        List<Notification> contents = notificationList.getContent();
+        List<NotificationResponseDto.NotificationDto> notificationDtoList = contents.stream()
+                .map(notification -> toNotificationDto(notification)).collect(Collectors.toList());
+
+        FeedCursor next = notificationList.getNextCursor();
+        String nextCursor = next == null ? null : next.encode(false);
+
+        return NotificationResponseDto.NotificationDtoList.builder()
+                .alarmList(notificationDtoList)
+                .isFirst(notificationList.isFirst())
+                .isLast(notificationList.isLast())
+                .listSize(contents.size())
+                .hasNext(notificationList.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public static NotificationResponseDto.NotificationConfirmAllDto toNotificationConfirmAllDto(Integer confirmedCount){
+        return NotificationResponseDto.NotificationConfirmAllDto.builder()
+                .confirmedCount(confirmedCount)
+                .confirmedAt(LocalDateTime.now())
+                .build();
+    }
+
     public static NotificationResponseDto.NotificationConfirmDto toNotificationConfirmDto(){
         return NotificationResponseDto.NotificationConfirmDto.builder()
                 .confirmedAt(LocalDateTime.now())
@@ -9,6 +9,10 @@ import fithub.app.domain.mapping.RecordHashTag;
 import fithub.app.repository.ExerciseCategoryRepository;
 import fithub.app.repository.HashTagRepositories.HashTagRepository;
 import fithub.app.repository.RecordRepositories.RecordRepository;
+import fithub.app.service.ContentsCountService;
+import fithub.app.service.ViewerStateService;
+import fithub.app.utils.FeedCursor;
+import fithub.app.utils.FeedSlice;
 import fithub.app.utils.TimeConverter;
 import fithub.app.web.dto.requestDto.RecordRequestDto;
 import fithub.app.web.dto.responseDto.RecordResponseDto;
@@ -24,6 +28,8 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
@@ -54,6 +60,14 @@ public class RecordConverter {
 
     private static HashTagRepository staticHashTagRepository;
 
+    private final ContentsCountService contentsCountService;
+
+    private static ContentsCountService staticContentsCountService;
+
+    private final ViewerStateService viewerStateService;
+
+    private static ViewerStateService staticViewerStateService;
+
     @PostConstruct
     public void init() {
         staticRecordRepository = this.recordRepository;
@@ -62,6 +76,8 @@ public class RecordConverter {
         staticLogger = this.logger;
         staticTimeConverter = this.timeConverter;
         staticHashTagRepository = this.hashTagRepository;
+        staticContentsCountService = this.contentsCountService;
+        staticViewerStateService = this.viewerStateService;
     }
 
     public static Record toRecord(RecordRequestDto.CreateRecordDto request, User user, List<HashTag> hashTagList, Integer categoryId) throws IOException
@@ -129,6 +145,8 @@ public class RecordConverter {
 
         HashTag hashTag = staticHashTagRepository.findByName(exerciseCategory.getName()).get();
 
+        List<Long> recordIds = List.of(record.getId());
+
         return RecordResponseDto.RecordSpecDto.builder()
                 .recordId(record.getId())
                 .recordCategory(ExerciseCategoryConverter.toCategoryDto(record.getExerciseCategory()))
@@ -136,30 +154,41 @@ public class RecordConverter {
                 .userInfo(UserConverter.toCommunityUserInfo(record.getUser()))
                 .contents(record.getContents())
                 .pictureImage(record.getImageUrl())
-                .comments(staticRecordRepository.countComments(record,user,user))
+                .comments(staticContentsCountService.countRecordComments(recordIds, user).getOrDefault(record.getId(), 0L))
                 .createdAt(staticTimeConverter.convertTime(record.getCreatedAt()))
                 .Hashtags(HashTagConverter.toHashtagDtoListRecord(record.getRecordHashTagList(),hashTag))
-                .likes(staticRecordRepository.countLikes(record,user,user))
-                .isLiked(user.isLikedRecord(record))
+                .likes(staticContentsCountService.countRecordLikes(recordIds, user).getOrDefault(record.getId(), 0L))
+                .isLiked(staticViewerStateService.findLikedRecordIds(user.getId(), recordIds).contains(record.getId()))
                 .build();
     }
 
-    public static RecordResponseDto.recordDto toRecordDto(Record record, User user){
+    public static RecordResponseDto.recordDto toRecordDto(Record record, Map<Long, Long> likesMap, Set<Long> likedRecordIds){
         return RecordResponseDto.recordDto.builder()
                 .recordId(record.getId())
                 .pictureUrl(record.getImageUrl())
-                .likes(staticRecordRepository.countLikes(record,user,user))
-                .isLiked(user.isLikedRecord(record))
+                .likes(likesMap.getOrDefault(record.getId(), 0L))
+                .isLiked(likedRecordIds.contains(record.getId()))
                 .createdAt(staticTimeConverter.convertTime(record.getCreatedAt()))
                 .build();
     }
 
+    // 페이지 단위로 좋아요 수와 좋아요 여부를 미리 가져와서 인증마다 쿼리가 나가지 않게 한다
+    private static List<RecordResponseDto.recordDto> toRecordDtoContents(List<Record> recordList, User user){
+        List<Long> recordIds = recordList.stream()
+                .map(Record::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, Long> likesMap = staticContentsCountService.countRecordLikes(recordIds, user);
+        Set<Long> likedRecordIds = staticViewerStateService.findLikedRecordIds(user.getId(), recordIds);
+
+        return recordList.stream()
+                .map(record -> toRecordDto(record, likesMap, likedRecordIds))
+                .collect(Collectors.toList());
+    }
+
     public static RecordResponseDto.recordDtoList toRecordDtoList(Page<Record> records, User user){
         List<Record> recordList = records.toList();
-        List<RecordResponseDto.recordDto> recordDtoList =
-                recordList.stream()
-                        .map(record -> toRecordDto(record, user))
-                        .collect(Collectors.toList());
+        List<RecordResponseDto.recordDto> recordDtoList = toRecordDtoContents(recordList, user);
 
         return RecordResponseDto.recordDtoList.builder()
                 .recordList(recordDtoList)
@@ -171,6 +200,23 @@ public class RecordConverter {
                 .build();
     }
 
+    public static RecordResponseDto.recordDtoList toRecordSliceDtoList(FeedSlice<Record> records, User user, Boolean orderByLikes){
+        List<Record> recordList = records.getContent();
+        List<RecordResponseDto.recordDto> recordDtoList = toRecordDtoContents(recordList, user);
+
+        FeedCursor next = records.getNextCursor();
+        String nextCursor = next == null ? null : next.encode(orderByLikes);
+
+        return RecordResponseDto.recordDtoList.builder()
+                .recordList(recordDtoList)
+                .listSize(recordList.size())
+                .isFirst(records.isFirst())
+                .isLast(records.isLast())
+                .hasNext(records.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     public static RecordResponseDto.recordCreateDto toRecordCreateDto (Record record){
         return RecordResponseDto.recordCreateDto.builder()
                 .recordId(record.getId())
@@ -205,11 +251,11 @@ public class RecordConverter {
                 .build();
     }
 
-    public static RecordResponseDto.recordLikeDto toRecordLikeDto(Record record, User user){
+    public static RecordResponseDto.recordLikeDto toRecordLikeDto(Long recordId, Boolean isLiked, User user){
         return RecordResponseDto.recordLikeDto.builder()
-                .recordId(record.getId())
-                .newLikes(staticRecordRepository.countLikes(record,user,user))
-                .isLiked(user.isLikedRecord(record))
+                .recordId(recordId)
+                .newLikes(staticContentsCountService.countRecordLikes(List.of(recordId), user).getOrDefault(recordId, 0L))
+                .isLiked(isLiked)
                 .build();
     }
 
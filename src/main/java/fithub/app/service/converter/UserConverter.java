@@ -1,5 +1,6 @@
 package fithub.app.service.converter;
 
+import fithub.app.auth.dto.AuthUserInfo;
 import fithub.app.auth.provider.TokenProvider;
 import fithub.app.aws.s3.AmazonS3Manager;
 import fithub.app.base.Code;
@@ -22,6 +23,7 @@ import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -244,6 +246,16 @@ public class UserConverter {
                 .build();
     }
 
+    public static UserResponseDto.CommunityUserInfo toCommunityUserInfo(AuthUserInfo user){
+        return UserResponseDto.CommunityUserInfo.builder()
+                .ownerId(user.getId())
+                .ProfileUrl(user.getProfileUrl())
+                .nickname(user.getNickname())
+                .mainExerciseInfo(UserExerciseConverter.toUserExerciseDto(user))
+                .isDefaultProfile(user.getIsDefaultProfile())
+                .build();
+    }
+
 //    public static UserResponseDto.RecordUserDto toRecordUserDto(User user){
 //        return UserResponseDto.RecordUserDto.builder()
 //                .ownerId(user.getId())
@@ -291,7 +303,7 @@ public class UserConverter {
                 .build();
     }
 
-    public static UserResponseDto.MyPageDto toMyPageDto(User user, List<UserExercise> myExerciseList){
+    public static UserResponseDto.MyPageDto toMyPageDto(AuthUserInfo user, List<UserExercise> myExerciseList){
 
         List<UserResponseDto.UserExerciseDto> userExerciseDtoList = myExerciseList.stream()
                 .map(userExercise -> toUserExerciseDto(userExercise))
@@ -304,6 +316,20 @@ public class UserConverter {
                 .build();
     }
 
+    public static UserResponseDto.MonthlyRecordListDto toMonthlyRecordListDto(List<MonthlyRecordHistory> historyList){
+        List<UserResponseDto.MonthlyRecordDto> monthlyRecordList = historyList.stream()
+                .map(history -> UserResponseDto.MonthlyRecordDto.builder()
+                        .month(YearMonth.from(history.getRecordMonth()).toString())
+                        .recordNum(history.getRecordNum())
+                        .build())
+                .collect(Collectors.toList());
+
+        return UserResponseDto.MonthlyRecordListDto.builder()
+                .monthlyRecordList(monthlyRecordList)
+                .listSize(monthlyRecordList.size())
+                .build();
+    }
+
     public static UserResponseDto.MainExerciseChangeDto toMainExerciseChangeDto(UserExercise exercise){
         return UserResponseDto.MainExerciseChangeDto.builder()
                 .mainExerciseName(exercise.getExerciseCategory().getName())
@@ -332,9 +358,9 @@ public class UserConverter {
                 .build();
     }
 
-    public static UserResponseDto.CurrentMainExerciseDto toCurrentMainExerciseDto(User user){
+    public static UserResponseDto.CurrentMainExerciseDto toCurrentMainExerciseDto(AuthUserInfo user){
         return UserResponseDto.CurrentMainExerciseDto.builder()
-                .currentExerciseCategory(user.getMainExercise().getExerciseCategory().getId())
+                .currentExerciseCategory(user.getMainExerciseCategoryId())
                 .build();
     }
 
@@ -1,5 +1,6 @@
 package fithub.app.service.converter;
 
+import fithub.app.auth.dto.AuthUserInfo;
 import fithub.app.domain.User;
 import fithub.app.domain.UserExercise;
 import fithub.app.web.dto.responseDto.UserExerciseResponseDto;
@@ -18,4 +19,12 @@ public class UserExerciseConverter {
                 .level(user.getMainExercise().getGrade().getLevel())
                 .build();
     }
+
+    public static UserExerciseResponseDto.UserExerciseDto toUserExerciseDto(AuthUserInfo user){
+        return !user.hasMainExercise() ? null : UserExerciseResponseDto.UserExerciseDto.builder()
+                .category(user.getMainExerciseCategory())
+                .GradeName(user.getMainExerciseGradeName())
+                .level(user.getMainExerciseLevel())
+                .build();
+    }
 }
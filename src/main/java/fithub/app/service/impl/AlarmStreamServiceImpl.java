@@ -0,0 +1,173 @@
+package fithub.app.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fithub.app.base.Code;
+import fithub.app.base.exception.handler.NotificationException;
+import fithub.app.domain.Notification;
+import fithub.app.service.AlarmStreamService;
+import fithub.app.service.UnreadAlarmCounterService;
+import fithub.app.service.converter.NotificationConverter;
+import fithub.app.utils.AlarmStreamMessage;
+import fithub.app.utils.TransactionHooks;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 안 읽은 알림 수와 새 알림을 SSE 로 밀어준다. 노드마다 유저당 연결 하나만 들고 있고,
+ * 알림이 생긴 노드는 Redis 채널로 발행만 하며 각 노드가 구독해서 자기한테 붙은 유저에게 보낸다.
+ */
+@Slf4j
+@Service
+public class AlarmStreamServiceImpl implements AlarmStreamService, MessageListener {
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final UnreadAlarmCounterService unreadAlarmCounterService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<Long, SseEmitter> emitters = new ConcurrentHashMap<>();
+
+    private final String channel;
+
+    private final Long timeoutMs;
+
+    private final Integer maxConnections;
+
+    public AlarmStreamServiceImpl(StringRedisTemplate redisTemplate,
+                                  UnreadAlarmCounterService unreadAlarmCounterService,
+                                  RedisMessageListenerContainer redisMessageListenerContainer,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.stream.channel}") String channel,
+                                  @Value("${notification.stream.timeout-ms}") Long timeoutMs,
+                                  @Value("${notification.stream.max-connections}") Integer maxConnections) {
+        this.redisTemplate = redisTemplate;
+        this.unreadAlarmCounterService = unreadAlarmCounterService;
+        this.channel = channel;
+        this.timeoutMs = timeoutMs;
+        this.maxConnections = maxConnections;
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+
+        Gauge.builder("alarm.stream.connections", emitters, Map::size)
+                .register(meterRegistry);
+    }
+
+    // 같은 유저가 다시 붙으면 이전 연결은 닫는다. 연결 직후 현재 안 읽은 수를 한 번 보내 클라이언트가 맞춰 두게 한다
+    @Override
+    public SseEmitter connect(Long userId) {
+        if (!emitters.containsKey(userId) && emitters.size() >= maxConnections)
+            throw new NotificationException(Code.ALARM_STREAM_BUSY);
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(userId, emitter));
+        emitter.onTimeout(() -> emitters.remove(userId, emitter));
+        emitter.onError(e -> emitters.remove(userId, emitter));
+
+        SseEmitter previous = emitters.put(userId, emitter);
+        if (previous != null)
+            previous.complete();
+
+        send(userId, emitter, AlarmStreamMessage.builder()
+                .userId(userId)
+                .unreadCount(unreadAlarmCounterService.getUnreadCount(userId))
+                .build());
+        return emitter;
+    }
+
+    @Override
+    public void publishAlarm(Long userId, Long unreadDelta, Notification notification) {
+        publish(AlarmStreamMessage.builder()
+                .userId(userId)
+                .unreadDelta(unreadDelta)
+                .alarm(NotificationConverter.toNotificationDto(notification))
+                .build());
+    }
+
+    @Override
+    public void publishUnreadDelta(Long userId, Long unreadDelta) {
+        if (unreadDelta == 0)
+            return;
+        publish(AlarmStreamMessage.builder()
+                .userId(userId)
+                .unreadDelta(unreadDelta)
+                .build());
+    }
+
+    // 중간 프록시나 로드밸런서가 유휴 연결을 끊지 않도록 주석 이벤트를 보낸다. 보내지 못한 연결은 여기서 정리된다
+    @Override
+    @Scheduled(fixedDelayString = "${notification.stream.heartbeat-interval-ms}")
+    public void heartbeat() {
+        emitters.forEach((userId, emitter) -> {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(userId, emitter);
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        AlarmStreamMessage streamMessage;
+        try {
+            streamMessage = objectMapper.readValue(message.getBody(), AlarmStreamMessage.class);
+        } catch (IOException e) {
+            log.warn("alarm stream message parse failed : {}", e.getMessage());
+            return;
+        }
+        SseEmitter emitter = emitters.get(streamMessage.getUserId());
+        if (emitter != null)
+            send(streamMessage.getUserId(), emitter, streamMessage);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        emitters.values().forEach(SseEmitter::complete);
+        emitters.clear();
+    }
+
+    // 알림이 커밋된 뒤에만 발행한다. 발행에 실패해도 알림 저장은 그대로 두고, 클라이언트는 다음 연결 때 다시 맞춘다
+    private void publish(AlarmStreamMessage message) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            log.warn("alarm stream message serialize failed : {}", e.getMessage());
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            try {
+                redisTemplate.convertAndSend(channel, payload);
+            } catch (RuntimeException e) {
+                log.warn("alarm stream publish failed : {}", e.getMessage());
+            }
+        });
+    }
+
+    private void send(Long userId, SseEmitter emitter, AlarmStreamMessage message) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(message.getAlarm() == null ? "unread" : "alarm")
+                    .data(message, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            emitters.remove(userId, emitter);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package fithub.app.service.impl;
+
+import feign.FeignException;
+import fithub.app.base.Code;
+import fithub.app.base.exception.handler.AppleOAuthException;
+import fithub.app.feign.appleSocial.dto.ApplePublicKeyDTO;
+import fithub.app.feign.appleSocial.dto.ApplePublicKeyListDTO;
+import fithub.app.feign.appleSocial.service.AppleSocialFeign;
+import fithub.app.service.ApplePublicKeyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 애플 로그인 검증용 공개키(JWKS)를 PublicKey 로 만들어 (kid, alg) 별로 들고 있는다.
+ * 주기적으로 새로 받아오고, 모르는 kid 가 오면 애플이 키를 바꾼 것이므로 간격을 두고 한 번 더 받아온다.
+ */
+@Service
+public class ApplePublicKeyServiceImpl implements ApplePublicKeyService {
+
+    Logger logger = LoggerFactory.getLogger(ApplePublicKeyServiceImpl.class);
+
+    private final AppleSocialFeign appleSocialFeign;
+
+    private final long minRefetchIntervalMs;
+
+    private volatile Map<String, PublicKey> publicKeys = Collections.emptyMap();
+
+    private volatile long lastFetchedAt = 0L;
+
+    public ApplePublicKeyServiceImpl(AppleSocialFeign appleSocialFeign,
+                                     @Value("${apple.jwks.min-refetch-interval-ms}") long minRefetchIntervalMs) {
+        this.appleSocialFeign = appleSocialFeign;
+        this.minRefetchIntervalMs = minRefetchIntervalMs;
+    }
+
+    @Override
+    public PublicKey getPublicKey(String kid, String alg) {
+        PublicKey publicKey = publicKeys.get(toKey(kid, alg));
+        if (publicKey != null)
+            return publicKey;
+
+        refetchIfAllowed();
+        publicKey = publicKeys.get(toKey(kid, alg));
+        if (publicKey == null)
+            throw new AppleOAuthException(Code.FAILED_TO_FIND_AVALIABLE_RSA);
+        return publicKey;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${apple.jwks.refresh-interval-ms}")
+    public void refresh() {
+        try {
+            fetch();
+        } catch (RuntimeException e) {
+            // 애플 쪽 장애여도 들고 있는 키로 계속 검증한다
+            logger.warn("애플 공개키 갱신 실패, 기존 키 유지 : {}", e.getMessage());
+        }
+    }
+
+    // 잘못된 kid 로 계속 요청이 와도 애플 서버를 두드리지 않게 간격을 둔다
+    private synchronized void refetchIfAllowed() {
+        if (System.currentTimeMillis() - lastFetchedAt < minRefetchIntervalMs)
+            return;
+        fetch();
+    }
+
+    private synchronized void fetch() {
+        lastFetchedAt = System.currentTimeMillis();
+        ApplePublicKeyListDTO applePublicKeys;
+        try {
+            applePublicKeys = appleSocialFeign.getApplePublicKeys();
+        } catch (FeignException e) {
+            logger.warn("애플 공개키 조회 실패 : {}", e.getMessage());
+            throw new AppleOAuthException(Code.FAILED_TO_VALIDATE_APPLE_LOGIN);
+        }
+
+        Map<String, PublicKey> fetched = new HashMap<>();
+        for (ApplePublicKeyDTO applePublicKey : applePublicKeys.getKeys())
+            fetched.put(toKey(applePublicKey.getKid(), applePublicKey.getAlg()), toPublicKey(applePublicKey));
+        publicKeys = Collections.unmodifiableMap(fetched);
+        logger.info("애플 공개키 갱신 완료 : {}", publicKeys.keySet());
+    }
+
+    private String toKey(String kid, String alg) {
+        return kid + ":" + alg;
+    }
+
+    private PublicKey toPublicKey(ApplePublicKeyDTO applePublicKeyDTO) {
+        byte[] nBytes = Base64.getUrlDecoder().decode(applePublicKeyDTO.getN());
+        byte[] eBytes = Base64.getUrlDecoder().decode(applePublicKeyDTO.getE());
+
+        BigInteger n = new BigInteger(1, nBytes);
+        BigInteger e = new BigInteger(1, eBytes);
+
+        try {
+            RSAPublicKeySpec publicKeySpec = new RSAPublicKeySpec(n, e);
+            KeyFactory keyFactory = KeyFactory.getInstance(applePublicKeyDTO.getKty());
+            return keyFactory.generatePublic(publicKeySpec);
+        } catch (Exception exception) {
+            throw new AppleOAuthException(Code.FAILED_TO_FIND_AVALIABLE_RSA);
+        }
+    }
+}
@@ -1,19 +1,14 @@
 package fithub.app.service.impl;
 
-import fithub.app.base.Code;
-import fithub.app.base.exception.handler.AppleOAuthException;
-import fithub.app.feign.appleSocial.dto.ApplePublicKeyDTO;
-import fithub.app.feign.appleSocial.dto.ApplePublicKeyListDTO;
-import fithub.app.feign.appleSocial.service.AppleSocialFeign;
+import fithub.app.service.ApplePublicKeyService;
 import fithub.app.service.AppleService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.ObjectUtils;
 import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -21,13 +16,9 @@ import org.springframework.stereotype.Service;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.math.BigInteger;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.security.KeyFactory;
-import java.security.PublicKey;
-import java.security.spec.RSAPublicKeySpec;
-import java.util.Base64;
+import java.security.Key;
 import java.util.Objects;
 
 @Service
@@ -36,7 +27,7 @@ public class AppleServiceImpl implements AppleService {
 
     Logger logger = LoggerFactory.getLogger(AppleServiceImpl.class);
 
-    private final AppleSocialFeign appleSocialFeign;
+    private final ApplePublicKeyService applePublicKeyService;
 
     @Override
     public String userIdFromApple(String identityToken) {
@@ -94,30 +85,17 @@ public class AppleServiceImpl implements AppleService {
 //            e.printStackTrace();
 //        }
 
-        ApplePublicKeyListDTO applePublicKeys = appleSocialFeign.getApplePublicKeys();
-        ApplePublicKeyDTO matchesKey = null;
-        try {
-            JSONParser parser = new JSONParser();
-            String[] decodeArr = identityToken.split("\\.");
-
-            logger.info("decode Arr의 값 : {}", decodeArr);
-            String header = new String(Base64.getDecoder().decode(decodeArr[0]));
-
-            JSONObject headerJson = (JSONObject) parser.parse(header);
-
-            logger.info("identity token의 전자서명 정보 : {}", headerJson);
-
-            Object kid = headerJson.get("kid");
-            Object alg = headerJson.get("alg");
-
-            matchesKey = applePublicKeys.getMatchesKey(String.valueOf(alg), String.valueOf(kid));
-        }catch (ParseException e){
-            e.printStackTrace();
-        }
-
-        PublicKey publicKey = this.getPublicKey(matchesKey);
-
-        Claims userInfo = Jwts.parserBuilder().setSigningKey(publicKey).build().parseClaimsJws(identityToken).getBody();
+        // 헤더의 kid, alg 로 미리 만들어 둔 공개키를 골라 서명을 검증한다
+        Claims userInfo = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return applePublicKeyService.getPublicKey(header.getKeyId(), header.getAlgorithm());
+                    }
+                })
+                .build()
+                .parseClaimsJws(identityToken)
+                .getBody();
 
         logger.info("파싱된 유저의 정보 : {}", userInfo);
 
@@ -125,28 +103,4 @@ public class AppleServiceImpl implements AppleService {
 
         return userId;
     }
-
-    public PublicKey getPublicKey(ApplePublicKeyDTO applePublicKeyDTO) {
-
-        logger.info("전자서명을 위한 공개키 재료 : {}", applePublicKeyDTO.toString());
-
-        String nStr = applePublicKeyDTO.getN();
-        String eStr = applePublicKeyDTO.getE();
-
-        byte[] nBytes = Base64.getUrlDecoder().decode(nStr);
-        byte[] eBytes = Base64.getUrlDecoder().decode(eStr);
-
-        BigInteger n = new BigInteger(1, nBytes);
-        BigInteger e = new BigInteger(1, eBytes);
-
-        try {
-            RSAPublicKeySpec publicKeySpec = new RSAPublicKeySpec(n, e);
-            KeyFactory keyFactory = KeyFactory.getInstance(applePublicKeyDTO.getKty());
-            PublicKey publicKey = keyFactory.generatePublic(publicKeySpec);
-            return publicKey;
-        } catch (Exception exception) {
-            throw new AppleOAuthException(Code.FAILED_TO_FIND_AVALIABLE_RSA);
-        }
-    }
 }
-
@@ -3,6 +3,10 @@ package fithub.app.service.impl;
 import fithub.app.aws.s3.AmazonS3Manager;
 import fithub.app.base.Code;
 import fithub.app.base.exception.handler.ArticleException;
+import fithub.app.service.ContentsCounterService;
+import fithub.app.service.FeedCacheService;
+import fithub.app.service.PopularFeedService;
+import fithub.app.service.UserBlockService;
 import fithub.app.service.converter.ArticleConverter;
 import fithub.app.service.converter.HashTagConverter;
 import fithub.app.domain.*;
@@ -12,13 +16,17 @@ import fithub.app.domain.mapping.ArticleHashTag;
 import fithub.app.domain.mapping.ArticleLikes;
 import fithub.app.domain.mapping.ContentsReport;
 import fithub.app.domain.mapping.SavedArticle;
-import fithub.app.firebase.service.FireBaseService;
 import fithub.app.repository.*;
 import fithub.app.repository.ArticleRepositories.*;
 import fithub.app.repository.HashTagRepositories.ArticleHashTagRepository;
 import fithub.app.repository.HashTagRepositories.HashTagRepository;
 import fithub.app.service.ArticleService;
-import fithub.app.utils.FCMType;
+import fithub.app.utils.BlockSet;
+import fithub.app.domain.enums.PushPlatform;
+import fithub.app.service.NotificationService;
+import fithub.app.utils.AlarmEvent;
+import fithub.app.utils.FeedCursor;
+import fithub.app.utils.FeedSlice;
 import fithub.app.web.dto.requestDto.ArticleRequestDto;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -58,18 +66,25 @@ public class ArticleServiceImpl implements ArticleService {
     private final ContentsReportRepository contentsReportRepository;
 
     private final UserRepository userRepository;
+
+    private final UserBlockService userBlockService;
+
+    private final FeedCacheService feedCacheService;
+
+    private final PopularFeedService popularFeedService;
+
+    private final ContentsCounterService contentsCounterService;
+
     @Value("${paging.size}")
     Integer size;
 
     private final ExerciseCategoryRepository exerciseCategoryRepository;
 
-    private final FireBaseService fireBaseService;
-
-    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
 
     String alarmTitle = "FITHUB";
 
-    String alarmBodyHad = "님이 나의 [";
+    String alarmBodyHad = " 나의 [";
 
     String alarmBodyMiddle = "]핏 사이트 글에 좋아요를 눌렀어요";
 
@@ -91,7 +106,10 @@ public class ArticleServiceImpl implements ArticleService {
 
         logger.error("============================================================================================");
         logger.error("만들어 진 게시글의 결과 {}",article.toString());
-        return articleRepository.save(article);
+        Article savedArticle = articleRepository.save(article);
+        popularFeedService.saveArticle(savedArticle);
+        feedCacheService.evictArticleFeed();
+        return savedArticle;
     }
 
     @Override
@@ -113,51 +131,31 @@ public class ArticleServiceImpl implements ArticleService {
 
     @Override
     @Transactional(readOnly = false)
-    public Article toggleArticleLike(Long articleId, User user) {
-        Article article = articleRepository.findById(articleId).orElseThrow(() -> new ArticleException(Code.ARTICLE_NOT_FOUND));
-        Optional<ArticleLikes> articleLike = articleLikesRepository.findByArticleAndUser(article, user);
-
-        Article updatedArticle;
-
-        if(articleLike.isPresent()){
-            articleLike.get().getUser().getArticleLikesList().remove(articleLike.get());
-            articleLikesRepository.delete(articleLike.get());
-            updatedArticle = article.likeToggle(false);
-        }else{
-            updatedArticle = article.likeToggle(true);
-            ArticleLikes articleLikes = ArticleLikes.builder()
-                    .article(updatedArticle)
-                    .user(user)
-                    .build();
-            articleLikes.setUser(user);
-            articleLikesRepository.save(articleLikes);
+    public Boolean toggleArticleLike(Long articleId, User user) {
+        // 지워진 row 가 없으면 새로 넣는다. 연타로 이미 들어가 있으면 insert 가 무시되어 delta 는 0
+        int deleted = articleLikesRepository.deleteLike(articleId, user.getId());
+        long delta = deleted > 0 ? -1L : articleLikesRepository.insertLikeIfAbsent(articleId, user.getId());
+
+        if(delta != 0) {
+            // 글 row 의 likes 는 직접 고치지 않고 모아서 반영한다
+            contentsCounterService.addArticleLikes(articleId, delta);
+            articleRepository.findCategoryIdById(articleId)
+                    .ifPresent(categoryId -> popularFeedService.incrementArticleLikes(articleId, categoryId, delta));
+            popularFeedService.countArticleLike(articleId, delta > 0);
+            // 피드 캐시는 비우지 않는다. 좋아요 수는 캐시가 만료될 때까지 늦게 보이고, 좋아요 여부는 응답할 때 다시 채운다
         }
-
-        return updatedArticle;
+        return deleted == 0;
     }
 
     @Override
     @Transactional(readOnly = false)
-    public Article toggleArticleSave(Long articleId, User user) {
-        Article article = articleRepository.findById(articleId).orElseThrow(() -> new ArticleException(Code.ARTICLE_NOT_FOUND));
-        Optional<SavedArticle> savedArticle = savedArticleRepository.findByArticleAndUser(article, user);
-
-        Article updatedArticle;
-        if(savedArticle.isPresent()){
-            savedArticle.get().getUser().getArticleLikesList().remove(savedArticle.get());
-            savedArticleRepository.delete(savedArticle.get());
-            updatedArticle = article.saveToggle(false);
-        }else{
-            updatedArticle = article.saveToggle(true);
-            SavedArticle newSavedArticle = SavedArticle.builder()
-                    .article(article)
-                    .user(user)
-                    .build();
-            newSavedArticle.setUser(user);
-            savedArticleRepository.save(newSavedArticle);
-        }
+    public Boolean toggleArticleSave(Long articleId, User user) {
+        int deleted = savedArticleRepository.deleteSave(articleId, user.getId());
+        long delta = deleted > 0 ? -1L : savedArticleRepository.insertSaveIfAbsent(articleId, user.getId());
 
-        return updatedArticle;
+        if(delta != 0)
+            contentsCounterService.addArticleSaves(articleId, delta);
+        return deleted == 0;
     }
 
     @Override
@@ -214,8 +212,13 @@ public class ArticleServiceImpl implements ArticleService {
                     .collect(Collectors.toList());
         }
 
-
-        return ArticleConverter.toUpdateArticle(article,request,hashTagList);
+        // 인기순 점수는 그대로 두고 카테고리가 바뀐 경우에만 옮긴다
+        Integer categoryId = article.getExerciseCategory().getId();
+        Article updatedArticle = ArticleConverter.toUpdateArticle(article,request,hashTagList);
+        if (!categoryId.equals(updatedArticle.getExerciseCategory().getId()))
+            popularFeedService.moveArticle(updatedArticle.getId(), categoryId, updatedArticle.getExerciseCategory().getId());
+        feedCacheService.evictArticleFeed();
+        return updatedArticle;
     }
 
     @Override
@@ -235,6 +238,8 @@ public class ArticleServiceImpl implements ArticleService {
         }
 
         articleRepository.delete(article);
+        popularFeedService.removeArticle(article.getId(), article.getExerciseCategory().getId());
+        feedCacheService.evictArticleFeed();
     }
 
     @Override
@@ -247,7 +252,11 @@ public class ArticleServiceImpl implements ArticleService {
         if(pageIndex == null)
             pageIndex = 0;
 
-        findArticle = articleRepository.findAllByExerciseCategoryOrderByCreatedAtDesc(exerciseCategory,user,user,PageRequest.of(pageIndex, size));
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            findArticle = articleRepository.findByExerciseCategoryOrderByCreatedAtDesc(exerciseCategory, PageRequest.of(pageIndex, size));
+        else
+            findArticle = articleRepository.findByExerciseCategoryOrderByCreatedAtDescExcludingUsers(exerciseCategory, blockSet.toIdList(), PageRequest.of(pageIndex, size));
         return findArticle;
     }
 
@@ -257,7 +266,12 @@ public class ArticleServiceImpl implements ArticleService {
 
         if(pageIndex == null)
             pageIndex = 0;
-        findArticle = articleRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(pageIndex, size), user, user);
+
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            findArticle = articleRepository.findByOrderByCreatedAtDesc(PageRequest.of(pageIndex, size));
+        else
+            findArticle = articleRepository.findByOrderByCreatedAtDescExcludingUsers(blockSet.toIdList(), PageRequest.of(pageIndex, size));
         return findArticle;
     }
 
@@ -271,7 +285,13 @@ public class ArticleServiceImpl implements ArticleService {
         if(pageIndex == null)
             pageIndex = 0;
 
-        findArticle = articleRepository.findAllByExerciseCategoryOrderByLikesDescCreatedAtDesc(exerciseCategory,user,user,PageRequest.of(pageIndex, size));
+        PageRequest pageRequest = PageRequest.of(pageIndex, size);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            findArticle = popularFeedService.findArticlePage(categoryId, pageRequest)
+                    .orElseGet(() -> articleRepository.findByExerciseCategoryOrderByLikesDescCreatedAtDesc(exerciseCategory, pageRequest));
+        else
+            findArticle = articleRepository.findByExerciseCategoryOrderByLikesDescCreatedAtDescExcludingUsers(exerciseCategory, blockSet.toIdList(), pageRequest);
         return findArticle;
     }
 
@@ -281,10 +301,66 @@ public class ArticleServiceImpl implements ArticleService {
 
         if(pageIndex == null)
             pageIndex = 0;
-        findArticle = articleRepository.findAllByOrderByLikesDescCreatedAtDesc(PageRequest.of(pageIndex, size), user, user);
+
+        PageRequest pageRequest = PageRequest.of(pageIndex, size);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            findArticle = popularFeedService.findArticlePage(0, pageRequest)
+                    .orElseGet(() -> articleRepository.findByOrderByLikesDescCreatedAtDesc(pageRequest));
+        else
+            findArticle = articleRepository.findByOrderByLikesDescCreatedAtDescExcludingUsers(blockSet.toIdList(), pageRequest);
         return findArticle;
     }
 
+    @Override
+    public Page<Article> findArticlePagingTrending(User user, Integer categoryId, Integer pageIndex) {
+        if(pageIndex == null)
+            pageIndex = 0;
+
+        PageRequest pageRequest = PageRequest.of(pageIndex, size);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        Optional<Page<Article>> trending = blockSet.isEmpty()
+                ? popularFeedService.findTrendingArticlePage(categoryId, pageRequest)
+                : popularFeedService.findTrendingArticlePage(categoryId, blockSet.toIdList(), pageRequest);
+        // 아직 집계된 트렌딩이 없으면 인기순으로 대신 보여준다
+        if (trending.isEmpty())
+            return categoryId == 0 ? findArticlePagingLikes(user, pageIndex) : findArticlePagingCategoryAndLikes(user, categoryId, pageIndex);
+
+        return trending.get();
+    }
+
+    @Override
+    public FeedSlice<Article> findArticleSliceCreatedAt(User user, Integer categoryId, String cursor) {
+        FeedCursor feedCursor = FeedCursor.decode(cursor);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+
+        if (categoryId == 0)
+            return FeedCursor.scroll(feedCursor, size, article -> !blockSet.contains(article.getUser().getId()), this::toFeedCursor,
+                    (c, pageable) -> articleRepository.findSliceByOrderByCreatedAtDesc(c.getCreatedAt(), c.getId(), pageable));
+
+        ExerciseCategory exerciseCategory = exerciseCategoryRepository.findById(categoryId).orElseThrow(() -> new ArticleException(Code.CATEGORY_ERROR));
+        return FeedCursor.scroll(feedCursor, size, article -> !blockSet.contains(article.getUser().getId()), this::toFeedCursor,
+                (c, pageable) -> articleRepository.findSliceByExerciseCategoryOrderByCreatedAtDesc(exerciseCategory, c.getCreatedAt(), c.getId(), pageable));
+    }
+
+    @Override
+    public FeedSlice<Article> findArticleSliceLikes(User user, Integer categoryId, String cursor) {
+        FeedCursor feedCursor = FeedCursor.decode(cursor);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+
+        if (categoryId == 0)
+            return FeedCursor.scroll(feedCursor, size, article -> !blockSet.contains(article.getUser().getId()), this::toFeedCursor,
+                    (c, pageable) -> articleRepository.findSliceByOrderByLikesDescCreatedAtDesc(c.getLikes(), c.getCreatedAt(), c.getId(), pageable));
+
+        ExerciseCategory exerciseCategory = exerciseCategoryRepository.findById(categoryId).orElseThrow(() -> new ArticleException(Code.CATEGORY_ERROR));
+        return FeedCursor.scroll(feedCursor, size, article -> !blockSet.contains(article.getUser().getId()), this::toFeedCursor,
+                (c, pageable) -> articleRepository.findSliceByExerciseCategoryOrderByLikesDescCreatedAtDesc(exerciseCategory, c.getLikes(), c.getCreatedAt(), c.getId(), pageable));
+    }
+
+    private FeedCursor toFeedCursor(Article article) {
+        return FeedCursor.of(article.getLikes(), article.getCreatedAt(), article.getId());
+    }
+
     @Override
     @Transactional(readOnly = false)
     public void deleteArticleBulk(ArticleRequestDto.DeleteListArticleDto request, User user) {
@@ -300,7 +376,9 @@ public class ArticleServiceImpl implements ArticleService {
                 amazonS3Manager.deleteFile(Keyname.substring(1));
             }
             articleRepository.delete(article);
+            popularFeedService.removeArticle(article.getId(), article.getExerciseCategory().getId());
         }
+        feedCacheService.evictArticleFeed();
     }
 
     @Override
@@ -325,47 +403,41 @@ public class ArticleServiceImpl implements ArticleService {
 
     @Override
     @Transactional
-    public void alarmArticleLike(Article article, User user) throws IOException
+    public void alarmArticleLike(Article article, User user)
     {
 
 
-        // 알림 테이블에 저장
-        Notification notification = notificationRepository.save(Notification.builder()
-                .notificationCategory(NotificationCategory.ARTICLE)
+        // 같은 글에 몰린 알림은 하나로 묶어서 저장하고 보낸다
+        notificationService.coalesce(AlarmEvent.builder()
+                .target(article.getUser())
+                .category(NotificationCategory.ARTICLE)
+                .action(AlarmEvent.Action.LIKE)
                 .article(article)
-                .user(article.getUser())
-                .notificationBody(user.getNickname().toString() + alarmBodyHad + article.getTitle() + alarmBodyMiddle)
-                .isConfirmed(false)
+                .actorId(user.getId())
+                .actorNickname(user.getNickname())
+                .bodyTail(alarmBodyHad + article.getTitle() + alarmBodyMiddle)
+                .platform(PushPlatform.ANDROID)
+                .title(alarmTitle)
                 .build());
-
-        notification.setUser(article.getUser());
-
-        // 알림 보내기
-        for(FcmToken fcmToken : article.getUser().getFcmTokenList()){
-            fireBaseService.sendMessageTo(fcmToken.getToken(),alarmTitle,user.getNickname().toString() + alarmBodyHad + article.getTitle() + alarmBodyMiddle,FCMType.ARTICLE.toString(),article.getId().toString(),notification.getId().toString());
-        }
     }
 
     @Override
     @Transactional
-    public void alarmArticleLikeApple(Article article, User user) throws IOException
+    public void alarmArticleLikeApple(Article article, User user)
     {
 
 
-        // 알림 테이블에 저장
-        Notification notification = notificationRepository.save(Notification.builder()
-                .notificationCategory(NotificationCategory.ARTICLE)
+        // 같은 글에 몰린 알림은 하나로 묶어서 저장하고 보낸다
+        notificationService.coalesce(AlarmEvent.builder()
+                .target(article.getUser())
+                .category(NotificationCategory.ARTICLE)
+                .action(AlarmEvent.Action.LIKE)
                 .article(article)
-                .user(article.getUser())
-                .notificationBody(user.getNickname().toString() + alarmBodyHad + article.getTitle() + alarmBodyMiddle)
-                .isConfirmed(false)
+                .actorId(user.getId())
+                .actorNickname(user.getNickname())
+                .bodyTail(alarmBodyHad + article.getTitle() + alarmBodyMiddle)
+                .platform(PushPlatform.IOS)
+                .title(alarmTitle)
                 .build());
-
-        notification.setUser(article.getUser());
-
-        // 알림 보내기
-        for(FcmToken fcmToken : article.getUser().getFcmTokenList()){
-            fireBaseService.sendMessageToApple(fcmToken.getToken(),alarmTitle,user.getNickname().toString() + alarmBodyHad + article.getTitle() + alarmBodyMiddle,FCMType.ARTICLE.toString(),article.getId().toString(),notification.getId().toString());
-        }
     }
 }
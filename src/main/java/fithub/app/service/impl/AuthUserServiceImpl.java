@@ -0,0 +1,60 @@
+package fithub.app.service.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import fithub.app.auth.dto.AuthUserInfo;
+import fithub.app.base.Code;
+import fithub.app.base.exception.handler.UserException;
+import fithub.app.domain.User;
+import fithub.app.repository.UserRepository;
+import fithub.app.service.AuthUserService;
+import fithub.app.utils.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+@Service
+public class AuthUserServiceImpl implements AuthUserService {
+
+    private final UserRepository userRepository;
+
+    private final LoadingCache<Long, AuthUserInfo> authUserCache;
+
+    public AuthUserServiceImpl(UserRepository userRepository,
+                               @Value("${auth.user-cache.maximum-size}") Long maximumSize,
+                               @Value("${auth.user-cache.expire-seconds}") Long expireSeconds) {
+        this.userRepository = userRepository;
+        this.authUserCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .build(this::loadAuthUserInfo);
+    }
+
+    @Override
+    public AuthUserInfo getAuthUserInfo(Long userId) {
+        AuthUserInfo authUserInfo = authUserCache.get(userId);
+        if (authUserInfo == null)
+            throw new UserException(Code.MEMBER_NOT_FOUND);
+        return authUserInfo;
+    }
+
+    // 존재 여부는 스냅샷으로 확인하고, 엔티티는 실제로 필드를 읽거나 바꿀 때 로딩되는 프록시로 넘긴다
+    @Override
+    public User getUserReference(Long userId) {
+        getAuthUserInfo(userId);
+        return userRepository.getReferenceById(userId);
+    }
+
+    // 변경 트랜잭션이 커밋된 뒤에 지워야 다른 요청이 커밋 전 상태를 다시 캐시하지 않는다
+    @Override
+    public void evict(Long userId) {
+        TransactionHooks.evictNowAndAfterCommit(() -> authUserCache.invalidate(userId));
+    }
+
+    private AuthUserInfo loadAuthUserInfo(Long userId) {
+        return userRepository.findAuthUserById(userId)
+                .map(AuthUserInfo::of)
+                .orElse(null);
+    }
+}
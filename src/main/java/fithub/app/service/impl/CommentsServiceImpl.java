@@ -3,23 +3,26 @@ package fithub.app.service.impl;
 import fithub.app.base.Code;
 import fithub.app.base.exception.handler.ArticleException;
 import fithub.app.base.exception.handler.CommentsException;
+import fithub.app.repository.CommentsLikeTarget;
+import fithub.app.service.UserBlockService;
 import fithub.app.service.converter.CommentsConverter;
 import fithub.app.domain.*;
 import fithub.app.domain.enums.ContentsType;
 import fithub.app.domain.enums.NotificationCategory;
-import fithub.app.domain.mapping.CommentsLikes;
 import fithub.app.domain.mapping.ContentsReport;
-import fithub.app.firebase.service.FireBaseService;
 import fithub.app.repository.ArticleRepositories.ArticleRepository;
 import fithub.app.repository.CommentsRepository.CommentsLikesRepository;
 import fithub.app.repository.CommentsRepository.CommentsRepository;
 import fithub.app.repository.ContentsReportRepository;
-import fithub.app.repository.NotificationRepository;
 import fithub.app.repository.RecordRepositories.RecordRepository;
 import fithub.app.repository.UserRepository;
 import fithub.app.service.CommentsService;
-import fithub.app.utils.FCMType;
+import fithub.app.utils.BlockSet;
+import fithub.app.domain.enums.PushPlatform;
+import fithub.app.service.NotificationService;
+import fithub.app.utils.AlarmEvent;
 import fithub.app.web.dto.requestDto.CommentsRequestDto;
+import fithub.app.web.dto.responseDto.CommentsResponseDto;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,22 +52,22 @@ public class CommentsServiceImpl implements CommentsService {
 
     private final UserRepository userRepository;
 
-    private final FireBaseService fireBaseService;
+    private final NotificationService notificationService;
 
-    private final NotificationRepository notificationRepository;
+    private final UserBlockService userBlockService;
 
     @Value("${paging.comments.size}")
     Integer size;
 
     String alarmTitle = "FITHUB";
 
-    String alarmBodyHad = "님이 나의 [";
+    String alarmBodyHad = " 나의 [";
 
     String alarmBodyMiddle = "]핏 사이트 글에 [";
 
     String alarmBodyFoot = "] 댓글을 남겼어요";
 
-    String alarmRecordBodyHead = "님이 나의 인증 글에 [";
+    String alarmRecordBodyHead = " 나의 인증 글에 [";
     String alarmRecordBodyMiddle = "] 댓글을 남겼어요";
 
     @Override
@@ -75,7 +78,12 @@ public class CommentsServiceImpl implements CommentsService {
 
         if(pageIndex == null)
             pageIndex = 0;
-        comments = commentsRepository.findByArticleOrderByCreatedAtDesc(article, user,user,PageRequest.of(pageIndex, size));
+
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            comments = commentsRepository.findAllByArticleOrderByCreatedAtDesc(article, PageRequest.of(pageIndex, size));
+        else
+            comments = commentsRepository.findByArticleOrderByCreatedAtDesc(article, blockSet.toIdList(), PageRequest.of(pageIndex, size));
         return comments;
     }
 
@@ -87,7 +95,12 @@ public class CommentsServiceImpl implements CommentsService {
 
         if(pageIndex == null)
             pageIndex = 0;
-        comments = commentsRepository.findByRecordOrderByCreatedAtDesc(record, user,user,PageRequest.of(pageIndex, size));
+
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            comments = commentsRepository.findAllByRecordOrderByCreatedAtDesc(record, PageRequest.of(pageIndex, size));
+        else
+            comments = commentsRepository.findByRecordOrderByCreatedAtDesc(record, blockSet.toIdList(), PageRequest.of(pageIndex, size));
         return comments;
     }
 
@@ -161,61 +174,32 @@ public class CommentsServiceImpl implements CommentsService {
     }
 
     @Override
-    public Comments toggleCommentsLikeOnArticle(Long id, Long commentsId, User user) {
-        Article article = articleRepository.findById(id).orElseThrow(() -> new CommentsException(Code.ARTICLE_NOT_FOUND));
-        Comments comments = commentsRepository.findById(commentsId).orElseThrow(() -> new CommentsException(Code.COMMENT_NOT_FOUND));
-        Optional<CommentsLikes> commentsLikesOptional = commentsLikesRepository.findByCommentsAndUser(comments, user);
-        if (comments.getUser().equals(user))
-            throw new CommentsException(Code.COMMENTS_LIKES_FORBBIDDEN);
-        if(commentsLikesOptional.isPresent())
-        {
-            CommentsLikes commentsLikes = commentsLikesOptional.get();
-            user.getCommentsLikesList().remove(commentsLikes);
-            comments.getCommentsLikesList().remove(commentsLikes);
-            commentsLikesRepository.delete(commentsLikes);
-            comments.toggleLikes(true);
-        }
-        else{
-            CommentsLikes newCommentsLikes = CommentsLikes.builder()
-                    .comments(comments)
-                    .user(user)
-                    .build();
-            user.getCommentsLikesList().add(newCommentsLikes);
-            newCommentsLikes.setComments(comments);
-            newCommentsLikes.setUser(user);
-            commentsLikesRepository.save(newCommentsLikes);
-            comments.toggleLikes(false);
-        }
-        return comments;
+    @Transactional
+    public CommentsResponseDto.CommentLikeDto toggleCommentsLikeOnArticle(Long id, Long commentsId, User user) {
+        if (!articleRepository.existsById(id))
+            throw new CommentsException(Code.ARTICLE_NOT_FOUND);
+        return toggleCommentsLike(commentsId, user);
     }
 
     @Override
-    public Comments toggleCommentsLikeOnRecord(Long id, Long commentsId, User user) {
-        Record record= recordRepository.findById(id).orElseThrow(() -> new CommentsException(Code.ARTICLE_NOT_FOUND));
-        Comments comments = commentsRepository.findById(commentsId).orElseThrow(() -> new CommentsException(Code.COMMENT_NOT_FOUND));
-        Optional<CommentsLikes> commentsLikesOptional = commentsLikesRepository.findByCommentsAndUser(comments, user);
-        if (comments.getUser().equals(user))
+    @Transactional
+    public CommentsResponseDto.CommentLikeDto toggleCommentsLikeOnRecord(Long id, Long commentsId, User user) {
+        if (!recordRepository.existsById(id))
+            throw new CommentsException(Code.ARTICLE_NOT_FOUND);
+        return toggleCommentsLike(commentsId, user);
+    }
+
+    // 댓글 엔티티는 읽지 않고 작성자와 좋아요 수만 확인한 뒤 delete / insert ignore 로 토글한다
+    private CommentsResponseDto.CommentLikeDto toggleCommentsLike(Long commentsId, User user) {
+        CommentsLikeTarget target = commentsRepository.findLikeTargetById(commentsId).orElseThrow(() -> new CommentsException(Code.COMMENT_NOT_FOUND));
+        if (target.getUserId().equals(user.getId()))
             throw new CommentsException(Code.COMMENTS_LIKES_FORBBIDDEN);
-        if(commentsLikesOptional.isPresent())
-        {
-            CommentsLikes commentsLikes = commentsLikesOptional.get();
-            user.getCommentsLikesList().remove(commentsLikes);
-            comments.getCommentsLikesList().remove(commentsLikes);
-            commentsLikesRepository.delete(commentsLikes);
-            comments.toggleLikes(true);
-        }
-        else{
-            CommentsLikes newCommentsLikes = CommentsLikes.builder()
-                    .comments(comments)
-                    .user(user)
-                    .build();
-            user.getCommentsLikesList().add(newCommentsLikes);
-            newCommentsLikes.setComments(comments);
-            newCommentsLikes.setUser(user);
-            commentsLikesRepository.save(newCommentsLikes);
-            comments.toggleLikes(false);
-        }
-        return comments;
+
+        int deleted = commentsLikesRepository.deleteLike(commentsId, user.getId());
+        long delta = deleted > 0 ? -1L : commentsLikesRepository.insertLikeIfAbsent(commentsId, user.getId());
+        if (delta != 0)
+            commentsRepository.addLikes(delta, commentsId);
+        return CommentsConverter.toCommentLikeDto(commentsId, target.getLikes() + delta, deleted == 0);
     }
 
     @Override
@@ -240,89 +224,81 @@ public class CommentsServiceImpl implements CommentsService {
 
     @Override
     @Transactional
-    public void commentAlarmArticle(Article article,Comments comments, User user, User owner) throws IOException
+    public void commentAlarmArticle(Article article,Comments comments, User user, User owner)
     {
 
-        // 알림 테이블에 저장
-        Notification notification = notificationRepository.save(Notification.builder()
-                .notificationCategory(NotificationCategory.ARTICLE)
+        // 같은 글에 몰린 알림은 하나로 묶어서 저장하고 보낸다
+        notificationService.coalesce(AlarmEvent.builder()
+                .target(owner)
+                .category(NotificationCategory.ARTICLE)
+                .action(AlarmEvent.Action.COMMENT)
                 .article(article)
-                .user(owner)
-                .notificationBody(user.getNickname().toString() + alarmBodyHad + article.getTitle() + alarmBodyMiddle + comments.getContents() + alarmBodyFoot)
-                .isConfirmed(false)
+                .actorId(user.getId())
+                .actorNickname(user.getNickname())
+                .bodyTail(alarmBodyHad + article.getTitle() + alarmBodyMiddle + comments.getContents() + alarmBodyFoot)
+                .platform(PushPlatform.ANDROID)
+                .title(alarmTitle)
+                .sendPush(owner.getCommunityPermit())
                 .build());
-
-        notification.setUser(article.getUser());
-        // 알림 보내기
-        if(owner.getCommunityPermit())
-            for(FcmToken fcmToken : owner.getFcmTokenList()){
-                fireBaseService.sendMessageTo(fcmToken.getToken(),alarmTitle,user.getNickname().toString() + alarmBodyHad + article.getTitle() + alarmBodyMiddle + comments.getContents() + alarmBodyFoot, FCMType.ARTICLE.toString(),article.getId().toString(),notification.getId().toString());
-            }
     }
 
     @Override
     @Transactional
-    public void commentAlarmArticleApple(Article article,Comments comments, User user, User owner) throws IOException
+    public void commentAlarmArticleApple(Article article,Comments comments, User user, User owner)
     {
 
-        // 알림 테이블에 저장
-        Notification notification = notificationRepository.save(Notification.builder()
-                .notificationCategory(NotificationCategory.ARTICLE)
+        // 같은 글에 몰린 알림은 하나로 묶어서 저장하고 보낸다
+        notificationService.coalesce(AlarmEvent.builder()
+                .target(owner)
+                .category(NotificationCategory.ARTICLE)
+                .action(AlarmEvent.Action.COMMENT)
                 .article(article)
-                .user(owner)
-                .notificationBody(user.getNickname().toString() + alarmBodyHad + article.getTitle() + alarmBodyMiddle + comments.getContents() + alarmBodyFoot)
-                .isConfirmed(false)
+                .actorId(user.getId())
+                .actorNickname(user.getNickname())
+                .bodyTail(alarmBodyHad + article.getTitle() + alarmBodyMiddle + comments.getContents() + alarmBodyFoot)
+                .platform(PushPlatform.IOS)
+                .title(alarmTitle)
+                .sendPush(owner.getCommunityPermit())
                 .build());
-
-        notification.setUser(article.getUser());
-        // 알림 보내기
-        if(owner.getCommunityPermit())
-            for(FcmToken fcmToken : owner.getFcmTokenList()){
-                fireBaseService.sendMessageToApple(fcmToken.getToken(),alarmTitle,user.getNickname().toString() + alarmBodyHad + article.getTitle() + alarmBodyMiddle + comments.getContents() + alarmBodyFoot, FCMType.ARTICLE.toString(),article.getId().toString(),notification.getId().toString());
-            }
     }
 
     @Override
     @Transactional
-    public void commentAlarmRecord(Record record, Comments comments,User user) throws IOException
+    public void commentAlarmRecord(Record record, Comments comments,User user)
     {
-        // 알림 테이블에 저장
-        Notification notification = notificationRepository.save(Notification.builder()
-                .notificationCategory(NotificationCategory.RECORD)
+        // 같은 글에 몰린 알림은 하나로 묶어서 저장하고 보낸다
+        notificationService.coalesce(AlarmEvent.builder()
+                .target(record.getUser())
+                .category(NotificationCategory.RECORD)
+                .action(AlarmEvent.Action.COMMENT)
                 .record(record)
-                .user(record.getUser())
-                .notificationBody(user.getNickname().toString() + alarmRecordBodyHead +  comments.getContents() + alarmRecordBodyMiddle)
-                .isConfirmed(false)
+                .actorId(user.getId())
+                .actorNickname(user.getNickname())
+                .bodyTail(alarmRecordBodyHead +  comments.getContents() + alarmRecordBodyMiddle)
+                .platform(PushPlatform.ANDROID)
+                .title(alarmTitle)
+                .targetImage(comments.getRecord().getImageUrl())
+                .sendPush(record.getUser().getCommunityPermit())
                 .build());
-
-        notification.setUser(record.getUser());
-
-        // 알림 보내기
-        if(record.getUser().getCommunityPermit())
-            for(FcmToken fcmToken : record.getUser().getFcmTokenList()){
-                fireBaseService.sendMessageToV2(fcmToken.getToken(),alarmTitle,user.getNickname().toString() + alarmRecordBodyHead +  comments.getContents() + alarmRecordBodyMiddle, FCMType.RECORD.toString(),record.getId().toString(),notification.getId().toString(),comments.getRecord().getImageUrl());
-            }
     }
 
     @Override
     @Transactional
-    public void commentAlarmRecordApple(Record record, Comments comments,User user) throws IOException
+    public void commentAlarmRecordApple(Record record, Comments comments,User user)
     {
-        // 알림 테이블에 저장
-        Notification notification = notificationRepository.save(Notification.builder()
-                .notificationCategory(NotificationCategory.RECORD)
+        // 같은 글에 몰린 알림은 하나로 묶어서 저장하고 보낸다
+        notificationService.coalesce(AlarmEvent.builder()
+                .target(record.getUser())
+                .category(NotificationCategory.RECORD)
+                .action(AlarmEvent.Action.COMMENT)
                 .record(record)
-                .user(record.getUser())
-                .notificationBody(user.getNickname().toString() + alarmRecordBodyHead +  comments.getContents() + alarmRecordBodyMiddle)
-                .isConfirmed(false)
+                .actorId(user.getId())
+                .actorNickname(user.getNickname())
+                .bodyTail(alarmRecordBodyHead +  comments.getContents() + alarmRecordBodyMiddle)
+                .platform(PushPlatform.IOS)
+                .title(alarmTitle)
+                .targetImage(comments.getRecord().getImageUrl())
+                .sendPush(record.getUser().getCommunityPermit())
                 .build());
-
-        notification.setUser(record.getUser());
-
-        // 알림 보내기
-        if(record.getUser().getCommunityPermit())
-            for(FcmToken fcmToken : record.getUser().getFcmTokenList()){
-                fireBaseService.sendMessageToAppleV2(fcmToken.getToken(),alarmTitle,user.getNickname().toString() + alarmRecordBodyHead +  comments.getContents() + alarmRecordBodyMiddle, FCMType.RECORD.toString(),record.getId().toString(),notification.getId().toString(),comments.getRecord().getImageUrl());
-            }
     }
 }
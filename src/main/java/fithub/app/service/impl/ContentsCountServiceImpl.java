@@ -0,0 +1,92 @@
+package fithub.app.service.impl;
+
+import fithub.app.domain.User;
+import fithub.app.repository.ArticleRepositories.ArticleLikesRepository;
+import fithub.app.repository.ArticleRepositories.SavedArticleRepository;
+import fithub.app.repository.CommentsRepository.CommentsRepository;
+import fithub.app.repository.ContentsCount;
+import fithub.app.repository.RecordRepositories.RecordLikesRepository;
+import fithub.app.service.ContentsCountService;
+import fithub.app.service.UserBlockService;
+import fithub.app.utils.BlockSet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ContentsCountServiceImpl implements ContentsCountService {
+
+    private final ArticleLikesRepository articleLikesRepository;
+
+    private final SavedArticleRepository savedArticleRepository;
+
+    private final RecordLikesRepository recordLikesRepository;
+
+    private final CommentsRepository commentsRepository;
+
+    private final UserBlockService userBlockService;
+
+    // 한 페이지의 카운트를 카운터 종류마다 group by 쿼리 한 번으로 가져온다
+    @Override
+    public Map<Long, Long> countArticleLikes(List<Long> articleIds, User user) {
+        if (articleIds.isEmpty())
+            return new HashMap<>();
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            return toCountMap(articleLikesRepository.countAllLikesGroupByArticle(articleIds));
+        return toCountMap(articleLikesRepository.countLikesGroupByArticle(articleIds, blockSet.toIdList()));
+    }
+
+    @Override
+    public Map<Long, Long> countArticleComments(List<Long> articleIds, User user) {
+        if (articleIds.isEmpty())
+            return new HashMap<>();
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            return toCountMap(commentsRepository.countAllCommentsGroupByArticle(articleIds));
+        return toCountMap(commentsRepository.countCommentsGroupByArticle(articleIds, blockSet.toIdList()));
+    }
+
+    @Override
+    public Map<Long, Long> countArticleScraps(List<Long> articleIds, User user) {
+        if (articleIds.isEmpty())
+            return new HashMap<>();
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            return toCountMap(savedArticleRepository.countAllScrapsGroupByArticle(articleIds));
+        return toCountMap(savedArticleRepository.countScrapsGroupByArticle(articleIds, blockSet.toIdList()));
+    }
+
+    @Override
+    public Map<Long, Long> countRecordLikes(List<Long> recordIds, User user) {
+        if (recordIds.isEmpty())
+            return new HashMap<>();
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            return toCountMap(recordLikesRepository.countAllLikesGroupByRecord(recordIds));
+        return toCountMap(recordLikesRepository.countLikesGroupByRecord(recordIds, blockSet.toIdList()));
+    }
+
+    @Override
+    public Map<Long, Long> countRecordComments(List<Long> recordIds, User user) {
+        if (recordIds.isEmpty())
+            return new HashMap<>();
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            return toCountMap(commentsRepository.countAllCommentsGroupByRecord(recordIds));
+        return toCountMap(commentsRepository.countCommentsGroupByRecord(recordIds, blockSet.toIdList()));
+    }
+
+    private Map<Long, Long> toCountMap(List<ContentsCount> counts) {
+        Map<Long, Long> countMap = new HashMap<>();
+        for (ContentsCount count : counts)
+            countMap.put(count.getContentsId(), count.getTotal());
+        return countMap;
+    }
+}
@@ -0,0 +1,152 @@
+package fithub.app.service.impl;
+
+import fithub.app.repository.ArticleRepositories.ArticleRepository;
+import fithub.app.repository.RecordRepositories.RecordRepository;
+import fithub.app.service.ContentsCounterService;
+import fithub.app.utils.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 좋아요/스크랩 수를 글 row 에 바로 쓰지 않고 Redis hash 에 모았다가 주기적으로 한 번에 더한다.
+ * 인기 글에 좋아요가 몰려도 같은 row 락을 잡으려고 줄 서지 않고, 모아 둔 값이 Redis 에 있어서 서버가 죽어도 남는다.
+ */
+@Service
+public class ContentsCounterServiceImpl implements ContentsCounterService {
+
+    private static final String ARTICLE_LIKES_KEY = "contents-counter:article-likes";
+
+    private static final String ARTICLE_SAVES_KEY = "contents-counter:article-saves";
+
+    private static final String RECORD_LIKES_KEY = "contents-counter:record-likes";
+
+    // 반영 중인 값을 옮겨 두는 곳. 반영하다 죽으면 남아 있다가 다음 주기에 이어서 반영한다
+    private static final String FLUSHING_SUFFIX = ":flushing";
+
+    private static final String FLUSH_LOCK_KEY = "contents-counter-flush-lock";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ArticleRepository articleRepository;
+
+    private final RecordRepository recordRepository;
+
+    private final Duration flushLockTtl;
+
+    Logger logger = LoggerFactory.getLogger(ContentsCounterServiceImpl.class);
+
+    public ContentsCounterServiceImpl(StringRedisTemplate redisTemplate,
+                                      ArticleRepository articleRepository,
+                                      RecordRepository recordRepository,
+                                      @Value("${counter.flush-lock-ttl-ms}") Long flushLockTtlMs) {
+        this.redisTemplate = redisTemplate;
+        this.articleRepository = articleRepository;
+        this.recordRepository = recordRepository;
+        this.flushLockTtl = Duration.ofMillis(flushLockTtlMs);
+    }
+
+    @Override
+    public void addArticleLikes(Long articleId, Long delta) {
+        TransactionHooks.afterCommit(() -> add(ARTICLE_LIKES_KEY, articleId, delta));
+    }
+
+    @Override
+    public void addArticleSaves(Long articleId, Long delta) {
+        TransactionHooks.afterCommit(() -> add(ARTICLE_SAVES_KEY, articleId, delta));
+    }
+
+    @Override
+    public void addRecordLikes(Long recordId, Long delta) {
+        TransactionHooks.afterCommit(() -> add(RECORD_LIKES_KEY, recordId, delta));
+    }
+
+    // 아직 DB 에 반영되지 않은 값, 응답할 때 더해서 내가 누른 게 바로 보이게 한다. 반영 중인 값도 포함
+    @Override
+    public Long getPendingArticleSaves(Long articleId) {
+        try {
+            String field = articleId.toString();
+            return toLong(redisTemplate.<String, String>opsForHash().get(ARTICLE_SAVES_KEY, field))
+                    + toLong(redisTemplate.<String, String>opsForHash().get(ARTICLE_SAVES_KEY + FLUSHING_SUFFIX, field));
+        } catch (RuntimeException e) {
+            logger.warn("카운터 조회 실패 : {}", e.getMessage());
+            return 0L;
+        }
+    }
+
+    // 여러 노드 중 락을 잡은 한 곳만 반영한다. 같은 값을 두 노드가 동시에 더하지 않게 한다
+    @Override
+    @Scheduled(fixedDelayString = "${counter.flush-interval-ms}")
+    public void flush() {
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(FLUSH_LOCK_KEY, "1", flushLockTtl)))
+                return;
+        } catch (RuntimeException e) {
+            logger.warn("카운터 반영 락 획득 실패 : {}", e.getMessage());
+            return;
+        }
+        try {
+            flush(ARTICLE_LIKES_KEY, (delta, ids) -> articleRepository.addLikes(delta, ids));
+            flush(ARTICLE_SAVES_KEY, (delta, ids) -> articleRepository.addSaves(delta, ids));
+            flush(RECORD_LIKES_KEY, (delta, ids) -> recordRepository.addLikes(delta, ids));
+        } finally {
+            redisTemplate.delete(FLUSH_LOCK_KEY);
+        }
+    }
+
+    private void add(String key, Long id, Long delta) {
+        try {
+            redisTemplate.opsForHash().increment(key, id.toString(), delta);
+        } catch (RuntimeException e) {
+            // 커밋은 이미 끝나서 되돌릴 수 없다. 놓친 증감은 로그로 남긴다
+            logger.error("카운터 적재 실패 key={} id={} delta={} : {}", key, id, delta, e.getMessage());
+        }
+    }
+
+    // 모인 hash 를 통째로 옮겨서 반영하므로 그 사이 들어오는 증감은 새 hash 에 쌓인다.
+    // 같은 증감끼리 묶어서 in 쿼리 한 번으로 반영하고, 반영한 id 는 바로 지워서 실패하면 남은 것만 다음 주기에 다시 한다
+    private void flush(String key, CounterUpdate update) {
+        String flushingKey = key + FLUSHING_SUFFIX;
+        try {
+            // 지난번에 반영하다 남은 게 있으면 그것부터 끝낸다
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(flushingKey))) {
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(key)))
+                    return;
+                redisTemplate.rename(key, flushingKey);
+            }
+
+            Map<Long, List<String>> idsByDelta = new HashMap<>();
+            redisTemplate.<String, String>opsForHash().entries(flushingKey).forEach((id, value) -> {
+                long delta = Long.parseLong(value);
+                idsByDelta.computeIfAbsent(delta, k -> new ArrayList<>()).add(id);
+            });
+
+            for (Map.Entry<Long, List<String>> entry : idsByDelta.entrySet()) {
+                List<String> ids = entry.getValue();
+                if (entry.getKey() != 0)
+                    update.apply(entry.getKey(), ids.stream().map(Long::valueOf).collect(Collectors.toList()));
+                redisTemplate.opsForHash().delete(flushingKey, ids.toArray());
+            }
+        } catch (RuntimeException e) {
+            logger.error("카운터 반영 실패, 다음 주기에 다시 시도 : {}", e.getMessage());
+        }
+    }
+
+    private long toLong(String value) {
+        return value == null ? 0L : Long.parseLong(value);
+    }
+
+    private interface CounterUpdate {
+        void apply(Long delta, List<Long> ids);
+    }
+}
@@ -0,0 +1,111 @@
+package fithub.app.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import fithub.app.domain.User;
+import fithub.app.service.FeedCacheService;
+import fithub.app.service.UserBlockService;
+import fithub.app.service.ViewerStateService;
+import fithub.app.utils.TransactionHooks;
+import fithub.app.web.dto.responseDto.ArticleResponseDto;
+import fithub.app.web.dto.responseDto.RecordResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 차단 관계가 없는 유저들은 같은 피드를 보므로 앞쪽 몇 페이지를 유저와 상관없이 공유한다.
+ * 캐시에는 좋아요 여부를 뺀 결과가 들어가고, 응답할 때 조회하는 유저의 좋아요 여부만 다시 채운다.
+ */
+@Service
+public class FeedCacheServiceImpl implements FeedCacheService {
+
+    private final UserBlockService userBlockService;
+
+    private final ViewerStateService viewerStateService;
+
+    private final Cache<String, ArticleResponseDto.ArticleDtoList> articleFeedCache;
+
+    private final Cache<String, RecordResponseDto.recordDtoList> recordFeedCache;
+
+    private final Integer cachedPages;
+
+    public FeedCacheServiceImpl(UserBlockService userBlockService, ViewerStateService viewerStateService,
+                                @Value("${feed.cache.pages}") Integer cachedPages,
+                                @Value("${feed.cache.maximum-size}") Long maximumSize,
+                                @Value("${feed.cache.expire-seconds}") Long expireSeconds) {
+        this.userBlockService = userBlockService;
+        this.viewerStateService = viewerStateService;
+        this.cachedPages = cachedPages;
+        this.articleFeedCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .build();
+        this.recordFeedCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .build();
+    }
+
+    // 커서 모드는 첫 페이지만, 페이지 모드는 앞쪽 cachedPages 페이지만 캐시한다
+    @Override
+    public Boolean isCacheable(User user, Integer pageIndex, String cursor) {
+        if (cursor != null) {
+            if (!cursor.isBlank())
+                return false;
+        }
+        else if (pageIndex != null && (pageIndex < 0 || pageIndex >= cachedPages))
+            return false;
+        return userBlockService.getBlockSet(user.getId()).isEmpty();
+    }
+
+    @Override
+    public ArticleResponseDto.ArticleDtoList getArticleFeed(User user, Integer categoryId, Integer pageIndex, String cursor, Boolean orderByLikes, Supplier<ArticleResponseDto.ArticleDtoList> loader) {
+        ArticleResponseDto.ArticleDtoList cached = articleFeedCache.get(toKey(categoryId, pageIndex, cursor, orderByLikes), key -> loader.get());
+
+        List<Long> articleIds = cached.getArticleList().stream()
+                .map(ArticleResponseDto.ArticleDto::getArticleId)
+                .collect(Collectors.toList());
+        Set<Long> likedArticleIds = viewerStateService.findLikedArticleIds(user.getId(), articleIds);
+
+        List<ArticleResponseDto.ArticleDto> articleDtoList = cached.getArticleList().stream()
+                .map(articleDto -> articleDto.toBuilder().isLiked(likedArticleIds.contains(articleDto.getArticleId())).build())
+                .collect(Collectors.toList());
+        return cached.toBuilder().articleList(articleDtoList).build();
+    }
+
+    @Override
+    public RecordResponseDto.recordDtoList getRecordFeed(User user, Integer categoryId, Integer pageIndex, String cursor, Boolean orderByLikes, Supplier<RecordResponseDto.recordDtoList> loader) {
+        RecordResponseDto.recordDtoList cached = recordFeedCache.get(toKey(categoryId, pageIndex, cursor, orderByLikes), key -> loader.get());
+
+        List<Long> recordIds = cached.getRecordList().stream()
+                .map(RecordResponseDto.recordDto::getRecordId)
+                .collect(Collectors.toList());
+        Set<Long> likedRecordIds = viewerStateService.findLikedRecordIds(user.getId(), recordIds);
+
+        List<RecordResponseDto.recordDto> recordDtoList = cached.getRecordList().stream()
+                .map(recordDto -> recordDto.toBuilder().isLiked(likedRecordIds.contains(recordDto.getRecordId())).build())
+                .collect(Collectors.toList());
+        return cached.toBuilder().recordList(recordDtoList).build();
+    }
+
+    @Override
+    public void evictArticleFeed() {
+        TransactionHooks.evictNowAndAfterCommit(articleFeedCache::invalidateAll);
+    }
+
+    @Override
+    public void evictRecordFeed() {
+        TransactionHooks.evictNowAndAfterCommit(recordFeedCache::invalidateAll);
+    }
+
+    private String toKey(Integer categoryId, Integer pageIndex, String cursor, Boolean orderByLikes) {
+        String page = cursor != null ? "cursor" : String.valueOf(pageIndex == null ? 0 : pageIndex);
+        return (orderByLikes ? "likes" : "createdAt") + ":" + categoryId + ":" + page;
+    }
+}
@@ -5,13 +5,23 @@ import fithub.app.base.exception.handler.NotificationException;
 import fithub.app.domain.Notification;
 import fithub.app.domain.User;
 import fithub.app.repository.NotificationRepository;
+import fithub.app.service.AlarmStreamService;
 import fithub.app.service.NotificationService;
+import fithub.app.service.PushOutboxService;
+import fithub.app.service.UnreadAlarmCounterService;
+import fithub.app.utils.AlarmEvent;
+import fithub.app.utils.FeedCursor;
+import fithub.app.utils.FeedSlice;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
@@ -19,19 +29,92 @@ public class NotificationServerImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
 
+    private final PushOutboxService pushOutboxService;
+
+    private final UnreadAlarmCounterService unreadAlarmCounterService;
+
+    private final AlarmStreamService alarmStreamService;
+
+    @Value("${notification.coalesce.window-seconds}")
+    Long windowSeconds;
+
     @Override
     public Page<Notification> getNotification(User user, Integer pageIndex) {
 
-        if(pageIndex == null)
+        if(pageIndex == null || pageIndex < 0)
             pageIndex = 0;
 
         return notificationRepository.findByUserOrderByCreatedAtDesc(user, PageRequest.of(pageIndex, 12));
     }
 
+    @Override
+    public FeedSlice<Notification> getNotificationSlice(User user, String cursor) {
+        // 걸러내는 알림이 없어서 한 번만 읽는다
+        return FeedCursor.scroll(FeedCursor.decode(cursor), 12, notification -> true,
+                notification -> FeedCursor.of(null, notification.getCreatedAt(), notification.getId()),
+                (c, pageable) -> notificationRepository.findSliceByUserIdOrderByCreatedAtDesc(user.getId(), c.getCreatedAt(), c.getId(), pageable));
+    }
+
     @Override
     @Transactional
     public void confirmNotification(Long alarmId, User user) {
         Notification notification = notificationRepository.findById(alarmId).orElseThrow(() -> new NotificationException(Code.ARTICLE_NOT_FOUND));
-        notification.setIsConfirmed();
+        if (!Boolean.TRUE.equals(notification.getIsConfirmed())) {
+            notification.setIsConfirmed();
+            unreadAlarmCounterService.decrement(notification.getUser().getId());
+            alarmStreamService.publishUnreadDelta(notification.getUser().getId(), -1L);
+        }
+    }
+
+    // 한 문장으로 전부 읽음 처리한다. 그 사이 새로 들어온 알림과 겹칠 수 있어 카운터는 0 으로 두지 않고 지워서 다시 세게 한다
+    @Override
+    @Transactional
+    public Integer confirmAllNotification(User user) {
+        int confirmed = notificationRepository.confirmAllByUserId(user.getId());
+        if (confirmed > 0) {
+            unreadAlarmCounterService.evict(user.getId());
+            alarmStreamService.publishUnreadDelta(user.getId(), (long) -confirmed);
+        }
+        return confirmed;
+    }
+
+    // 구간 안에서 첫 알림은 바로 보내고, 두 번째 알림이 오면 구간이 끝날 때 묶인 문구로 한 번 더 보낸다. 그 뒤로는 row 만 갱신
+    @Override
+    @Transactional
+    public void coalesce(AlarmEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowStart = windowStart(now);
+        Long userId = event.getTarget().getId();
+
+        // 이미 읽은 알림에 묶이면 다시 안 읽은 상태가 된다
+        boolean wasConfirmed = notificationRepository.findCoalescedIsConfirmed(userId, event.getCoalesceKey(), windowStart)
+                .orElse(false);
+        int affected = notificationRepository.upsertCoalesced(event.getCategory().toString(), userId,
+                event.getArticle() == null ? null : event.getArticle().getId(),
+                event.getRecord() == null ? null : event.getRecord().getId(), event.getTargetPK(),
+                event.getActorId(), event.getActorNickname(), event.getBodyTail(), event.getCoalesceKey(), windowStart, now);
+        // 새 row 는 정확히 한 트랜잭션만 insert 하므로 증가시키고, 읽은 알림이 되살아난 경우는 드물어 지우고 다시 센다
+        boolean inserted = affected == 1;
+        Notification notification = notificationRepository.getReferenceById(notificationRepository.findLastInsertId());
+
+        if (inserted)
+            unreadAlarmCounterService.increment(userId);
+        else if (wasConfirmed)
+            unreadAlarmCounterService.evict(userId);
+        alarmStreamService.publishAlarm(userId, inserted || wasConfirmed ? 1L : 0L, notification);
+
+        if (!Boolean.TRUE.equals(event.getSendPush()))
+            return;
+        if (inserted)
+            pushOutboxService.enqueue(event.getTarget(), notification, event.getPlatform(), event.getTitle(),
+                    notification.getNotificationBody(), event.getTargetView(), event.getTargetPK(), event.getTargetImage());
+        else if (notification.getEventCount() == 2)
+            pushOutboxService.enqueueSummary(event.getTarget(), notification, event.getPlatform(), event.getTitle(),
+                    event.getTargetView(), event.getTargetPK(), event.getTargetImage(), windowStart.plusSeconds(windowSeconds));
+    }
+
+    private LocalDateTime windowStart(LocalDateTime now) {
+        long epochSecond = now.toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(epochSecond - Math.floorMod(epochSecond, windowSeconds), 0, ZoneOffset.UTC);
     }
 }
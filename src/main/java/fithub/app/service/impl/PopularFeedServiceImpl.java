@@ -0,0 +1,397 @@
+package fithub.app.service.impl;
+
+import fithub.app.domain.Article;
+import fithub.app.domain.ExerciseCategory;
+import fithub.app.domain.Record;
+import fithub.app.repository.ArticleRepositories.ArticleRepository;
+import fithub.app.repository.ContentsScore;
+import fithub.app.repository.ExerciseCategoryRepository;
+import fithub.app.repository.RecordRepositories.RecordRepository;
+import fithub.app.service.PopularFeedService;
+import fithub.app.utils.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 인기순 피드를 Redis sorted set 으로 유지한다. score 는 좋아요 수, member 는 0으로 채운 글 id 라서
+ * 좋아요가 같으면 최신 글(id 가 큰 글)이 먼저 나온다. 카테고리 0 은 전체 피드.
+ * 트렌딩은 시간별 좋아요 버킷을 일주일치 모아서 반감기로 가중치를 준 점수의 상위 K 개를 따로 둔다.
+ */
+@Service
+@RequiredArgsConstructor
+public class PopularFeedServiceImpl implements PopularFeedService {
+
+    private static final String ARTICLE_KEY = "popular:article:";
+
+    private static final String RECORD_KEY = "popular:record:";
+
+    // 재구성이 끝났다는 표시. 이게 없으면 일부만 채워진 set 일 수 있어 DB 로 조회한다
+    private static final String READY_KEY = "popular:ready";
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private static final String TRENDING_ARTICLE_KEY = "trending:article:";
+
+    private static final String TRENDING_RECORD_KEY = "trending:record:";
+
+    // 시간별 좋아요 버킷, 일주일이 지나면 만료되어 자연스럽게 링 버퍼가 된다
+    private static final String ARTICLE_BUCKET_KEY = "trending:bucket:article:";
+
+    private static final String RECORD_BUCKET_KEY = "trending:bucket:record:";
+
+    private static final int DAY_HOURS = 24;
+
+    private static final int WEEK_HOURS = 24 * 7;
+
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    // 좋아요 수는 DB 에 늦게 반영되므로 지금 점수를 그대로 새 카테고리로 옮긴다. 전체 피드의 점수는 그대로 둔다
+    private static final DefaultRedisScript<Long> MOVE = new DefaultRedisScript<>(
+            "local score = redis.call('ZSCORE', KEYS[1], ARGV[1]) or redis.call('ZSCORE', KEYS[3], ARGV[1]) " +
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "if not score then return 0 end " +
+            "redis.call('ZADD', KEYS[2], score, ARGV[1]) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ArticleRepository articleRepository;
+
+    private final RecordRepository recordRepository;
+
+    private final ExerciseCategoryRepository exerciseCategoryRepository;
+
+    @Value("${trending.half-life-hours}")
+    private Double halfLifeHours;
+
+    @Value("${trending.top-k}")
+    private Integer topK;
+
+    Logger logger = LoggerFactory.getLogger(PopularFeedServiceImpl.class);
+
+    @Override
+    public Optional<Page<Article>> findArticlePage(Integer categoryId, Pageable pageable) {
+        return findPage(READY_KEY, ARTICLE_KEY + categoryId, pageable, articleRepository::findByIdIn, Article::getId);
+    }
+
+    @Override
+    public Optional<Page<Record>> findRecordPage(Integer categoryId, Pageable pageable) {
+        return findPage(READY_KEY, RECORD_KEY + categoryId, pageable, recordRepository::findByIdIn, Record::getId);
+    }
+
+    @Override
+    public void saveArticle(Article article) {
+        save(ARTICLE_KEY, article.getId(), article.getExerciseCategory().getId(), article.getLikes());
+    }
+
+    @Override
+    public void removeArticle(Long articleId, Integer categoryId) {
+        remove(ARTICLE_KEY, articleId, categoryId);
+    }
+
+    @Override
+    public void incrementArticleLikes(Long articleId, Integer categoryId, Long delta) {
+        increment(ARTICLE_KEY, articleId, categoryId, delta);
+    }
+
+    @Override
+    public void moveArticle(Long articleId, Integer fromCategoryId, Integer toCategoryId) {
+        move(ARTICLE_KEY, articleId, fromCategoryId, toCategoryId);
+    }
+
+    @Override
+    public void saveRecord(Record record) {
+        save(RECORD_KEY, record.getId(), record.getExerciseCategory().getId(), record.getLikes());
+    }
+
+    @Override
+    public void removeRecord(Long recordId, Integer categoryId) {
+        remove(RECORD_KEY, recordId, categoryId);
+    }
+
+    @Override
+    public void incrementRecordLikes(Long recordId, Integer categoryId, Long delta) {
+        increment(RECORD_KEY, recordId, categoryId, delta);
+    }
+
+    @Override
+    public void moveRecord(Long recordId, Integer fromCategoryId, Integer toCategoryId) {
+        move(RECORD_KEY, recordId, fromCategoryId, toCategoryId);
+    }
+
+    @Override
+    public Boolean rebuildIfAbsent() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(READY_KEY)))
+            return false;
+        int articles = rebuild(ARTICLE_KEY, articleRepository::findScoresAfter);
+        int records = rebuild(RECORD_KEY, recordRepository::findScoresAfter);
+        redisTemplate.opsForValue().set(READY_KEY, "1");
+        logger.info("인기순 피드 재구성 완료 article : {}, record : {}", articles, records);
+        return true;
+    }
+
+    @Override
+    public Optional<Page<Article>> findTrendingArticlePage(Integer categoryId, Pageable pageable) {
+        String key = TRENDING_ARTICLE_KEY + categoryId;
+        return findPage(key, key, pageable, articleRepository::findByIdIn, Article::getId);
+    }
+
+    @Override
+    public Optional<Page<Record>> findTrendingRecordPage(Integer categoryId, Pageable pageable) {
+        String key = TRENDING_RECORD_KEY + categoryId;
+        return findPage(key, key, pageable, recordRepository::findByIdIn, Record::getId);
+    }
+
+    // 트렌딩은 상위 K 개뿐이라 통째로 읽어서 차단한 유저 글을 쿼리에서 빼고 페이지를 자른다
+    @Override
+    public Optional<Page<Article>> findTrendingArticlePage(Integer categoryId, List<Long> blockedIds, Pageable pageable) {
+        return findAllAndSlice(TRENDING_ARTICLE_KEY + categoryId, pageable,
+                ids -> articleRepository.findByIdInExcludingUsers(ids, blockedIds), Article::getId);
+    }
+
+    @Override
+    public Optional<Page<Record>> findTrendingRecordPage(Integer categoryId, List<Long> blockedIds, Pageable pageable) {
+        return findAllAndSlice(TRENDING_RECORD_KEY + categoryId, pageable,
+                ids -> recordRepository.findByIdInExcludingUsers(ids, blockedIds), Record::getId);
+    }
+
+    @Override
+    public void countArticleLike(Long articleId, Boolean liked) {
+        countLike(ARTICLE_BUCKET_KEY, articleId, liked);
+    }
+
+    @Override
+    public void countRecordLike(Long recordId, Boolean liked) {
+        countLike(RECORD_BUCKET_KEY, recordId, liked);
+    }
+
+    @Override
+    @Transactional
+    public void rollupTrending() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Double> articleScores = new HashMap<>();
+        Map<Long, Double> recordScores = new HashMap<>();
+        Map<Long, Long> recordDailyLikes = new HashMap<>();
+        Map<Long, Long> recordWeeklyLikes = new HashMap<>();
+
+        for (int age = 0; age < WEEK_HOURS; age++) {
+            String bucket = now.minusHours(age).format(BUCKET_FORMAT);
+            double weight = Math.pow(0.5, age / halfLifeHours);
+
+            readBucket(ARTICLE_BUCKET_KEY + bucket).forEach((id, count) -> articleScores.merge(id, count * weight, Double::sum));
+
+            boolean inDay = age < DAY_HOURS;
+            readBucket(RECORD_BUCKET_KEY + bucket).forEach((id, count) -> {
+                recordScores.merge(id, count * weight, Double::sum);
+                recordWeeklyLikes.merge(id, count, Long::sum);
+                if (inDay)
+                    recordDailyLikes.merge(id, count, Long::sum);
+            });
+        }
+
+        saveTopK(TRENDING_ARTICLE_KEY, articleScores, articleRepository::findScoresByIdIn);
+        saveTopK(TRENDING_RECORD_KEY, recordScores, recordRepository::findScoresByIdIn);
+
+        // 일주일 안에 좋아요가 없던 인증글은 0으로 돌리고, 나머지는 같은 값끼리 묶어서 한 번에 갱신
+        recordRepository.resetTrendingLikes();
+        Map<List<Long>, List<Long>> recordIdsByLikes = new HashMap<>();
+        recordWeeklyLikes.forEach((id, weekly) -> {
+            Long daily = Math.max(recordDailyLikes.getOrDefault(id, 0L), 0L);
+            if (weekly > 0 || daily > 0)
+                recordIdsByLikes.computeIfAbsent(List.of(daily, Math.max(weekly, 0L)), key -> new ArrayList<>()).add(id);
+        });
+        recordIdsByLikes.forEach((likes, ids) -> recordRepository.updateTrendingLikes(likes.get(0), likes.get(1), ids));
+
+        logger.info("트렌딩 집계 완료 article : {}, record : {}", articleScores.size(), recordScores.size());
+    }
+
+    private <T> Optional<Page<T>> findPage(String readyKey, String key, Pageable pageable, Function<List<Long>, List<T>> findByIdIn, Function<T, Long> idOf) {
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(readyKey)))
+            return Optional.empty();
+
+        ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+        Long total = zSet.zCard(key);
+        Set<String> members = zSet.reverseRange(key, pageable.getOffset(), pageable.getOffset() + pageable.getPageSize() - 1);
+        if (total == null || members == null)
+            return Optional.empty();
+
+        List<Long> ids = members.stream()
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+        if (ids.isEmpty())
+            return Optional.of(new PageImpl<>(new ArrayList<>(), pageable, total));
+
+        return Optional.of(new PageImpl<>(findInOrder(ids, findByIdIn, idOf), pageable, total));
+    }
+
+    // 조회에서 빠진 글만큼 전체 수도 줄어든 상태로 페이지를 자르므로 페이지가 모자라게 오지 않는다
+    private <T> Optional<Page<T>> findAllAndSlice(String key, Pageable pageable, Function<List<Long>, List<T>> findByIdIn, Function<T, Long> idOf) {
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(key)))
+            return Optional.empty();
+
+        Set<String> members = redisTemplate.opsForZSet().reverseRange(key, 0, -1);
+        if (members == null)
+            return Optional.empty();
+
+        List<Long> ids = members.stream()
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+        List<T> contentsList = ids.isEmpty() ? new ArrayList<>() : findInOrder(ids, findByIdIn, idOf);
+
+        int from = (int) Math.min(pageable.getOffset(), contentsList.size());
+        int to = Math.min(from + pageable.getPageSize(), contentsList.size());
+        return Optional.of(new PageImpl<>(new ArrayList<>(contentsList.subList(from, to)), pageable, contentsList.size()));
+    }
+
+    // IN 조회는 순서를 보장하지 않아서 sorted set 순서대로 다시 맞춘다
+    private <T> List<T> findInOrder(List<Long> ids, Function<List<Long>, List<T>> findByIdIn, Function<T, Long> idOf) {
+        Map<Long, T> contentsMap = new HashMap<>();
+        for (T contents : findByIdIn.apply(ids))
+            contentsMap.put(idOf.apply(contents), contents);
+
+        return ids.stream()
+                .filter(contentsMap::containsKey)
+                .map(contentsMap::get)
+                .collect(Collectors.toList());
+    }
+
+    private void save(String prefix, Long id, Integer categoryId, Long likes) {
+        String member = toMember(id);
+        double score = likes == null ? 0 : likes;
+        TransactionHooks.afterCommit(() -> {
+            redisTemplate.opsForZSet().add(prefix + 0, member, score);
+            redisTemplate.opsForZSet().add(prefix + categoryId, member, score);
+        });
+    }
+
+    // 좋아요 수는 DB 에 늦게 반영되므로 엔티티 값 대신 증감으로 점수를 바꾼다
+    private void increment(String prefix, Long id, Integer categoryId, Long delta) {
+        String member = toMember(id);
+        TransactionHooks.afterCommit(() -> {
+            redisTemplate.opsForZSet().incrementScore(prefix + 0, member, delta);
+            redisTemplate.opsForZSet().incrementScore(prefix + categoryId, member, delta);
+        });
+    }
+
+    private void move(String prefix, Long id, Integer fromCategoryId, Integer toCategoryId) {
+        String member = toMember(id);
+        TransactionHooks.afterCommit(() -> redisTemplate.execute(MOVE,
+                Arrays.asList(prefix + fromCategoryId, prefix + toCategoryId, prefix + 0), member));
+    }
+
+    private void remove(String prefix, Long id, Integer categoryId) {
+        String member = toMember(id);
+        TransactionHooks.afterCommit(() -> {
+            redisTemplate.opsForZSet().remove(prefix + 0, member);
+            redisTemplate.opsForZSet().remove(prefix + categoryId, member);
+        });
+    }
+
+    private int rebuild(String prefix, RebuildQuery query) {
+        int count = 0;
+        Long lastId = 0L;
+        List<ContentsScore> scores = query.find(lastId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+        while (!scores.isEmpty()) {
+            Map<String, Set<ZSetOperations.TypedTuple<String>>> tuples = new HashMap<>();
+            for (ContentsScore score : scores) {
+                ZSetOperations.TypedTuple<String> tuple = new DefaultTypedTuple<>(toMember(score.getContentsId()), score.getLikes() == null ? 0d : score.getLikes().doubleValue());
+                tuples.computeIfAbsent(prefix + 0, key -> new HashSet<>()).add(tuple);
+                tuples.computeIfAbsent(prefix + score.getCategoryId(), key -> new HashSet<>()).add(tuple);
+            }
+            tuples.forEach((key, value) -> redisTemplate.opsForZSet().add(key, value));
+
+            count += scores.size();
+            lastId = scores.get(scores.size() - 1).getContentsId();
+            scores = query.find(lastId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+        }
+        return count;
+    }
+
+    private void countLike(String prefix, Long id, Boolean liked) {
+        String key = prefix + LocalDateTime.now().format(BUCKET_FORMAT);
+        TransactionHooks.afterCommit(() -> {
+            redisTemplate.opsForHash().increment(key, id.toString(), liked ? 1 : -1);
+            redisTemplate.expire(key, Duration.ofHours(WEEK_HOURS + 1));
+        });
+    }
+
+    private Map<Long, Long> readBucket(String key) {
+        Map<Long, Long> counts = new HashMap<>();
+        redisTemplate.opsForHash().entries(key)
+                .forEach((id, count) -> counts.put(Long.valueOf(id.toString()), Long.valueOf(count.toString())));
+        return counts;
+    }
+
+    // 카테고리별 상위 K 개를 임시 키에 만든 뒤 rename 으로 바꿔서 조회 중에 빈 set 이 보이지 않게 한다
+    private void saveTopK(String prefix, Map<Long, Double> scores, Function<List<Long>, List<ContentsScore>> findScoresByIdIn) {
+        Map<Integer, List<ContentsScore>> contentsByCategory = new HashMap<>();
+        List<Long> ids = scores.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        for (int from = 0; from < ids.size(); from += REBUILD_CHUNK_SIZE) {
+            for (ContentsScore contents : findScoresByIdIn.apply(ids.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, ids.size())))) {
+                contentsByCategory.computeIfAbsent(0, key -> new ArrayList<>()).add(contents);
+                contentsByCategory.computeIfAbsent(contents.getCategoryId(), key -> new ArrayList<>()).add(contents);
+            }
+        }
+
+        List<Integer> categoryIds = exerciseCategoryRepository.findAll().stream()
+                .map(ExerciseCategory::getId)
+                .collect(Collectors.toList());
+        categoryIds.add(0);
+
+        for (Integer categoryId : categoryIds) {
+            String key = prefix + categoryId;
+            List<ContentsScore> contentsList = contentsByCategory.get(categoryId);
+            if (contentsList == null) {
+                redisTemplate.delete(key);
+                continue;
+            }
+            Set<ZSetOperations.TypedTuple<String>> tuples = contentsList.stream()
+                    .sorted(Comparator.comparingDouble((ContentsScore contents) -> scores.get(contents.getContentsId())).reversed())
+                    .limit(topK)
+                    .<ZSetOperations.TypedTuple<String>>map(contents -> new DefaultTypedTuple<>(toMember(contents.getContentsId()), scores.get(contents.getContentsId())))
+                    .collect(Collectors.toSet());
+            String tempKey = key + ":tmp";
+            redisTemplate.delete(tempKey);
+            redisTemplate.opsForZSet().add(tempKey, tuples);
+            redisTemplate.rename(tempKey, key);
+        }
+    }
+
+    private String toMember(Long id) {
+        return String.format("%019d", id);
+    }
+
+    private interface RebuildQuery {
+        List<ContentsScore> find(Long lastId, Pageable pageable);
+    }
+}
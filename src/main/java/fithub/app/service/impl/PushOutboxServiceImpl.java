@@ -0,0 +1,301 @@
+package fithub.app.service.impl;
+
+import fithub.app.domain.FcmToken;
+import fithub.app.domain.Notification;
+import fithub.app.domain.PushOutbox;
+import fithub.app.domain.User;
+import fithub.app.domain.enums.PushPlatform;
+import fithub.app.domain.enums.PushStatus;
+import fithub.app.firebase.exception.FcmSendException;
+import fithub.app.firebase.service.FireBaseService;
+import fithub.app.repository.FcmTokenRepository;
+import fithub.app.repository.NotificationRepository;
+import fithub.app.repository.PushOutboxRepository;
+import fithub.app.service.PushOutboxService;
+import fithub.app.utils.FCMType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 푸시 알림을 요청 트랜잭션에서는 outbox 에 쌓기만 하고, 스케줄러가 꺼내서 전용 풀에서 FCM 으로 보낸다.
+ * 실패하면 지수 백오프로 다시 시도하고, 최대 횟수를 넘기면 DEAD 로 남긴다.
+ * 토큰별로 row 가 나뉘어 있어 한 유저의 여러 기기로 가는 알림도 풀에서 동시에 나간다.
+ * FCM 이 더 이상 유효하지 않다고 알려준 토큰은 모아 두었다가 한 번에 지운다.
+ */
+@Slf4j
+@Service
+public class PushOutboxServiceImpl implements PushOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final PushOutboxRepository pushOutboxRepository;
+
+    private final FcmTokenRepository fcmTokenRepository;
+
+    private final NotificationRepository notificationRepository;
+
+    private final FireBaseService fireBaseService;
+
+    private final Integer batchSize;
+
+    private final Long leaseMs;
+
+    private final Integer maxAttempts;
+
+    private final Long backoffBaseMs;
+
+    private final Long backoffMaxMs;
+
+    private final Integer queueCapacity;
+
+    private final Integer pruneBatchSize;
+
+    private final Long deadRetentionDays;
+
+    private final ThreadPoolExecutor sendExecutor;
+
+    private final ConcurrentLinkedQueue<String> invalidTokens = new ConcurrentLinkedQueue<>();
+
+    private final Counter successCounter;
+
+    private final Counter retryCounter;
+
+    private final Counter deadCounter;
+
+    private final Counter prunedCounter;
+
+    public PushOutboxServiceImpl(PushOutboxRepository pushOutboxRepository,
+                                 FcmTokenRepository fcmTokenRepository,
+                                 NotificationRepository notificationRepository,
+                                 FireBaseService fireBaseService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${push.outbox.batch-size}") Integer batchSize,
+                                 @Value("${push.outbox.lease-ms}") Long leaseMs,
+                                 @Value("${push.outbox.max-attempts}") Integer maxAttempts,
+                                 @Value("${push.outbox.backoff-base-ms}") Long backoffBaseMs,
+                                 @Value("${push.outbox.backoff-max-ms}") Long backoffMaxMs,
+                                 @Value("${push.executor.pool-size}") Integer poolSize,
+                                 @Value("${push.executor.queue-capacity}") Integer queueCapacity,
+                                 @Value("${push.prune.batch-size}") Integer pruneBatchSize,
+                                 @Value("${push.outbox.dead-retention-days}") Long deadRetentionDays) {
+        this.pushOutboxRepository = pushOutboxRepository;
+        this.fcmTokenRepository = fcmTokenRepository;
+        this.notificationRepository = notificationRepository;
+        this.fireBaseService = fireBaseService;
+        this.batchSize = batchSize;
+        this.leaseMs = leaseMs;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.queueCapacity = queueCapacity;
+        this.pruneBatchSize = pruneBatchSize;
+        this.deadRetentionDays = deadRetentionDays;
+        this.sendExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("push-send-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.successCounter = Counter.builder("push.send")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("push.send")
+                .tag("result", "retry")
+                .register(meterRegistry);
+        this.deadCounter = Counter.builder("push.send")
+                .tag("result", "dead")
+                .register(meterRegistry);
+        this.prunedCounter = Counter.builder("push.token.pruned")
+                .register(meterRegistry);
+        Gauge.builder("push.send.queue.size", sendExecutor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    // 호출한 쪽 트랜잭션에 같이 묶인다. 커밋되지 않은 알림은 워커가 볼 수 없다
+    @Override
+    public void enqueue(User target, Notification notification, PushPlatform platform, String title, String body,
+                        FCMType targetView, Long targetPK, String targetImage) {
+        enqueue(target, notification, platform, title, body, false, targetView, targetPK, targetImage, LocalDateTime.now());
+    }
+
+    @Override
+    public void enqueueSummary(User target, Notification notification, PushPlatform platform, String title,
+                               FCMType targetView, Long targetPK, String targetImage, LocalDateTime sendAt) {
+        enqueue(target, notification, platform, title, null, true, targetView, targetPK, targetImage, sendAt);
+    }
+
+    private void enqueue(User target, Notification notification, PushPlatform platform, String title, String body, Boolean refreshBody,
+                         FCMType targetView, Long targetPK, String targetImage, LocalDateTime sendAt) {
+        List<PushOutbox> outboxList = new ArrayList<>();
+        for (FcmToken fcmToken : target.getFcmTokenList()) {
+            outboxList.add(PushOutbox.builder()
+                    .targetToken(fcmToken.getToken())
+                    .platform(platform)
+                    .title(title)
+                    .body(body)
+                    .targetView(targetView.toString())
+                    .targetPK(targetPK.toString())
+                    .targetNotification(notification.getId().toString())
+                    .targetImage(targetImage)
+                    .refreshBody(refreshBody)
+                    .status(PushStatus.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(sendAt)
+                    .build());
+        }
+        pushOutboxRepository.saveAll(outboxList);
+    }
+
+    // 풀 큐에 남은 자리만큼만 선점해서 워커가 밀려도 outbox 에서 기다리게 한다
+    @Override
+    @Scheduled(fixedDelayString = "${push.outbox.poll-interval-ms}")
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        pruneInvalidTokens();
+        pushOutboxRepository.markExpiredDead(now, maxAttempts);
+
+        int free = Math.min(batchSize, queueCapacity - sendExecutor.getQueue().size());
+        if (free <= 0)
+            return;
+
+        String claimToken = UUID.randomUUID().toString();
+        if (pushOutboxRepository.claim(claimToken, now, now.plusNanos(leaseMs * 1_000_000L), maxAttempts, free) == 0)
+            return;
+
+        for (PushOutbox outbox : pushOutboxRepository.findAllByClaimToken(claimToken)) {
+            try {
+                sendExecutor.execute(() -> send(outbox));
+            } catch (RejectedExecutionException e) {
+                // 선점 시간이 지나면 다음 폴링에서 다시 가져간다
+                log.warn("push outbox {} rejected by executor", outbox.getId());
+            }
+        }
+    }
+
+    // DEAD 는 원인을 볼 수 있게 남겨 두되 보관 기간이 지나면 나눠서 지운다
+    @Override
+    @Scheduled(fixedDelayString = "${push.outbox.purge-interval-ms}")
+    public void purgeDead() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(deadRetentionDays);
+        int deleted;
+        do {
+            deleted = pushOutboxRepository.deleteDeadBefore(cutoff, pruneBatchSize);
+        } while (deleted == pruneBatchSize);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        sendExecutor.shutdown();
+        sendExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void send(PushOutbox outbox) {
+        try {
+            String body = outbox.getBody();
+            if (Boolean.TRUE.equals(outbox.getRefreshBody())) {
+                // 그 사이 알림을 확인했거나 지워졌으면 묶음 알림은 보내지 않는다
+                Notification notification = notificationRepository.findById(Long.valueOf(outbox.getTargetNotification())).orElse(null);
+                if (notification == null || Boolean.TRUE.equals(notification.getIsConfirmed())) {
+                    pushOutboxRepository.deleteSent(outbox.getId(), outbox.getClaimToken());
+                    return;
+                }
+                body = notification.getNotificationBody();
+            }
+
+            if (outbox.getPlatform() == PushPlatform.IOS) {
+                if (outbox.getTargetImage() == null)
+                    fireBaseService.sendMessageToApple(outbox.getTargetToken(), outbox.getTitle(), body, outbox.getTargetView(), outbox.getTargetPK(), outbox.getTargetNotification());
+                else
+                    fireBaseService.sendMessageToAppleV2(outbox.getTargetToken(), outbox.getTitle(), body, outbox.getTargetView(), outbox.getTargetPK(), outbox.getTargetNotification(), outbox.getTargetImage());
+            } else {
+                if (outbox.getTargetImage() == null)
+                    fireBaseService.sendMessageTo(outbox.getTargetToken(), outbox.getTitle(), body, outbox.getTargetView(), outbox.getTargetPK(), outbox.getTargetNotification());
+                else
+                    fireBaseService.sendMessageToV2(outbox.getTargetToken(), outbox.getTitle(), body, outbox.getTargetView(), outbox.getTargetPK(), outbox.getTargetNotification(), outbox.getTargetImage());
+            }
+            // 선점을 잃었으면 다른 워커도 보냈을 수 있다. 이미 나간 푸시는 되돌릴 수 없으니 남겨만 둔다
+            if (pushOutboxRepository.deleteSent(outbox.getId(), outbox.getClaimToken()) == 0)
+                log.warn("push outbox {} sent after its lease expired", outbox.getId());
+            successCounter.increment();
+        } catch (FcmSendException e) {
+            if (e.isTokenInvalid()) {
+                invalidTokens.add(outbox.getTargetToken());
+                pushOutboxRepository.deleteSent(outbox.getId(), outbox.getClaimToken());
+            } else if (!e.isRetryable()) {
+                dead(outbox, e.getMessage());
+            } else {
+                fail(outbox, e);
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(outbox, e);
+        }
+    }
+
+    private void pruneInvalidTokens() {
+        while (!invalidTokens.isEmpty()) {
+            Set<String> batch = new HashSet<>();
+            String token;
+            while (batch.size() < pruneBatchSize && (token = invalidTokens.poll()) != null)
+                batch.add(token);
+            if (batch.isEmpty())
+                return;
+            int pruned = fcmTokenRepository.deleteByTokens(batch);
+            pushOutboxRepository.deletePendingByTokens(batch);
+            prunedCounter.increment(pruned);
+        }
+    }
+
+    private void fail(PushOutbox outbox, Exception e) {
+        String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+
+        // attempts 는 선점할 때 이미 올라가 있다
+        int attempts = outbox.getAttempts();
+        if (attempts >= maxAttempts) {
+            dead(outbox, error);
+            return;
+        }
+        if (pushOutboxRepository.scheduleRetry(outbox.getId(), outbox.getClaimToken(), LocalDateTime.now().plusNanos(backoff(attempts) * 1_000_000L), truncate(error)) == 0) {
+            log.warn("push outbox {} lost its lease before retry was scheduled", outbox.getId());
+            return;
+        }
+        retryCounter.increment();
+    }
+
+    private void dead(PushOutbox outbox, String error) {
+        if (pushOutboxRepository.markDead(outbox.getId(), outbox.getClaimToken(), truncate(error)) == 0) {
+            log.warn("push outbox {} lost its lease before it was marked dead", outbox.getId());
+            return;
+        }
+        log.warn("push outbox {} dead after {} attempts : {}", outbox.getId(), outbox.getAttempts(), error);
+        deadCounter.increment();
+    }
+
+    private String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    // 상한이 있는 지수 백오프, 같은 시각에 실패한 것들이 한꺼번에 다시 몰리지 않도록 절반은 무작위로
+    private long backoff(int attempts) {
+        long delay = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempts - 1, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
@@ -4,6 +4,11 @@ import fithub.app.aws.s3.AmazonS3Manager;
 import fithub.app.base.Code;
 import fithub.app.base.exception.handler.ArticleException;
 import fithub.app.base.exception.handler.RecordException;
+import fithub.app.service.AuthUserService;
+import fithub.app.service.ContentsCounterService;
+import fithub.app.service.FeedCacheService;
+import fithub.app.service.PopularFeedService;
+import fithub.app.service.UserBlockService;
 import fithub.app.service.converter.ArticleConverter;
 import fithub.app.service.converter.HashTagConverter;
 import fithub.app.service.converter.RecordConverter;
@@ -13,7 +18,6 @@ import fithub.app.domain.enums.NotificationCategory;
 import fithub.app.domain.mapping.ContentsReport;
 import fithub.app.domain.mapping.RecordHashTag;
 import fithub.app.domain.mapping.RecordLikes;
-import fithub.app.firebase.service.FireBaseService;
 import fithub.app.repository.*;
 import fithub.app.repository.HashTagRepositories.HashTagRepository;
 
@@ -21,7 +25,12 @@ import fithub.app.repository.HashTagRepositories.RecordHashTagRepository;
 import fithub.app.repository.RecordRepositories.RecordLikesRepository;
 import fithub.app.repository.RecordRepositories.RecordRepository;
 import fithub.app.service.RecordService;
-import fithub.app.utils.FCMType;
+import fithub.app.utils.BlockSet;
+import fithub.app.domain.enums.PushPlatform;
+import fithub.app.service.NotificationService;
+import fithub.app.utils.AlarmEvent;
+import fithub.app.utils.FeedCursor;
+import fithub.app.utils.FeedSlice;
 import fithub.app.web.dto.requestDto.RecordRequestDto;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -67,9 +76,17 @@ public class RecordServiceImpl implements RecordService {
 
     private final UserRepository userRepository;
 
-    private final FireBaseService fireBaseService;
+    private final UserBlockService userBlockService;
 
-    private final NotificationRepository notificationRepository;
+    private final FeedCacheService feedCacheService;
+
+    private final PopularFeedService popularFeedService;
+
+    private final ContentsCounterService contentsCounterService;
+
+    private final AuthUserService authUserService;
+
+    private final NotificationService notificationService;
 
     @Value("${paging.size}")
     Integer size;
@@ -82,7 +99,7 @@ public class RecordServiceImpl implements RecordService {
 
     String alarmTitle = "FITHUB";
 
-    String alarmBodyHead = "님이 나의 인증 글에 좋아요를 눌렀어요";
+    String alarmBodyHead = " 나의 인증 글에 좋아요를 눌렀어요";
     @Override
     @Transactional(readOnly = false)
     public Record create(RecordRequestDto.CreateRecordDto request, User user, Integer categoryId) throws IOException
@@ -97,7 +114,10 @@ public class RecordServiceImpl implements RecordService {
         }
         Record record = RecordConverter.toRecord(request, user, hashTagList, categoryId);
         user.addRecordCount();
-        return recordRepository.save(record);
+        Record savedRecord = recordRepository.save(record);
+        popularFeedService.saveRecord(savedRecord);
+        feedCacheService.evictRecordFeed();
+        return savedRecord;
     }
 
     @Override
@@ -113,27 +133,20 @@ public class RecordServiceImpl implements RecordService {
 
     @Override
     @Transactional(readOnly = false)
-    public Record toggleRecordLike(Long recordId, User user) {
-        Record record = recordRepository.findById(recordId).orElseThrow(() -> new RecordException(Code.RECORD_NOT_FOUND));
-        Optional<RecordLikes> recordLike = recordLikesRepository.findByRecordAndUser(record, user);
-
-        Record updatedRecord = null;
-
-        if(recordLike.isPresent()){
-            recordLike.get().getUser().getRecordLikesList().remove(recordLike.get());
-            recordLikesRepository.delete(recordLike.get());
-            updatedRecord = record.likeToggle(false);
-        }else{
-            updatedRecord = record.likeToggle(true);
-            RecordLikes recordLikes = RecordLikes.builder()
-                    .record(record)
-                    .user(user)
-                    .build();
-            recordLikes.setUser(user);
-            recordLikesRepository.save(recordLikes);
+    public Boolean toggleRecordLike(Long recordId, User user) {
+        // 지워진 row 가 없으면 새로 넣는다. 연타로 이미 들어가 있으면 insert 가 무시되어 delta 는 0
+        int deleted = recordLikesRepository.deleteLike(recordId, user.getId());
+        long delta = deleted > 0 ? -1L : recordLikesRepository.insertLikeIfAbsent(recordId, user.getId());
+
+        if(delta != 0) {
+            // 인증글 row 의 likes 는 직접 고치지 않고 모아서 반영한다
+            contentsCounterService.addRecordLikes(recordId, delta);
+            recordRepository.findCategoryIdById(recordId)
+                    .ifPresent(categoryId -> popularFeedService.incrementRecordLikes(recordId, categoryId, delta));
+            popularFeedService.countRecordLike(recordId, delta > 0);
+            // 피드 캐시는 비우지 않는다. 좋아요 수는 캐시가 만료될 때까지 늦게 보이고, 좋아요 여부는 응답할 때 다시 채운다
         }
-
-        return updatedRecord;
+        return deleted == 0;
     }
 
     @Override
@@ -177,7 +190,13 @@ public class RecordServiceImpl implements RecordService {
                     .collect(Collectors.toList());
         }
 
-        return RecordConverter.toUpdateRecord(record,request,hashTagList);
+        // 인기순 점수는 그대로 두고 카테고리가 바뀐 경우에만 옮긴다
+        Integer categoryId = record.getExerciseCategory().getId();
+        Record updatedRecord = RecordConverter.toUpdateRecord(record,request,hashTagList);
+        if (!categoryId.equals(updatedRecord.getExerciseCategory().getId()))
+            popularFeedService.moveRecord(updatedRecord.getId(), categoryId, updatedRecord.getExerciseCategory().getId());
+        feedCacheService.evictRecordFeed();
+        return updatedRecord;
     }
 
     @Override
@@ -207,6 +226,8 @@ public class RecordServiceImpl implements RecordService {
         }
 
         recordRepository.delete(record);
+        popularFeedService.removeRecord(record.getId(), record.getExerciseCategory().getId());
+        feedCacheService.evictRecordFeed();
     }
 
     @Override
@@ -218,7 +239,11 @@ public class RecordServiceImpl implements RecordService {
         if(pageIndex == null)
             pageIndex = 0;
 
-        findRecord = recordRepository.findAllByExerciseCategoryOrderByCreatedAtDesc(exerciseCategory,user,user,PageRequest.of(pageIndex, 12));
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            findRecord = recordRepository.findByExerciseCategoryOrderByCreatedAtDesc(exerciseCategory, PageRequest.of(pageIndex, 12));
+        else
+            findRecord = recordRepository.findByExerciseCategoryOrderByCreatedAtDescExcludingUsers(exerciseCategory, blockSet.toIdList(), PageRequest.of(pageIndex, 12));
         return findRecord;
     }
 
@@ -229,7 +254,11 @@ public class RecordServiceImpl implements RecordService {
         if(pageIndex == null)
             pageIndex = 0;
 
-        findRecord = recordRepository.findAllByOrderByCreatedAtDesc(user,user,PageRequest.of(pageIndex, 12));
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            findRecord = recordRepository.findByOrderByCreatedAtDesc(PageRequest.of(pageIndex, 12));
+        else
+            findRecord = recordRepository.findByOrderByCreatedAtDescExcludingUsers(blockSet.toIdList(), PageRequest.of(pageIndex, 12));
         return findRecord;
     }
 
@@ -241,7 +270,14 @@ public class RecordServiceImpl implements RecordService {
 
         if(PageIndex == null)
             PageIndex = 0;
-        findRecord = recordRepository.findByExerciseCategoryOrderByLikesDescCreatedAtDesc(exerciseCategory,user,user,PageRequest.of(PageIndex, size));
+
+        PageRequest pageRequest = PageRequest.of(PageIndex, size);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            findRecord = popularFeedService.findRecordPage(categoryId, pageRequest)
+                    .orElseGet(() -> recordRepository.findByExerciseCategoryOrderByLikesDescCreatedAtDesc(exerciseCategory, pageRequest));
+        else
+            findRecord = recordRepository.findByExerciseCategoryOrderByLikesDescCreatedAtDescExcludingUsers(exerciseCategory, blockSet.toIdList(), pageRequest);
         return findRecord;
     }
 
@@ -252,10 +288,65 @@ public class RecordServiceImpl implements RecordService {
         if(PageIndex == null)
             PageIndex = 0;
 
-        findRecord = recordRepository.findByOrderByLikesDescCreatedAtDesc(user,user,PageRequest.of(PageIndex, size));
+        PageRequest pageRequest = PageRequest.of(PageIndex, size);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            findRecord = popularFeedService.findRecordPage(0, pageRequest)
+                    .orElseGet(() -> recordRepository.findByOrderByLikesDescCreatedAtDesc(pageRequest));
+        else
+            findRecord = recordRepository.findByOrderByLikesDescCreatedAtDescExcludingUsers(blockSet.toIdList(), pageRequest);
         return findRecord;
     }
 
+    @Override
+    public Page<Record> findRecordPagingTrending(User user, Integer categoryId, Integer pageIndex) {
+        if(pageIndex == null)
+            pageIndex = 0;
+
+        PageRequest pageRequest = PageRequest.of(pageIndex, size);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        Optional<Page<Record>> trending = blockSet.isEmpty()
+                ? popularFeedService.findTrendingRecordPage(categoryId, pageRequest)
+                : popularFeedService.findTrendingRecordPage(categoryId, blockSet.toIdList(), pageRequest);
+        // 아직 집계된 트렌딩이 없으면 인기순으로 대신 보여준다
+        if (trending.isEmpty())
+            return categoryId == 0 ? findRecordPagingLikes(user, pageIndex) : findRecordPagingCategoryAndLikes(user, categoryId, pageIndex);
+
+        return trending.get();
+    }
+
+    @Override
+    public FeedSlice<Record> findRecordSliceCreatedAt(User user, Integer categoryId, String cursor) {
+        FeedCursor feedCursor = FeedCursor.decode(cursor);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+
+        if (categoryId == 0)
+            return FeedCursor.scroll(feedCursor, size, record -> !blockSet.contains(record.getUser().getId()), this::toFeedCursor,
+                    (c, pageable) -> recordRepository.findSliceByOrderByCreatedAtDesc(c.getCreatedAt(), c.getId(), pageable));
+
+        ExerciseCategory exerciseCategory = exerciseCategoryRepository.findById(categoryId).orElseThrow(() -> new RecordException(Code.CATEGORY_ERROR));
+        return FeedCursor.scroll(feedCursor, size, record -> !blockSet.contains(record.getUser().getId()), this::toFeedCursor,
+                (c, pageable) -> recordRepository.findSliceByExerciseCategoryOrderByCreatedAtDesc(exerciseCategory, c.getCreatedAt(), c.getId(), pageable));
+    }
+
+    @Override
+    public FeedSlice<Record> findRecordSliceLikes(User user, Integer categoryId, String cursor) {
+        FeedCursor feedCursor = FeedCursor.decode(cursor);
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+
+        if (categoryId == 0)
+            return FeedCursor.scroll(feedCursor, size, record -> !blockSet.contains(record.getUser().getId()), this::toFeedCursor,
+                    (c, pageable) -> recordRepository.findSliceByOrderByLikesDescCreatedAtDesc(c.getLikes(), c.getCreatedAt(), c.getId(), pageable));
+
+        ExerciseCategory exerciseCategory = exerciseCategoryRepository.findById(categoryId).orElseThrow(() -> new RecordException(Code.CATEGORY_ERROR));
+        return FeedCursor.scroll(feedCursor, size, record -> !blockSet.contains(record.getUser().getId()), this::toFeedCursor,
+                (c, pageable) -> recordRepository.findSliceByExerciseCategoryOrderByLikesDescCreatedAtDesc(exerciseCategory, c.getLikes(), c.getCreatedAt(), c.getId(), pageable));
+    }
+
+    private FeedCursor toFeedCursor(Record record) {
+        return FeedCursor.of(record.getLikes(), record.getCreatedAt(), record.getId());
+    }
+
     @Override
     @Transactional(readOnly = false)
     public void calcExp(User user, Integer categoryId) {
@@ -290,6 +381,7 @@ public class RecordServiceImpl implements RecordService {
         if (totalExp >= exerciseGrade.getMaxExp()) {
             totalExp -= exerciseGrade.getMaxExp();
             userExercise.setGrade(gradeRepository.findByLevel(exerciseGrade.getLevel() + 1).get());
+            authUserService.evict(user.getId());
         }
         userExercise.setRecords(userExercise.getRecords() + 1);
         userExercise.setExp(totalExp);
@@ -311,7 +403,9 @@ public class RecordServiceImpl implements RecordService {
                 amazonS3Manager.deleteFile(Keyname.substring(1));
             }
             recordRepository.delete(record);
+            popularFeedService.removeRecord(record.getId(), record.getExerciseCategory().getId());
         }
+        feedCacheService.evictRecordFeed();
     }
 
     @Override
@@ -336,44 +430,40 @@ public class RecordServiceImpl implements RecordService {
 
     @Override
     @Transactional
-    public void alarmRecordLike(Record record, User user) throws IOException
+    public void alarmRecordLike(Record record, User user)
     {
-        // 알림 테이블에 저장
-        Notification notification = notificationRepository.save(Notification.builder()
-                .notificationCategory(NotificationCategory.RECORD)
+        // 같은 글에 몰린 알림은 하나로 묶어서 저장하고 보낸다
+        notificationService.coalesce(AlarmEvent.builder()
+                .target(record.getUser())
+                .category(NotificationCategory.RECORD)
+                .action(AlarmEvent.Action.LIKE)
                 .record(record)
-                .user(record.getUser())
-                .notificationBody(user.getNickname().toString() + alarmBodyHead)
-                .isConfirmed(false)
+                .actorId(user.getId())
+                .actorNickname(user.getNickname())
+                .bodyTail(alarmBodyHead)
+                .platform(PushPlatform.ANDROID)
+                .title(alarmTitle)
+                .targetImage(record.getImageUrl())
                 .build());
-
-        notification.setUser(record.getUser());
-
-        // 알림 보내기
-        for(FcmToken fcmToken : record.getUser().getFcmTokenList()){
-            fireBaseService.sendMessageToV2(fcmToken.getToken(),alarmTitle,user.getNickname().toString() + alarmBodyHead, FCMType.RECORD.toString(),record.getId().toString(),notification.getId().toString(), record.getImageUrl());
-        }
     }
 
     @Override
     @Transactional
-    public void alarmRecordLikeApple(Record record, User user) throws IOException
+    public void alarmRecordLikeApple(Record record, User user)
     {
-        // 알림 테이블에 저장
-        Notification notification = notificationRepository.save(Notification.builder()
-                .notificationCategory(NotificationCategory.RECORD)
+        // 같은 글에 몰린 알림은 하나로 묶어서 저장하고 보낸다
+        notificationService.coalesce(AlarmEvent.builder()
+                .target(record.getUser())
+                .category(NotificationCategory.RECORD)
+                .action(AlarmEvent.Action.LIKE)
                 .record(record)
-                .user(record.getUser())
-                .notificationBody(user.getNickname().toString() + alarmBodyHead)
-                .isConfirmed(false)
+                .actorId(user.getId())
+                .actorNickname(user.getNickname())
+                .bodyTail(alarmBodyHead)
+                .platform(PushPlatform.IOS)
+                .title(alarmTitle)
+                .targetImage(record.getImageUrl())
                 .build());
-
-        notification.setUser(record.getUser());
-
-        // 알림 보내기
-        for(FcmToken fcmToken : record.getUser().getFcmTokenList()){
-            fireBaseService.sendMessageToAppleV2(fcmToken.getToken(),alarmTitle,user.getNickname().toString() + alarmBodyHead, FCMType.RECORD.toString(),record.getId().toString(),notification.getId().toString(), record.getImageUrl());
-        }
     }
 
     @Override
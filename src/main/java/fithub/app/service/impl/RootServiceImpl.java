@@ -4,6 +4,7 @@ import fithub.app.aws.s3.AmazonS3Manager;
 import fithub.app.base.Code;
 import fithub.app.base.exception.handler.RecordException;
 import fithub.app.base.exception.handler.RootException;
+import fithub.app.service.AuthUserService;
 import fithub.app.service.converter.RootConverter;
 import fithub.app.domain.*;
 import fithub.app.feign.kakaoLocal.KakaoLocalConverter;
@@ -64,6 +65,8 @@ public class RootServiceImpl implements RootService {
 
     private final TermsRepository termsRepository;
 
+    private final AuthUserService authUserService;
+
     @Override
     public List<Grade> findAllGrade() {
         return gradeRepository.findAll();
@@ -254,6 +257,7 @@ public class RootServiceImpl implements RootService {
     @Override
     @Transactional
     public User changePermit(User user, RootRequestDto.NotificationChangeDto request) {
+        authUserService.evict(user.getId());
         return user.setPermit(request.getMarketingPermit(), request.getCommunityPermit());
     }
 
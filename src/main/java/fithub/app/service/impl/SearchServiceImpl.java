@@ -2,6 +2,7 @@ package fithub.app.service.impl;
 
 import fithub.app.base.Code;
 import fithub.app.base.exception.handler.SearchException;
+import fithub.app.service.UserBlockService;
 import fithub.app.service.converter.SearchConverter;
 import fithub.app.domain.*;
 import fithub.app.domain.mapping.ArticleHashTag;
@@ -13,6 +14,7 @@ import fithub.app.repository.HashTagRepositories.RecordHashTagRepository;
 import fithub.app.repository.RecommendArticleKeywordRepository;
 import fithub.app.repository.RecordRepositories.RecordRepository;
 import fithub.app.service.SearchService;
+import fithub.app.utils.BlockSet;
 import fithub.app.web.dto.responseDto.SearchPreViewResponseDto;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -42,6 +44,8 @@ public class SearchServiceImpl implements SearchService {
 
     private final RecommendArticleKeywordRepository recommendArticleKeywordRepository;
 
+    private final UserBlockService userBlockService;
+
     private Logger logger = LoggerFactory.getLogger(SearchServiceImpl.class);
 
     @Value("${paging.size}")
@@ -56,7 +60,7 @@ public class SearchServiceImpl implements SearchService {
         if(byName.isEmpty())
             return searchResult;
         else{
-            List<ArticleHashTag> allByHashTag = articleHashTagRepository.findAllByHashTag(byName.get(), user, user);
+            List<ArticleHashTag> allByHashTag = findArticleHashTags(byName.get(), user);
             List<Long> articleIds = allByHashTag.stream()
                     .map(articleHashTag -> articleHashTag.getArticle().getId())
                     .collect(Collectors.toList());
@@ -82,7 +86,7 @@ public class SearchServiceImpl implements SearchService {
         if(byName.isEmpty())
             return searchResult;
         else{
-            List<RecordHashTag> allByHashTag = recordHashTagRepository.findAllByHashTag(byName.get(), user, user);
+            List<RecordHashTag> allByHashTag = findRecordHashTags(byName.get(), user);
             List<Long> recordIds = allByHashTag.stream()
                     .map(articleHashTag -> articleHashTag.getRecord().getId())
                     .collect(Collectors.toList());
@@ -107,7 +111,7 @@ public class SearchServiceImpl implements SearchService {
         if(byName.isEmpty())
             return searchResult;
         else{
-            List<ArticleHashTag> allByHashTag = articleHashTagRepository.findAllByHashTag(byName.get(), user, user);
+            List<ArticleHashTag> allByHashTag = findArticleHashTags(byName.get(), user);
             List<Long> articleIds = allByHashTag.stream()
                     .map(articleHashTag -> articleHashTag.getArticle().getId())
                     .collect(Collectors.toList());
@@ -133,7 +137,7 @@ public class SearchServiceImpl implements SearchService {
         if(byName.isEmpty())
             return searchResult;
         else{
-            List<RecordHashTag> allByHashTag = recordHashTagRepository.findAllByHashTag(byName.get(),user, user);
+            List<RecordHashTag> allByHashTag = findRecordHashTags(byName.get(), user);
             List<Long> recordIds = allByHashTag.stream()
                     .map(recordHashTag -> recordHashTag.getRecord().getId())
                     .collect(Collectors.toList());
@@ -159,12 +163,12 @@ public class SearchServiceImpl implements SearchService {
         if(byName.isEmpty())
             throw new SearchException(Code.SEARCH_NO_DATA);
         else{
-            List<RecordHashTag> recordHashTagList = recordHashTagRepository.findAllByHashTag(byName.get(), user, user);
+            List<RecordHashTag> recordHashTagList = findRecordHashTags(byName.get(), user);
             List<Long> recordIds = recordHashTagList.stream()
                     .map(recordHashTag -> recordHashTag.getRecord().getId())
                     .collect(Collectors.toList());
 
-            List<ArticleHashTag> articleHashTagList = articleHashTagRepository.findAllByHashTag(byName.get(), user, user);
+            List<ArticleHashTag> articleHashTagList = findArticleHashTags(byName.get(), user);
             List<Long> articleIds = articleHashTagList.stream()
                     .map(recordHashTag -> recordHashTag.getArticle().getId())
                     .collect(Collectors.toList());
@@ -200,4 +204,18 @@ public class SearchServiceImpl implements SearchService {
     public List<RecommendArticleKeyword> getRecommendArticleKeyword() {
         return recommendArticleKeywordRepository.findTop10ByOrderById();
     }
+
+    private List<ArticleHashTag> findArticleHashTags(HashTag hashTag, User user) {
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            return articleHashTagRepository.findByHashTag(hashTag);
+        return articleHashTagRepository.findAllByHashTag(hashTag, blockSet.toIdList());
+    }
+
+    private List<RecordHashTag> findRecordHashTags(HashTag hashTag, User user) {
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            return recordHashTagRepository.findByHashTag(hashTag);
+        return recordHashTagRepository.findAllByHashTag(hashTag, blockSet.toIdList());
+    }
 }
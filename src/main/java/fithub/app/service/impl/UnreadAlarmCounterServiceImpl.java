@@ -0,0 +1,192 @@
+package fithub.app.service.impl;
+
+import fithub.app.repository.NotificationRepository;
+import fithub.app.repository.UnreadCount;
+import fithub.app.service.UnreadAlarmCounterService;
+import fithub.app.utils.TransactionHooks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 유저별 안 읽은 알림 수를 Redis 에 들고 있다. 키가 없으면 DB 에서 세어 채우고,
+ * 알림이 생기거나 읽히면 커밋 뒤에 증감한다. 증감이 있었던 키만 주기적으로 DB 기준으로 다시 맞춘다.
+ * 값을 바꿀 때마다 유저별 세대 번호를 올려서, DB 에서 세는 사이에 바뀐 키는 덮어쓰지 않는다.
+ */
+@Service
+public class UnreadAlarmCounterServiceImpl implements UnreadAlarmCounterService {
+
+    private static final String KEY_PREFIX = "unread-alarm:";
+
+    private static final String GENERATION_PREFIX = "unread-alarm-gen:";
+
+    // 마지막 재계산 뒤로 증감이 있었던 유저 id
+    private static final String TOUCHED_KEY = "unread-alarm-touched";
+
+    private static final String RECONCILE_LOCK_KEY = "unread-alarm-reconcile-lock";
+
+    // DB 에서 세는 동안만 살아 있으면 된다
+    private static final Duration GENERATION_TTL = Duration.ofMinutes(1);
+
+    // 세대를 올리고, 키가 있을 때만 증감한다. 없는 키를 만들면 DB 와 다른 값에서 시작하게 된다. 음수가 되면 지워서 다시 세게 한다
+    private static final DefaultRedisScript<Long> INCREMENT_IF_PRESENT = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[2]) " +
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end " +
+            "local value = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "if value < 0 then redis.call('DEL', KEYS[1]) return value end " +
+            "redis.call('SADD', KEYS[3], ARGV[3]) " +
+            "return value", Long.class);
+
+    private static final DefaultRedisScript<Long> DELETE = new DefaultRedisScript<>(
+            "redis.call('INCR', KEYS[2]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[1]) " +
+            "return redis.call('DEL', KEYS[1])", Long.class);
+
+    // DB 에서 세기 전에 읽어 둔 세대가 그대로일 때만 채운다. 그 사이 커밋된 증감이 있으면 다음 조회 때 다시 센다
+    private static final DefaultRedisScript<Long> FILL_IF_UNCHANGED = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then return 0 end " +
+            "if redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3], 'NX') then return 1 end " +
+            "return 0", Long.class);
+
+    // 재계산은 남은 TTL 을 그대로 두고 값만 바꾼다. 그 사이 만료되었거나 세대가 바뀌었으면 건드리지 않는다
+    private static final DefaultRedisScript<Long> RESET_IF_UNCHANGED = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[2]) or '') ~= ARGV[1] then return 0 end " +
+            "local ttl = redis.call('PTTL', KEYS[1]) " +
+            "if ttl <= 0 then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ttl) " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final NotificationRepository notificationRepository;
+
+    private final Duration ttl;
+
+    private final Integer reconcileBatchSize;
+
+    private final Duration reconcileLockTtl;
+
+    Logger logger = LoggerFactory.getLogger(UnreadAlarmCounterServiceImpl.class);
+
+    public UnreadAlarmCounterServiceImpl(StringRedisTemplate redisTemplate,
+                                         NotificationRepository notificationRepository,
+                                         @Value("${notification.unread.ttl-hours}") Long ttlHours,
+                                         @Value("${notification.unread.reconcile-batch-size}") Integer reconcileBatchSize,
+                                         @Value("${notification.unread.reconcile-interval-ms}") Long reconcileIntervalMs) {
+        this.redisTemplate = redisTemplate;
+        this.notificationRepository = notificationRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.reconcileBatchSize = reconcileBatchSize;
+        this.reconcileLockTtl = Duration.ofMillis(reconcileIntervalMs / 2);
+    }
+
+    @Override
+    public Long getUnreadCount(Long userId) {
+        String key = KEY_PREFIX + userId;
+        String generationKey = GENERATION_PREFIX + userId;
+        List<String> cached;
+        try {
+            cached = redisTemplate.opsForValue().multiGet(Arrays.asList(key, generationKey));
+        } catch (RuntimeException e) {
+            logger.warn("안 읽은 알림 수 조회 실패, DB 로 조회 : {}", e.getMessage());
+            return notificationRepository.countUnread(userId);
+        }
+        if (cached != null && cached.get(0) != null)
+            return Long.valueOf(cached.get(0));
+
+        String generation = cached == null || cached.get(1) == null ? "" : cached.get(1);
+        Long count = notificationRepository.countUnread(userId);
+        try {
+            redisTemplate.execute(FILL_IF_UNCHANGED, Arrays.asList(key, generationKey),
+                    generation, count.toString(), String.valueOf(ttl.toMillis()));
+        } catch (RuntimeException e) {
+            logger.warn("안 읽은 알림 수 저장 실패 : {}", e.getMessage());
+        }
+        return count;
+    }
+
+    @Override
+    public void increment(Long userId) {
+        TransactionHooks.afterCommit(() -> add(userId, 1));
+    }
+
+    @Override
+    public void decrement(Long userId) {
+        TransactionHooks.afterCommit(() -> add(userId, -1));
+    }
+
+    @Override
+    public void evict(Long userId) {
+        TransactionHooks.afterCommit(() -> delete(userId));
+    }
+
+    // 증감이 있었던 유저만 batch 단위로 다시 센다. 여러 노드 중 락을 잡은 한 곳만 돈다
+    @Override
+    @Scheduled(fixedDelayString = "${notification.unread.reconcile-interval-ms}")
+    public void reconcile() {
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, "1", reconcileLockTtl)))
+                return;
+
+            // 도는 동안 새로 들어오는 유저는 다음 차례로 넘긴다
+            Long pending = redisTemplate.opsForSet().size(TOUCHED_KEY);
+            for (long done = 0; pending != null && done < pending; done += reconcileBatchSize) {
+                List<String> members = redisTemplate.opsForSet().pop(TOUCHED_KEY, reconcileBatchSize);
+                if (members == null || members.isEmpty())
+                    return;
+                reconcile(members.stream().map(Long::valueOf).collect(Collectors.toList()));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("안 읽은 알림 수 재계산 실패 : {}", e.getMessage());
+        }
+    }
+
+    private void reconcile(List<Long> userIds) {
+        List<String> generations = redisTemplate.opsForValue().multiGet(userIds.stream()
+                .map(userId -> GENERATION_PREFIX + userId)
+                .collect(Collectors.toList()));
+
+        Map<Long, Long> counts = new HashMap<>();
+        for (UnreadCount unreadCount : notificationRepository.countUnreadByUserIds(userIds))
+            counts.put(unreadCount.getUserId(), unreadCount.getTotal());
+
+        for (int i = 0; i < userIds.size(); i++) {
+            Long userId = userIds.get(i);
+            String generation = generations == null || generations.get(i) == null ? "" : generations.get(i);
+            redisTemplate.execute(RESET_IF_UNCHANGED, Arrays.asList(KEY_PREFIX + userId, GENERATION_PREFIX + userId),
+                    generation, counts.getOrDefault(userId, 0L).toString());
+        }
+    }
+
+    private void add(Long userId, long delta) {
+        try {
+            redisTemplate.execute(INCREMENT_IF_PRESENT, Arrays.asList(KEY_PREFIX + userId, GENERATION_PREFIX + userId, TOUCHED_KEY),
+                    String.valueOf(delta), String.valueOf(GENERATION_TTL.toMillis()), userId.toString());
+        } catch (RuntimeException e) {
+            // 증감을 놓치면 값이 틀어지므로 지워서 다음 조회 때 다시 세게 한다. 지우지도 못하면 TTL 에 맡긴다
+            logger.warn("안 읽은 알림 수 갱신 실패 : {}", e.getMessage());
+            delete(userId);
+        }
+    }
+
+    private void delete(Long userId) {
+        try {
+            redisTemplate.execute(DELETE, Arrays.asList(KEY_PREFIX + userId, GENERATION_PREFIX + userId),
+                    String.valueOf(GENERATION_TTL.toMillis()));
+        } catch (RuntimeException e) {
+            logger.warn("안 읽은 알림 수 삭제 실패 : {}", e.getMessage());
+        }
+    }
+}
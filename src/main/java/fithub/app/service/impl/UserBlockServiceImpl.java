@@ -0,0 +1,50 @@
+package fithub.app.service.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import fithub.app.repository.UserReportRepository;
+import fithub.app.service.UserBlockService;
+import fithub.app.utils.BlockSet;
+import fithub.app.utils.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class UserBlockServiceImpl implements UserBlockService {
+
+    private final UserReportRepository userReportRepository;
+
+    private final LoadingCache<Long, BlockSet> blockSetCache;
+
+    public UserBlockServiceImpl(UserReportRepository userReportRepository,
+                                @Value("${block.cache.maximum-size}") Long maximumSize,
+                                @Value("${block.cache.expire-minutes}") Long expireMinutes) {
+        this.userReportRepository = userReportRepository;
+        this.blockSetCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+                .build(this::loadBlockSet);
+    }
+
+    @Override
+    public BlockSet getBlockSet(Long userId) {
+        return blockSetCache.get(userId);
+    }
+
+    // 신고/탈퇴 트랜잭션이 커밋된 뒤에 지워야 다른 요청이 커밋 전 상태를 다시 캐시하지 않는다
+    @Override
+    public void evict(Long userId) {
+        TransactionHooks.evictNowAndAfterCommit(() -> blockSetCache.invalidate(userId));
+    }
+
+    // 내가 차단한 유저 + 나를 차단한 유저
+    private BlockSet loadBlockSet(Long userId) {
+        List<Long> blockedIds = new ArrayList<>(userReportRepository.findTargetIdsByReporterId(userId));
+        blockedIds.addAll(userReportRepository.findReporterIdsByTargetId(userId));
+        return BlockSet.of(blockedIds);
+    }
+}
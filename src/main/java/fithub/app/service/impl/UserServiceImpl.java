@@ -1,8 +1,12 @@
 package fithub.app.service.impl;
 
+import fithub.app.auth.dto.AuthUserInfo;
 import fithub.app.auth.provider.TokenProvider;
 import fithub.app.aws.s3.AmazonS3Manager;
 import fithub.app.base.Code;
+import fithub.app.service.AuthUserService;
+import fithub.app.service.UnreadAlarmCounterService;
+import fithub.app.service.UserBlockService;
 import fithub.app.service.converter.ExercisePreferenceConverter;
 import fithub.app.service.converter.UserConverter;
 import fithub.app.domain.*;
@@ -14,6 +18,7 @@ import fithub.app.repository.*;
 import fithub.app.repository.ArticleRepositories.ArticleRepository;
 import fithub.app.repository.RecordRepositories.RecordRepository;
 import fithub.app.service.UserService;
+import fithub.app.utils.BlockSet;
 import fithub.app.utils.OAuthResult;
 import fithub.app.web.dto.requestDto.UserRequestDto;
 import lombok.RequiredArgsConstructor;
@@ -60,13 +65,20 @@ public class UserServiceImpl implements UserService {
 
     private final UserReportRepository userReportRepository;
 
-    private final NotificationRepository notificationRepository;
+    private final UnreadAlarmCounterService unreadAlarmCounterService;
+
     private final AmazonS3Manager s3Manager;
 
     private final FcmTokenRepository fcmTokenRepository;
 
     private final BestRecorderRepository bestRecorderRepository;
 
+    private final UserBlockService userBlockService;
+
+    private final AuthUserService authUserService;
+
+    private final MonthlyRecordHistoryRepository monthlyRecordHistoryRepository;
+
     @Value("${paging.size}")
     private Integer size;
 
@@ -233,6 +245,7 @@ public class UserServiceImpl implements UserService {
         else
             token.get().setUser(user);
 
+        authUserService.evict(user.getId());
         return UserConverter.toCompleteUser(updatedUser, exerciseCategory);
     }
 
@@ -282,16 +295,20 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<UserExercise> getMyExercises(User user) {
-        List<UserExercise> myExercises = new ArrayList<>();
+    public List<MonthlyRecordHistory> getMonthlyRecordHistory(AuthUserInfo user) {
+        return monthlyRecordHistoryRepository.findTop12ByUserIdOrderByRecordMonthDesc(user.getId());
+    }
 
-        myExercises.add(user.getMainExercise());
+    @Override
+    public List<UserExercise> getMyExercises(AuthUserInfo user) {
+        List<UserExercise> myExercises = new ArrayList<>();
 
-        List<UserExercise> userExerciseList = userExerciseRepository.findUserExercise(user);
+        List<UserExercise> userExerciseList = userExerciseRepository.findMyExercises(user.getId(), user.getMainExerciseCategoryId());
 
+        // 메인 운동을 맨 앞에 둔다
         for (int i = 0; i < userExerciseList.size(); i++){
-            if (userExerciseList.get(i).getExerciseCategory().getName().equals(myExercises.get(0).getExerciseCategory().getName()))
-                continue;
+            if (userExerciseList.get(i).getExerciseCategory().getId().equals(user.getMainExerciseCategoryId()))
+                myExercises.add(0, userExerciseList.get(i));
             else
                 myExercises.add(userExerciseList.get(i));
         }
@@ -305,6 +322,7 @@ public class UserServiceImpl implements UserService {
         ExerciseCategory exerciseCategory = exerciseCategoryRepository.findById(categoryId).orElseThrow(() -> new UserException(Code.CATEGORY_ERROR));
         UserExercise target = userExerciseRepository.findByUserAndExerciseCategory(user, exerciseCategory).get();
         user.setMainExercise(target);
+        authUserService.evict(user.getId());
         return target;
     }
 
@@ -323,12 +341,15 @@ public class UserServiceImpl implements UserService {
         if(findReport.isPresent())
             throw new UserException(Code.ALREADY_REPORT);
         target.countReport();
-        return userReportRepository.save(
+        UserReport userReport = userReportRepository.save(
             UserReport.builder()
                     .reporter(user)
                     .user(target)
                     .build()
         );
+        userBlockService.evict(user.getId());
+        userBlockService.evict(target.getId());
+        return userReport;
     }
 
     @Override
@@ -357,7 +378,10 @@ public class UserServiceImpl implements UserService {
         if(categoryId != 0)
             exerciseCategory = exerciseCategoryRepository.findById(categoryId).orElseThrow(() -> new UserException(Code.CATEGORY_ERROR));
 
-        return categoryId == 0 ? articleRepository.findAllSavedArticle(user, user,user,PageRequest.of(pageIndex, size)) : articleRepository.findAllSavedArticleCategory(user,user,user,exerciseCategory,PageRequest.of(pageIndex, size));
+        BlockSet blockSet = userBlockService.getBlockSet(user.getId());
+        if (blockSet.isEmpty())
+            return categoryId == 0 ? articleRepository.findAllSavedArticle(user, PageRequest.of(pageIndex, size)) : articleRepository.findAllSavedArticleCategory(user, exerciseCategory, PageRequest.of(pageIndex, size));
+        return categoryId == 0 ? articleRepository.findAllSavedArticleExcludingUsers(user, blockSet.toIdList(), PageRequest.of(pageIndex, size)) : articleRepository.findAllSavedArticleCategoryExcludingUsers(user, blockSet.toIdList(), exerciseCategory, PageRequest.of(pageIndex, size));
     }
 
     @Override
@@ -370,6 +394,7 @@ public class UserServiceImpl implements UserService {
         String fileUrl = s3Manager.uploadFile(KeyName, request.getNewProfile());
         logger.info("S3에 업로드 한 파일의 url : {}", fileUrl);
         findUser.setProfile(fileUrl);
+        authUserService.evict(user.getId());
         return fileUrl;
     }
 
@@ -378,19 +403,18 @@ public class UserServiceImpl implements UserService {
     public void changeMyProfileDefault(User user) {
         User findUser = userRepository.findById(user.getId()).get();
         findUser.setProfileDefault();
+        authUserService.evict(user.getId());
     }
 
     @Override
     public Long checkRemainAlarm(User user) {
-        Long remainAlarm = notificationRepository.findRemainAlarm(user);
-        return remainAlarm;
+        return unreadAlarmCounterService.getUnreadCount(user.getId());
     }
 
     @Override
     public User findUserNotBlocked(Long userId, User user) {
         User findUser = userRepository.findById(userId).orElseThrow(() -> new UserException(Code.MEMBER_NOT_FOUND));
-        Long count = userReportRepository.checkReport(findUser, user);
-        if (count > 0)
+        if (userBlockService.getBlockSet(user.getId()).contains(findUser.getId()))
             throw new UserException(Code.BLOCKED_USER);
         return findUser;
     }
@@ -412,11 +436,18 @@ public class UserServiceImpl implements UserService {
 //        Optional<BestRecorder> byUserId = bestRecorderRepository.findByUserId(user.getId());
 //        if(byUserId.isPresent())
 //
+        // 탈퇴 유저와 차단 관계였던 유저들의 캐시도 비운다
+        List<Long> blockedIds = userBlockService.getBlockSet(user.getId()).toIdList();
         List<UserReport> userReport = userReportRepository.findAllByReporter(user);
         for(UserReport report : userReport){
             userReportRepository.delete(report);
         }
         userReportRepository.flush();
+        for (Long blockedId : blockedIds)
+            userBlockService.evict(blockedId);
+        userBlockService.evict(user.getId());
+        authUserService.evict(user.getId());
+        monthlyRecordHistoryRepository.deleteAllByUserId(user.getId());
         userRepository.delete(quitUser);
     }
 
@@ -0,0 +1,57 @@
+package fithub.app.service.impl;
+
+import fithub.app.repository.ArticleRepositories.ArticleLikesRepository;
+import fithub.app.repository.ArticleRepositories.SavedArticleRepository;
+import fithub.app.repository.CommentsRepository.CommentsLikesRepository;
+import fithub.app.repository.RecordRepositories.RecordLikesRepository;
+import fithub.app.service.ViewerStateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ViewerStateServiceImpl implements ViewerStateService {
+
+    private final ArticleLikesRepository articleLikesRepository;
+
+    private final SavedArticleRepository savedArticleRepository;
+
+    private final RecordLikesRepository recordLikesRepository;
+
+    private final CommentsLikesRepository commentsLikesRepository;
+
+    // 유저의 좋아요 목록 전체가 아니라 이번 페이지에 보이는 콘텐츠만 in 쿼리로 확인한다
+    @Override
+    public Set<Long> findLikedArticleIds(Long userId, List<Long> articleIds) {
+        if (articleIds.isEmpty())
+            return new HashSet<>();
+        return new HashSet<>(articleLikesRepository.findLikedArticleIds(userId, articleIds));
+    }
+
+    @Override
+    public Set<Long> findSavedArticleIds(Long userId, List<Long> articleIds) {
+        if (articleIds.isEmpty())
+            return new HashSet<>();
+        return new HashSet<>(savedArticleRepository.findSavedArticleIds(userId, articleIds));
+    }
+
+    @Override
+    public Set<Long> findLikedRecordIds(Long userId, List<Long> recordIds) {
+        if (recordIds.isEmpty())
+            return new HashSet<>();
+        return new HashSet<>(recordLikesRepository.findLikedRecordIds(userId, recordIds));
+    }
+
+    @Override
+    public Set<Long> findLikedCommentsIds(Long userId, List<Long> commentsIds) {
+        if (commentsIds.isEmpty())
+            return new HashSet<>();
+        return new HashSet<>(commentsLikesRepository.findLikedCommentsIds(userId, commentsIds));
+    }
+}
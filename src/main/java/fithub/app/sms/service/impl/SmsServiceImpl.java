@@ -1,74 +1,145 @@
 package fithub.app.sms.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import fithub.app.base.Code;
 import fithub.app.service.converter.PhoneAuthConverter;
-import fithub.app.domain.PhoneAuth;
 
 import fithub.app.base.exception.handler.PhoneAuthException;
-import fithub.app.repository.PhoneAuthRepository;
 import fithub.app.sms.dto.MessageDto;
-import fithub.app.sms.dto.SmsDto;
 import fithub.app.sms.dto.SmsRequestDto;
 import fithub.app.sms.dto.SmsResponseDto;
 import fithub.app.sms.service.SmsService;
 import fithub.app.utils.ResponseCode;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.tomcat.util.codec.binary.Base64;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PreDestroy;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
-import java.io.UnsupportedEncodingException;
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 인증번호는 Redis 에 TTL 을 걸어 저장하고, SENS 발송은 전용 풀에서 비동기로 처리한다.
+ * RestTemplate(커넥션 풀)과 서명용 Mac(스레드별)은 매 요청마다 새로 만들지 않고 재사용한다.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class SmsServiceImpl implements SmsService {
 
-    private final PhoneAuthRepository phoneAuthRepository;
-
-    @Value("${naver-sms.accessKey}")
-    private String accessKey;
-
-    @Value("${naver-sms.secretKey}")
-    private String secretKey;
-
-    @Value("${naver-sms.serviceId}")
-    private String serviceId;
-
-    @Value("${naver-sms.senderPhone}")
-    private String phone;
+    private static final String AUTH_KEY = "phone-auth:";
+
+    private static final String ATTEMPTS_KEY = "phone-auth-attempts:";
+
+    private static final String DELIMITER = "|";
+
+    // 유효시간이 지난 번호도 이만큼 더 남겨 두어 발급 기록이 없는 것과 시간이 지난 것을 구분한다
+    private static final Duration EXPIRED_RETENTION = Duration.ofHours(1);
+
+    // 맞으면 발송 시각을 돌려준다. 틀리면 횟수를 세고, 다 틀리면 번호를 지워서 새로 발급받게 한다
+    // -1 : 발급 기록 없음, -2 : 틀림, -3 : 틀린 횟수 초과
+    private static final DefaultRedisScript<Long> CHECK_AUTH_NUMBER = new DefaultRedisScript<>(
+            "local saved = redis.call('GET', KEYS[1]) " +
+            "if not saved then return -1 end " +
+            "local delimiter = string.find(saved, ARGV[4], 1, true) " +
+            "if string.sub(saved, 1, delimiter - 1) == ARGV[1] then return tonumber(string.sub(saved, delimiter + 1)) end " +
+            "local attempts = redis.call('INCR', KEYS[2]) " +
+            "if attempts == 1 then redis.call('PEXPIRE', KEYS[2], ARGV[3]) end " +
+            "if attempts >= tonumber(ARGV[2]) then redis.call('DEL', KEYS[1], KEYS[2]) return -3 end " +
+            "return -2", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String accessKey;
+
+    private final String serviceId;
+
+    private final String phone;
+
+    private final Duration authTtl;
+
+    private final Integer maxAttempts;
+
+    private final URI sendUri;
+
+    private final RestTemplate restTemplate;
+
+    private final ThreadLocal<Mac> mac;
+
+    private final ThreadPoolExecutor sendExecutor;
+
+    public SmsServiceImpl(StringRedisTemplate redisTemplate,
+                          @Value("${naver-sms.accessKey}") String accessKey,
+                          @Value("${naver-sms.secretKey}") String secretKey,
+                          @Value("${naver-sms.serviceId}") String serviceId,
+                          @Value("${naver-sms.senderPhone}") String phone,
+                          @Value("${sms.auth.expire-seconds}") Long expireSeconds,
+                          @Value("${sms.auth.max-attempts}") Integer maxAttempts,
+                          @Value("${sms.executor.pool-size}") Integer poolSize,
+                          @Value("${sms.executor.queue-capacity}") Integer queueCapacity) {
+        this.redisTemplate = redisTemplate;
+        this.accessKey = accessKey;
+        this.serviceId = serviceId;
+        this.phone = phone;
+        this.authTtl = Duration.ofSeconds(expireSeconds);
+        this.maxAttempts = maxAttempts;
+        this.sendUri = URI.create("https://sens.apigw.ntruss.com/sms/v2/services/" + serviceId + "/messages");
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(poolSize * 2);
+        connectionManager.setDefaultMaxPerRoute(poolSize * 2);
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(
+                HttpClients.custom().setConnectionManager(connectionManager).build());
+        requestFactory.setConnectTimeout(3000);
+        requestFactory.setReadTimeout(5000);
+        this.restTemplate = new RestTemplate(requestFactory);
+
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac hmac = Mac.getInstance("HmacSHA256");
+                hmac.init(new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+                return hmac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // 큐가 가득 차면 요청 스레드가 SENS 응답을 기다리지 않도록 바로 거절한다
+        this.sendExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("sms-send-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
 
     @Override
-    public String makeSignature(Long time) throws NoSuchAlgorithmException, UnsupportedEncodingException, InvalidKeyException {
+    public String makeSignature(Long time) {
         String space = " ";
         String newLine = "\n";
         String method = "POST";
         String url = "/sms/v2/services/"+ this.serviceId+"/messages";
         String timestamp = time.toString();
         String accessKey = this.accessKey;
-        String secretKey = this.secretKey;
 
         String message = new StringBuilder()
                 .append(method)
@@ -80,19 +151,68 @@ public class SmsServiceImpl implements SmsService {
                 .append(accessKey)
                 .toString();
 
-        SecretKeySpec signingKey = new SecretKeySpec(secretKey.getBytes("UTF-8"), "HmacSHA256");
-        Mac mac = Mac.getInstance("HmacSHA256");
-        mac.init(signingKey);
-
-        byte[] rawHmac = mac.doFinal(message.getBytes("UTF-8"));
+        byte[] rawHmac = mac.get().doFinal(message.getBytes(StandardCharsets.UTF_8));
         String encodeBase64String = Base64.encodeBase64String(rawHmac);
 
         return encodeBase64String;
     }
 
     @Override
-    @Transactional(readOnly = false)
-    public Integer sendSms(String targetNumber) throws JsonProcessingException, RestClientException, URISyntaxException, InvalidKeyException, NoSuchAlgorithmException, UnsupportedEncodingException {
+    public Integer sendSms(String targetNumber) {
+        Integer randomNum = RandomNumberGenerator();
+
+        // 다시 요청하면 이전 번호를 덮어쓰고 유효시간과 틀린 횟수도 새로 시작한다
+        String key = AUTH_KEY + targetNumber;
+        redisTemplate.opsForValue().set(key, randomNum + DELIMITER + System.currentTimeMillis(), authTtl.plus(EXPIRED_RETENTION));
+        redisTemplate.delete(ATTEMPTS_KEY + targetNumber);
+
+        try {
+            sendExecutor.execute(() -> send(targetNumber, randomNum));
+        } catch (RejectedExecutionException e) {
+            redisTemplate.delete(key);
+            throw new PhoneAuthException(Code.SMS_SEND_BUSY);
+        }
+        return randomNum;
+    }
+
+    @Override
+    public SmsResponseDto.AuthNumResultDto authNumber(Integer authNum, String phoneNum) {
+        List<String> keys = Arrays.asList(AUTH_KEY + phoneNum, ATTEMPTS_KEY + phoneNum);
+        Long sentAt = redisTemplate.execute(CHECK_AUTH_NUMBER, keys,
+                String.valueOf(authNum), maxAttempts.toString(), String.valueOf(authTtl.plus(EXPIRED_RETENTION).toMillis()), DELIMITER);
+        if (sentAt == null || sentAt == -1)
+            throw new PhoneAuthException(Code.PHONE_AUTH_NOT_FOUND);
+        if (sentAt == -2)
+            throw new PhoneAuthException(Code.PHONE_AUTH_ERROR);
+        if (sentAt == -3)
+            throw new PhoneAuthException(Code.PHONE_AUTH_ATTEMPTS_EXCEEDED);
+
+        if (System.currentTimeMillis() - sentAt >= authTtl.toMillis())
+            throw new PhoneAuthException(Code.PHONE_AUTH_TIMEOUT);
+
+        redisTemplate.delete(keys);
+
+        return PhoneAuthConverter.toAuthNumResultDto(ResponseCode.SUCCESS);
+    }
+
+    @Override
+    public Boolean isExistNum(Integer phoneNum) {
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdown();
+    }
+
+    public Integer RandomNumberGenerator(){
+        int min = 100000;
+        int max = 999999;
+        int random = ThreadLocalRandom.current().nextInt(min, max + 1);
+        return random;
+    }
+
+    private void send(String targetNumber, Integer randomNum) {
         Long time = System.currentTimeMillis();
 
         HttpHeaders headers = new HttpHeaders();
@@ -103,19 +223,8 @@ public class SmsServiceImpl implements SmsService {
 
         List<MessageDto> messages = new ArrayList<>();
 
-        StringBuilder sb = new StringBuilder();
-
         //[Fithub] 인증번호 [ ㅡ ]를 입력해주세요
-        sb.append("[Fithub] 인증번호 [");
-
-        Integer randomNum = RandomNumberGenerator();
-        String authNum = String.valueOf(randomNum);
-
-        sb.append(authNum);
-
-        sb.append("]를 입력해주세요");
-
-        String content = String.valueOf(sb);
+        String content = "[Fithub] 인증번호 [" + randomNum + "]를 입력해주세요";
         messages.add(MessageDto.builder()
                 .to(targetNumber)
                 .content(content)
@@ -130,60 +239,11 @@ public class SmsServiceImpl implements SmsService {
                 .messages(messages)
                 .build();
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        String body = objectMapper.writeValueAsString(request);
-        HttpEntity<String> httpBody = new HttpEntity<>(body, headers);
-
-        RestTemplate restTemplate = new RestTemplate();
-        restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory());
-        SmsResponseDto response = restTemplate.postForObject(new URI("https://sens.apigw.ntruss.com/sms/v2/services/"+ serviceId +"/messages"), httpBody, SmsResponseDto.class);
-
-        PhoneAuth phoneAuth = PhoneAuthConverter.toPhoneAuth(SmsDto.PhoneAuthDto
-                .builder()
-                .phoneNum(targetNumber)
-                .authNum(randomNum)
-                .sendTime(LocalDateTime.now())
-                .build()
-        );
-
-        phoneAuthRepository.deleteByPhoneNum(targetNumber);
-        phoneAuthRepository.save(phoneAuth);
-
-        return randomNum;
-    }
-
-    @Override
-    @Transactional(readOnly = false)
-    public SmsResponseDto.AuthNumResultDto authNumber(Integer authNum, String phoneNum) {
-        PhoneAuth phoneAuth = phoneAuthRepository.findByPhoneNum(phoneNum).orElseThrow(() -> new PhoneAuthException(Code.PHONE_AUTH_NOT_FOUND));
-
-        if (!phoneAuth.getAuthNum().equals(authNum))
-                throw new PhoneAuthException(Code.PHONE_AUTH_ERROR);
-        else{
-            LocalDateTime nowTime = LocalDateTime.now();
-
-            long timeCheck = ChronoUnit.MINUTES.between(phoneAuth.getSendDate(), nowTime);
-            if (timeCheck >= 5)
-                throw new PhoneAuthException(Code.PHONE_AUTH_TIMEOUT);
+        try {
+            SmsResponseDto response = restTemplate.postForObject(sendUri, new HttpEntity<>(request, headers), SmsResponseDto.class);
+            log.info("인증 문자 발송 결과 : {}", response == null ? null : response.getStatusCode());
+        } catch (RestClientException e) {
+            log.error("인증 문자 발송 실패 : {}", e.getMessage());
         }
-
-        System.out.println(phoneAuth.getPhoneNum());
-        phoneAuthRepository.deleteByPhoneNum(phoneAuth.getPhoneNum());
-
-        return SmsResponseDto.AuthNumResultDto.builder()
-                .responseCode(ResponseCode.SUCCESS)
-                .build();
-    }
-
-    @Override
-    public Boolean isExistNum(Integer phoneNum) {
-        return null;
-    }
-
-    public Integer RandomNumberGenerator(){
-        int min = 100000;
-        int max = 999999;
-        int random = ThreadLocalRandom.current().nextInt(min, max + 1);
-        return random;
     }
 }
@@ -0,0 +1,61 @@
+package fithub.app.utils;
+
+import fithub.app.domain.Article;
+import fithub.app.domain.Record;
+import fithub.app.domain.User;
+import fithub.app.domain.enums.NotificationCategory;
+import fithub.app.domain.enums.PushPlatform;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 좋아요/댓글 알림 한 건. 같은 (받는 사람, 대상 글, 종류) 로 들어온 알림은 묶어서 하나로 보여준다.
+ * 알림 문구는 "{actorNickname}님이{bodyTail}" 이고, 묶이면 "{actorNickname}님 외 n명이{bodyTail}" 이 된다.
+ */
+@Getter
+@Builder
+public class AlarmEvent {
+
+    public enum Action {
+        LIKE, COMMENT
+    }
+
+    private final User target;
+
+    private final NotificationCategory category;
+
+    private final Action action;
+
+    private final Article article;
+
+    private final Record record;
+
+    // 같은 사람이 좋아요를 눌렀다 취소하고 다시 눌러도 "외 n명" 에 한 번만 세도록 쓴다
+    private final Long actorId;
+
+    private final String actorNickname;
+
+    private final String bodyTail;
+
+    private final PushPlatform platform;
+
+    private final String title;
+
+    private final String targetImage;
+
+    // 푸시 알림 수신을 꺼 둔 유저도 알림 목록에는 쌓는다
+    @Builder.Default
+    private final Boolean sendPush = true;
+
+    public Long getTargetPK() {
+        return category == NotificationCategory.RECORD ? record.getId() : article.getId();
+    }
+
+    public FCMType getTargetView() {
+        return category == NotificationCategory.RECORD ? FCMType.RECORD : FCMType.ARTICLE;
+    }
+
+    public String getCoalesceKey() {
+        return category + ":" + action + ":" + getTargetPK();
+    }
+}
@@ -0,0 +1,27 @@
+package fithub.app.utils;
+
+import fithub.app.web.dto.responseDto.NotificationResponseDto;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 알림 스트림으로 나가는 메시지. 노드 간에는 Redis pub/sub 으로 이 모양 그대로 주고받는다.
+ * 연결 직후에는 unreadCount 만, 그 뒤로는 안 읽은 수 증감(unreadDelta)과 새 알림 요약(alarm)을 보낸다.
+ */
+@Getter
+@Builder
+@AllArgsConstructor(access = AccessLevel.PROTECTED)
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class AlarmStreamMessage {
+
+    private Long userId;
+
+    private Long unreadCount;
+
+    private Long unreadDelta;
+
+    private NotificationResponseDto.NotificationDto alarm;
+}
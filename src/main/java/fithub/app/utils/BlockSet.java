@@ -0,0 +1,54 @@
+package fithub.app.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 한 유저 기준으로 차단했거나 차단당한 유저 id 모음. 정렬된 long 배열로 들고 있어서 캐시에 올려도 가볍다.
+ */
+public class BlockSet {
+
+    private static final BlockSet EMPTY = new BlockSet(new long[0]);
+
+    private final long[] userIds;
+
+    private BlockSet(long[] userIds) {
+        this.userIds = userIds;
+    }
+
+    public static BlockSet empty() {
+        return EMPTY;
+    }
+
+    public static BlockSet of(Collection<Long> userIds) {
+        if (userIds.isEmpty())
+            return EMPTY;
+        long[] sorted = userIds.stream()
+                .mapToLong(Long::longValue)
+                .distinct()
+                .sorted()
+                .toArray();
+        return new BlockSet(sorted);
+    }
+
+    public boolean isEmpty() {
+        return userIds.length == 0;
+    }
+
+    public int size() {
+        return userIds.length;
+    }
+
+    public boolean contains(Long userId) {
+        return userId != null && Arrays.binarySearch(userIds, userId) >= 0;
+    }
+
+    public List<Long> toIdList() {
+        List<Long> idList = new ArrayList<>(userIds.length);
+        for (long userId : userIds)
+            idList.add(userId);
+        return idList;
+    }
+}
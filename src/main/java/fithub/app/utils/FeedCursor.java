@@ -0,0 +1,113 @@
+package fithub.app.utils;
+
+import fithub.app.base.Code;
+import fithub.app.base.exception.GeneralException;
+import lombok.Getter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 무한 스크롤용 커서. (likes, createdAt, id) 를 담아 클라이언트에게는 불투명한 문자열로 내려준다.
+ * 최신순은 (createdAt, id), 인기순은 (likes, createdAt, id) 기준으로 다음 페이지를 찾는다.
+ */
+@Getter
+public class FeedCursor {
+
+    private static final String DELIMITER = "|";
+
+    private static final LocalDateTime MAX_CREATED_AT = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    // 차단 유저 글만 연달아 있을 때 한 요청에서 더 읽어오는 최대 횟수
+    private static final int MAX_SCROLL_ROUNDS = 5;
+
+    private final Long likes;
+
+    private final LocalDateTime createdAt;
+
+    private final Long id;
+
+    private FeedCursor(Long likes, LocalDateTime createdAt, Long id) {
+        this.likes = likes;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static FeedCursor of(Long likes, LocalDateTime createdAt, Long id) {
+        return new FeedCursor(likes, createdAt, id);
+    }
+
+    // 첫 페이지는 모든 글보다 뒤에 있는 가상의 위치에서 시작
+    public static FeedCursor first() {
+        return new FeedCursor(Long.MAX_VALUE, MAX_CREATED_AT, Long.MAX_VALUE);
+    }
+
+    public boolean isFirst() {
+        return Long.MAX_VALUE == id && MAX_CREATED_AT.equals(createdAt);
+    }
+
+    public static FeedCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return first();
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + DELIMITER, -1);
+            if (parts.length != 3)
+                throw new GeneralException(Code.INVALID_CURSOR);
+            Long likes = parts[0].isEmpty() ? Long.MAX_VALUE : Long.valueOf(parts[0]);
+            return new FeedCursor(likes, LocalDateTime.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (GeneralException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new GeneralException(Code.INVALID_CURSOR);
+        }
+    }
+
+    public static String encode(LocalDateTime createdAt, Long id) {
+        return encode(null, createdAt, id);
+    }
+
+    public static String encode(Long likes, LocalDateTime createdAt, Long id) {
+        String raw = (likes == null ? "" : likes.toString()) + DELIMITER + createdAt.toString() + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 다음 요청에 내려줄 문자열, 최신순은 likes 를 비워둔다
+    public String encode(boolean orderByLikes) {
+        return orderByLikes ? encode(likes, createdAt, id) : encode(createdAt, id);
+    }
+
+    // 걸러지는 글이 있으면 size 만큼 채워질 때까지 커서를 옮겨가며 이어서 조회한다.
+    // MAX_SCROLL_ROUNDS 를 넘기면 덜 채워졌거나 비어 있어도 그 자리까지 옮긴 커서와 함께 돌려준다
+    public static <T> FeedSlice<T> scroll(FeedCursor cursor, int size, Predicate<T> visible, Function<T, FeedCursor> cursorOf,
+                                          BiFunction<FeedCursor, Pageable, Slice<T>> query) {
+        boolean first = cursor.isFirst();
+        List<T> content = new ArrayList<>();
+        boolean hasNext;
+        int rounds = 0;
+        do {
+            Slice<T> fetched = query.apply(cursor, PageRequest.of(0, size));
+            Iterator<T> items = fetched.getContent().iterator();
+            while (content.size() < size && items.hasNext()) {
+                T item = items.next();
+                if (visible.test(item))
+                    content.add(item);
+                cursor = cursorOf.apply(item);
+            }
+            hasNext = items.hasNext() || fetched.hasNext();
+            rounds++;
+        } while (content.size() < size && hasNext && rounds < MAX_SCROLL_ROUNDS);
+
+        return new FeedSlice<>(content, size, hasNext, cursor, first);
+    }
+}
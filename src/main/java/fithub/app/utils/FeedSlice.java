@@ -0,0 +1,33 @@
+package fithub.app.utils;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+
+/**
+ * 커서 조회 결과. 차단 유저 글만 이어져서 내용이 비어 있어도 다음 요청이 이어서 읽을 위치를 함께 들고 있다.
+ */
+public class FeedSlice<T> extends SliceImpl<T> {
+
+    private final FeedCursor nextCursor;
+
+    private final boolean first;
+
+    public FeedSlice(List<T> content, int size, boolean hasNext, FeedCursor nextCursor, boolean first) {
+        super(content, PageRequest.of(0, size), hasNext);
+        this.nextCursor = hasNext ? nextCursor : null;
+        this.first = first;
+    }
+
+    // 커서 조회는 항상 0 번 페이지로 읽으므로 커서 없이 시작했는지로 첫 페이지를 판단한다
+    @Override
+    public boolean hasPrevious() {
+        return !first;
+    }
+
+    // 마지막까지 읽었으면 null
+    public FeedCursor getNextCursor() {
+        return nextCursor;
+    }
+}
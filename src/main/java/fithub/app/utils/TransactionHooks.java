@@ -0,0 +1,41 @@
+package fithub.app.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션이 커밋된 뒤에 Redis, 로컬 캐시, SSE 처럼 DB 밖의 상태를 맞추는 작업을 등록한다.
+ * 트랜잭션 밖에서 부르면 바로 실행한다.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    // 롤백되면 안 되는 쓰기는 커밋된 뒤에만 한다
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // 캐시는 지금 비우고, 커밋 전에 다른 요청이 예전 상태를 다시 캐시할 수 있어 커밋 뒤에 한 번 더 비운다
+    public static void evictNowAndAfterCommit(Runnable evict) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+        evict.run();
+    }
+}
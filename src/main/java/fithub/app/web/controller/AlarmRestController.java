@@ -7,6 +7,7 @@ import fithub.app.service.converter.NotificationConverter;
 import fithub.app.domain.Notification;
 import fithub.app.domain.User;
 import fithub.app.firebase.service.FireBaseService;
+import fithub.app.service.AlarmStreamService;
 import fithub.app.service.NotificationService;
 import fithub.app.web.dto.responseDto.NotificationResponseDto;
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,7 +20,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.servlet.http.HttpServletResponse;
 
 @Tag(name = "알람 API", description = "푸쉬 알람 API")
 @RestController
@@ -30,16 +35,22 @@ public class AlarmRestController {
 
     private final NotificationService notificationService;
 
-    @Operation(summary = "내 알림목록 조회 API ✔️🔑", description = "pageIndex로 페이징")
+    private final AlarmStreamService alarmStreamService;
+
+    @Operation(summary = "내 알림목록 조회 API ✔️🔑", description = "pageIndex로 페이징, cursor를 주면 커서로 조회")
     @ApiResponses({
             @ApiResponse(responseCode = "2000", description = "OK : 정상응답"),
             @ApiResponse(responseCode = "5000", description = "Server Error : 똘이에게 알려주세요", content = @Content(schema = @Schema(implementation = ResponseDto.class)))
     })
     @Parameters({
             @Parameter(name = "user", hidden = true),
+            @Parameter(name = "pageIndex", description = "페이지 번호, 안 주면 0번 페이지"),
+            @Parameter(name = "cursor", description = "무한 스크롤용 커서, 주면 pageIndex 대신 커서로 조회, 첫 페이지는 빈 값으로 주고 다음부터는 응답의 nextCursor를 그대로 주세요")
     })
     @GetMapping("/users/alarms")
-    public ResponseDto<NotificationResponseDto.NotificationDtoList> showAlarm(@AuthUser User user, @RequestParam(name = "pageIndex") Integer pageIndex) {
+    public ResponseDto<NotificationResponseDto.NotificationDtoList> showAlarm(@AuthUser User user, @RequestParam(name = "pageIndex", required = false, defaultValue = "0") Integer pageIndex, @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null)
+            return ResponseDto.of(NotificationConverter.toNotificationSliceDtoList(notificationService.getNotificationSlice(user, cursor)));
         Page<Notification> notification = notificationService.getNotification(user, pageIndex);
         return ResponseDto.of(NotificationConverter.toNotificationDtoList(notification));
     }
@@ -59,4 +70,34 @@ public class AlarmRestController {
         return ResponseDto.of(NotificationConverter.toNotificationConfirmDto());
 
     }
+
+    @Operation(summary = "내 알림 전체 확인 API ✔️🔑", description = "안 읽은 알림을 한 번에 모두 확인 처리합니다. 확인 처리된 개수를 돌려줍니다")
+    @ApiResponses({
+            @ApiResponse(responseCode = "2000", description = "OK : 정상응답"),
+            @ApiResponse(responseCode = "5000", description = "Server Error : 똘이에게 알려주세요", content = @Content(schema = @Schema(implementation = ResponseDto.class)))
+    })
+    @Parameters({
+            @Parameter(name = "user", hidden = true),
+    })
+    @PatchMapping("/users/alarms/confirm-all")
+    public ResponseDto<NotificationResponseDto.NotificationConfirmAllDto> confirmAllNotification(@AuthUser User user) {
+        Integer confirmedCount = notificationService.confirmAllNotification(user);
+        return ResponseDto.of(NotificationConverter.toNotificationConfirmAllDto(confirmedCount));
+    }
+
+    @Operation(summary = "알림 실시간 구독 API ✔️🔑", description = "SSE 로 안 읽은 알림 수와 새 알림을 받습니다. 연결 직후 unread 이벤트로 현재 안 읽은 수(unreadCount)를, 이후 alarm/unread 이벤트로 증감(unreadDelta)과 새 알림(alarm)을 보냅니다. 연결 중에는 /user/my-alarm, /users/alarms 를 폴링하지 않아도 됩니다")
+    @ApiResponses({
+            @ApiResponse(responseCode = "2000", description = "OK : 정상응답"),
+            @ApiResponse(responseCode = "5003", description = "SERVICE_UNAVAILABLE : 연결이 많아 연결하지 못함, 잠시 후 재연결", content = @Content(schema = @Schema(implementation = ResponseDto.class))),
+            @ApiResponse(responseCode = "5000", description = "Server Error : 똘이에게 알려주세요", content = @Content(schema = @Schema(implementation = ResponseDto.class)))
+    })
+    @Parameters({
+            @Parameter(name = "user", hidden = true),
+    })
+    @GetMapping(value = "/users/alarms/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlarm(@AuthUser User user, HttpServletResponse response) {
+        // nginx 가 이벤트를 모아서 보내지 않도록
+        response.setHeader("X-Accel-Buffering", "no");
+        return alarmStreamService.connect(user.getId());
+    }
 }
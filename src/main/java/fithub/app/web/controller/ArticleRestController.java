@@ -2,6 +2,7 @@ package fithub.app.web.controller;
 
 import fithub.app.auth.handler.annotation.AuthUser;
 import fithub.app.base.ResponseDto;
+import fithub.app.service.FeedCacheService;
 import fithub.app.service.converter.ArticleConverter;
 import fithub.app.domain.Article;
 import fithub.app.domain.User;
@@ -40,6 +41,8 @@ public class ArticleRestController {
 
     private final ArticleService articleService;
 
+    private final FeedCacheService feedCacheService;
+
     private final FireBaseService fireBaseService;
 
     @Operation(summary = "게시글 상세조회 API ✔️🔑 ", description = "게시글의 id를 통해 상세조회하는 API 입니다. 댓글 정보는 api를 하나 더 호출해주세요!")
@@ -68,16 +71,14 @@ public class ArticleRestController {
     @Parameters({
             @Parameter(name = "categoryId", description = "카테고리 아이디"),
             @Parameter(name = "pageIndex", description = "페이지 번호, 필수인데 안 주면 0번 페이지로 간주하게 해둠"),
+            @Parameter(name = "cursor", description = "무한 스크롤용 커서, 주면 pageIndex 대신 커서로 조회, 첫 페이지는 빈 값으로 주고 다음부터는 응답의 nextCursor를 그대로 주세요"),
             @Parameter(name = "user", hidden = true),
     })
     @GetMapping("/articles/{categoryId}")
-    public ResponseDto<ArticleResponseDto.ArticleDtoList> articleTimeList(@RequestParam(name = "pageIndex", required = false) Integer pageIndex,@PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
-        Page<Article> articles = null;
-        if (categoryId != 0)
-            articles = articleService.findArticlePagingCategoryAndCreatedAt(user, categoryId, pageIndex);
-        else
-            articles = articleService.findArticlePagingCreatedAt(user,pageIndex);
-        return ResponseDto.of(ArticleConverter.toArticleDtoList(articles, user, categoryId.equals(0)));
+    public ResponseDto<ArticleResponseDto.ArticleDtoList> articleTimeList(@RequestParam(name = "pageIndex", required = false) Integer pageIndex, @RequestParam(name = "cursor", required = false) String cursor, @PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
+        if (feedCacheService.isCacheable(user, pageIndex, cursor))
+            return ResponseDto.of(feedCacheService.getArticleFeed(user, categoryId, pageIndex, cursor, false, () -> findArticleTimeList(pageIndex, cursor, categoryId, user)));
+        return ResponseDto.of(findArticleTimeList(pageIndex, cursor, categoryId, user));
     }
 
     @Operation(summary = "게시글 목록 조회 API - 인기순 ✔️🔑", description = "categoryId를 0으로 주면 카테고리 무관 전체 조회, pageIndex를 queryString으로 줘서 페이징 사이즈는 12개 ❗주의, 첫 페이지는 0번 입니다 아시겠죠?❗")
@@ -89,17 +90,31 @@ public class ArticleRestController {
     @Parameters({
             @Parameter(name = "categoryId", description = "카테고리 아이디"),
             @Parameter(name = "pageIndex", description = "페이지 번호, 필수인데 안 주면 0번 페이지로 간주하게 해둠"),
+            @Parameter(name = "cursor", description = "무한 스크롤용 커서, 주면 pageIndex 대신 커서로 조회, 첫 페이지는 빈 값으로 주고 다음부터는 응답의 nextCursor를 그대로 주세요"),
             @Parameter(name = "user", hidden = true),
     })
     @GetMapping("/articles/{categoryId}/likes")
-    public ResponseDto<ArticleResponseDto.ArticleDtoList> articleLikesList(@RequestParam(name = "pageIndex") Integer pageIndex, @PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
-        Page<Article> articles = null;
-        if (categoryId != 0)
-            articles = articleService.findArticlePagingCategoryAndLikes(user,categoryId,pageIndex);
-        else
-            articles = articleService.findArticlePagingLikes(user,pageIndex);
+    public ResponseDto<ArticleResponseDto.ArticleDtoList> articleLikesList(@RequestParam(name = "pageIndex", required = false) Integer pageIndex, @RequestParam(name = "cursor", required = false) String cursor, @PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
+        if (feedCacheService.isCacheable(user, pageIndex, cursor))
+            return ResponseDto.of(feedCacheService.getArticleFeed(user, categoryId, pageIndex, cursor, true, () -> findArticleLikesList(pageIndex, cursor, categoryId, user)));
+        return ResponseDto.of(findArticleLikesList(pageIndex, cursor, categoryId, user));
+    }
 
-        return ResponseDto.of(ArticleConverter.toArticleDtoList(articles, user,categoryId.equals(0)));
+    @Operation(summary = "게시글 목록 조회 API - 트렌딩 ✔️🔑", description = "최근 일주일 좋아요를 시간이 지날수록 덜 쳐주는 점수로 정렬, 한 시간마다 갱신됩니다. categoryId를 0으로 주면 카테고리 무관 전체 조회")
+    @ApiResponses({
+            @ApiResponse(responseCode = "2000", description = "OK : 정상응답"),
+            @ApiResponse(responseCode = "4030", description = "BAD_REQUEST : 카테고리가 잘못되었습니다.", content = @Content(schema = @Schema(implementation = ResponseDto.class))),
+            @ApiResponse(responseCode = "5000", description = "Server Error : 똘이에게 알려주세요",content =@Content(schema =  @Schema(implementation = ResponseDto.class)))
+    })
+    @Parameters({
+            @Parameter(name = "categoryId", description = "카테고리 아이디"),
+            @Parameter(name = "pageIndex", description = "페이지 번호, 안 주면 0번 페이지로 간주"),
+            @Parameter(name = "user", hidden = true),
+    })
+    @GetMapping("/articles/{categoryId}/trending")
+    public ResponseDto<ArticleResponseDto.ArticleDtoList> articleTrendingList(@RequestParam(name = "pageIndex", required = false) Integer pageIndex, @PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
+        Page<Article> articles = articleService.findArticlePagingTrending(user, categoryId, pageIndex);
+        return ResponseDto.of(ArticleConverter.toArticleDtoList(articles, user, categoryId.equals(0)));
     }
 
     @Operation(summary = "게시글 추가 API ✔️🔑", description = "게시글 추가 API 입니다. 사진 여러 장을 한번에 보내 주세요")
@@ -186,12 +201,14 @@ public class ArticleRestController {
     @PostMapping("/articles/{articleId}/likes")
     public ResponseDto<ArticleResponseDto.ArticleLikeDto> likeArticle(@PathVariable(name = "articleId") @ExistArticle Long articleId, @AuthUser User user) throws IOException
     {
-        Article article = articleService.toggleArticleLike(articleId, user);
+        Boolean isLiked = articleService.toggleArticleLike(articleId, user);
         // 알림 보내기
-        System.out.println(article.getUser().getCommunityPermit());
-        if(user.isLikedArticle(article) && article.getUser().getCommunityPermit() && !article.getUser().getId().equals(user.getId()))
-            articleService.alarmArticleLike(article,user);
-        return ResponseDto.of(ArticleConverter.toArticleLikeDto(article,user));
+        if(isLiked){
+            Article article = articleService.getArticle(articleId);
+            if(article.getUser().getCommunityPermit() && !article.getUser().getId().equals(user.getId()))
+                articleService.alarmArticleLike(article,user);
+        }
+        return ResponseDto.of(ArticleConverter.toArticleLikeDto(articleId, isLiked, user));
     }
 
     @Operation(summary = "게시글 좋아요 누르기/취소 - apple ✔️🔑",description = "좋아요를 누른 적이 있다면 취소, 없다면 좋아요 누르기 입니다.")
@@ -207,12 +224,14 @@ public class ArticleRestController {
     @PostMapping("/articles/{articleId}/likes/apple")
     public ResponseDto<ArticleResponseDto.ArticleLikeDto> likeArticleApple(@PathVariable(name = "articleId") @ExistArticle Long articleId, @AuthUser User user) throws IOException
     {
-        Article article = articleService.toggleArticleLike(articleId, user);
+        Boolean isLiked = articleService.toggleArticleLike(articleId, user);
         // 알림 보내기
-        System.out.println(article.getUser().getCommunityPermit());
-        if(user.isLikedArticle(article) && article.getUser().getCommunityPermit() && !article.getUser().getId().equals(user.getId()))
-            articleService.alarmArticleLikeApple(article,user);
-        return ResponseDto.of(ArticleConverter.toArticleLikeDto(article,user));
+        if(isLiked){
+            Article article = articleService.getArticle(articleId);
+            if(article.getUser().getCommunityPermit() && !article.getUser().getId().equals(user.getId()))
+                articleService.alarmArticleLikeApple(article,user);
+        }
+        return ResponseDto.of(ArticleConverter.toArticleLikeDto(articleId, isLiked, user));
     }
 
     @Operation(summary = "게시글 저장/취소 ✔️🔑",description = "저장을 한 적이 있다면 취소, 없다면 저장하기 입니다.")
@@ -227,8 +246,8 @@ public class ArticleRestController {
     })
     @PostMapping("/articles/{articleId}/scrap")
     public ResponseDto<ArticleResponseDto.ArticleSaveDto> scrapArticle(@PathVariable("articleId") @ExistArticle Long articleId, @AuthUser User user){
-        Article article = articleService.toggleArticleSave(articleId, user);
-        return ResponseDto.of(ArticleConverter.toArticleSaveDtoDto(article, user));
+        Boolean isSaved = articleService.toggleArticleSave(articleId, user);
+        return ResponseDto.of(ArticleConverter.toArticleSaveDtoDto(articleService.getArticle(articleId), isSaved));
     }
 
     @Operation(summary = "게시글 신고하기 ✔️🔑",description = "게시글을 신고하는 API이며 이미 신고한 경우는 안된다고 응답이 갑니다.")
@@ -248,4 +267,28 @@ public class ArticleRestController {
         ContentsReport reportArticle = articleService.reportArticle(articleId, user);
         return ResponseDto.of(ArticleConverter.toArticleReportDto(reportArticle, articleId));
     }
+
+    private ArticleResponseDto.ArticleDtoList findArticleTimeList(Integer pageIndex, String cursor, Integer categoryId, User user){
+        if (cursor != null)
+            return ArticleConverter.toArticleSliceDtoList(articleService.findArticleSliceCreatedAt(user, categoryId, cursor), user, categoryId.equals(0), false);
+
+        Page<Article> articles = null;
+        if (categoryId != 0)
+            articles = articleService.findArticlePagingCategoryAndCreatedAt(user, categoryId, pageIndex);
+        else
+            articles = articleService.findArticlePagingCreatedAt(user,pageIndex);
+        return ArticleConverter.toArticleDtoList(articles, user, categoryId.equals(0));
+    }
+
+    private ArticleResponseDto.ArticleDtoList findArticleLikesList(Integer pageIndex, String cursor, Integer categoryId, User user){
+        if (cursor != null)
+            return ArticleConverter.toArticleSliceDtoList(articleService.findArticleSliceLikes(user, categoryId, cursor), user, categoryId.equals(0), true);
+
+        Page<Article> articles = null;
+        if (categoryId != 0)
+            articles = articleService.findArticlePagingCategoryAndLikes(user,categoryId,pageIndex);
+        else
+            articles = articleService.findArticlePagingLikes(user,pageIndex);
+        return ArticleConverter.toArticleDtoList(articles, user,categoryId.equals(0));
+    }
 }
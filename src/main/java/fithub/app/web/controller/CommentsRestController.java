@@ -181,8 +181,8 @@ public class CommentsRestController {
     @Transactional(readOnly = false)
     @PostMapping("/{type}/{id}/comments/{commentId}")
     public ResponseDto<CommentsResponseDto.CommentLikeDto> toggleComment(@PathVariable(name = "type") String type,@PathVariable(name = "id") Long id, @PathVariable(name = "commentId") Long commentId,@AuthUser User user){
-        Comments comments = type.equals("articles") ? commentsService.toggleCommentsLikeOnArticle(id, commentId, user) : commentsService.toggleCommentsLikeOnRecord(id, commentId, user);
-        return ResponseDto.of(CommentsConverter.toCommentLikeDto(comments,user));
+        CommentsResponseDto.CommentLikeDto commentLikeDto = type.equals("articles") ? commentsService.toggleCommentsLikeOnArticle(id, commentId, user) : commentsService.toggleCommentsLikeOnRecord(id, commentId, user);
+        return ResponseDto.of(commentLikeDto);
     }
 
     @Operation(summary = "댓글 신고하기 ✔️🔑",description = "댓글을 신고하는 API이며 이미 신고한 경우는 안된다고 응답이 갑니다.")
@@ -2,6 +2,7 @@ package fithub.app.web.controller;
 
 import fithub.app.auth.handler.annotation.AuthUser;
 import fithub.app.base.ResponseDto;
+import fithub.app.service.FeedCacheService;
 import fithub.app.service.converter.RecordConverter;
 import fithub.app.domain.Record;
 import fithub.app.domain.User;
@@ -40,6 +41,8 @@ public class RecordRestController {
 
     private final RecordService recordService;
 
+    private final FeedCacheService feedCacheService;
+
     @Operation(summary = "운동인증 상세조회 API ✔️ 🔑", description = "운동인증 상세조회 API 입니다.")
     @ApiResponses({
             @ApiResponse(responseCode = "2000", description = "OK : 정상응답"),
@@ -65,16 +68,14 @@ public class RecordRestController {
     @Parameters({
             @Parameter(name = "user", hidden = true),
             @Parameter(name = "categoryId", description = "운동 카테고리, 0이면 전체 조회"),
-            @Parameter(name = "pageIndex", description = "페이지 번호, 필수인데 안 주면 0번 페이지로 간주하게 해둠")
+            @Parameter(name = "pageIndex", description = "페이지 번호, 필수인데 안 주면 0번 페이지로 간주하게 해둠"),
+            @Parameter(name = "cursor", description = "무한 스크롤용 커서, 주면 pageIndex 대신 커서로 조회, 첫 페이지는 빈 값으로 주고 다음부터는 응답의 nextCursor를 그대로 주세요")
     })
     @GetMapping("/records/{categoryId}")
-    public ResponseDto<RecordResponseDto.recordDtoList> recordTimeList(@RequestParam(name = "pageIndex") Integer pageIndex, @PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
-        Page<Record> records = null;
-        if (categoryId != 0)
-            records = recordService.findRecordPagingCategoryAndCreatedAt(user, categoryId, pageIndex);
-        else
-            records = recordService.findRecordPagingCreatedAt(user,pageIndex);
-        return ResponseDto.of(RecordConverter.toRecordDtoList(records, user));
+    public ResponseDto<RecordResponseDto.recordDtoList> recordTimeList(@RequestParam(name = "pageIndex", required = false) Integer pageIndex, @RequestParam(name = "cursor", required = false) String cursor, @PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
+        if (feedCacheService.isCacheable(user, pageIndex, cursor))
+            return ResponseDto.of(feedCacheService.getRecordFeed(user, categoryId, pageIndex, cursor, false, () -> findRecordTimeList(pageIndex, cursor, categoryId, user)));
+        return ResponseDto.of(findRecordTimeList(pageIndex, cursor, categoryId, user));
     }
 
     @Operation(summary = "운동 인증 목록 조회 API - 인기순 ✔️ 🔑", description = "운동 인증 목록 조회 API 입니다. categoryId를 0으로 주면 카테고리 무관 전체 조회, pageIndex를 queryString으로 줘서 페이징 사이즈는 12개 ❗주의, 첫 페이지는 0번 입니다 아시겠죠?❗")
@@ -85,15 +86,29 @@ public class RecordRestController {
     @Parameters({
             @Parameter(name = "user", hidden = true),
             @Parameter(name = "categoryId", description = "운동 카테고리, 0이면 전체 조회"),
-            @Parameter(name = "pageIndex", description = "페이지 번호, 필수인데 안 주면 0번 페이지로 간주하게 해둠")
+            @Parameter(name = "pageIndex", description = "페이지 번호, 필수인데 안 주면 0번 페이지로 간주하게 해둠"),
+            @Parameter(name = "cursor", description = "무한 스크롤용 커서, 주면 pageIndex 대신 커서로 조회, 첫 페이지는 빈 값으로 주고 다음부터는 응답의 nextCursor를 그대로 주세요")
     })
     @GetMapping("/records/{categoryId}likes")
-    public ResponseDto<RecordResponseDto.recordDtoList> recordLikesList(@RequestParam(name = "pageIndex") Integer pageIndex, @PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
-        Page<Record> records = null;
-        if (categoryId != 0)
-            records = recordService.findRecordPagingCategoryAndLikes(user, categoryId, pageIndex);
-        else
-            records = recordService.findRecordPagingLikes(user,pageIndex);
+    public ResponseDto<RecordResponseDto.recordDtoList> recordLikesList(@RequestParam(name = "pageIndex", required = false) Integer pageIndex, @RequestParam(name = "cursor", required = false) String cursor, @PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
+        if (feedCacheService.isCacheable(user, pageIndex, cursor))
+            return ResponseDto.of(feedCacheService.getRecordFeed(user, categoryId, pageIndex, cursor, true, () -> findRecordLikesList(pageIndex, cursor, categoryId, user)));
+        return ResponseDto.of(findRecordLikesList(pageIndex, cursor, categoryId, user));
+    }
+
+    @Operation(summary = "운동 인증 목록 조회 API - 트렌딩 ✔️ 🔑", description = "최근 일주일 좋아요를 시간이 지날수록 덜 쳐주는 점수로 정렬, 한 시간마다 갱신됩니다. categoryId를 0으로 주면 카테고리 무관 전체 조회")
+    @ApiResponses({
+            @ApiResponse(responseCode = "2000", description = "OK : 정상응답"),
+            @ApiResponse(responseCode = "5000", description = "Server Error : 똘이에게 알려주세요",content =@Content(schema =  @Schema(implementation = ResponseDto.class)))
+    })
+    @Parameters({
+            @Parameter(name = "user", hidden = true),
+            @Parameter(name = "categoryId", description = "운동 카테고리, 0이면 전체 조회"),
+            @Parameter(name = "pageIndex", description = "페이지 번호, 안 주면 0번 페이지로 간주")
+    })
+    @GetMapping("/records/{categoryId}/trending")
+    public ResponseDto<RecordResponseDto.recordDtoList> recordTrendingList(@RequestParam(name = "pageIndex", required = false) Integer pageIndex, @PathVariable(name = "categoryId") @ExistCategory Integer categoryId, @AuthUser User user){
+        Page<Record> records = recordService.findRecordPagingTrending(user, categoryId, pageIndex);
         return ResponseDto.of(RecordConverter.toRecordDtoList(records, user));
     }
 
@@ -186,12 +201,15 @@ public class RecordRestController {
     @PostMapping("/records/{recordId}/likes")
     public ResponseDto<RecordResponseDto.recordLikeDto> likeRecord(@PathVariable(name = "recordId") @ExistRecord Long recordId, @AuthUser User user) throws IOException
     {
-        Record record = recordService.toggleRecordLike(recordId, user);
+        Boolean isLiked = recordService.toggleRecordLike(recordId, user);
 
         // 알림 보내기
-        if(user.isLikedRecord(record) && record.getUser().getCommunityPermit() && !record.getUser().getId().equals(user.getId()))
-            recordService.alarmRecordLike(record,user);
-        return ResponseDto.of(RecordConverter.toRecordLikeDto(record, user));
+        if(isLiked){
+            Record record = recordService.getRecord(recordId);
+            if(record.getUser().getCommunityPermit() && !record.getUser().getId().equals(user.getId()))
+                recordService.alarmRecordLike(record,user);
+        }
+        return ResponseDto.of(RecordConverter.toRecordLikeDto(recordId, isLiked, user));
     }
 
     @Operation(summary = "운동인증 좋아요 누르기/취소 - apple✔️ 🔑",description = "좋아요를 누른 적이 있다면 취소, 없다면 좋아요 누르기 입니다.")
@@ -207,12 +225,15 @@ public class RecordRestController {
     @PostMapping("/records/{recordId}/likes/apple")
     public ResponseDto<RecordResponseDto.recordLikeDto> likeRecordApple(@PathVariable(name = "recordId") @ExistRecord Long recordId, @AuthUser User user) throws IOException
     {
-        Record record = recordService.toggleRecordLike(recordId, user);
+        Boolean isLiked = recordService.toggleRecordLike(recordId, user);
 
         // 알림 보내기
-        if(user.isLikedRecord(record) && record.getUser().getCommunityPermit() && !record.getUser().getId().equals(user.getId()))
-            recordService.alarmRecordLikeApple(record,user);
-        return ResponseDto.of(RecordConverter.toRecordLikeDto(record, user));
+        if(isLiked){
+            Record record = recordService.getRecord(recordId);
+            if(record.getUser().getCommunityPermit() && !record.getUser().getId().equals(user.getId()))
+                recordService.alarmRecordLikeApple(record,user);
+        }
+        return ResponseDto.of(RecordConverter.toRecordLikeDto(recordId, isLiked, user));
     }
 
     @Operation(summary = "운동 인증 신고하기 ✔️🔑",description = "운동 인증을 신고하는 API이며 이미 신고한 경우는 안된다고 응답이 갑니다.")
@@ -246,4 +267,28 @@ public class RecordRestController {
         Boolean isWrite = recordService.checkWriteRecord(user);
         return ResponseDto.of(RecordConverter.toRecordLimitDto(isWrite));
     }
+
+    private RecordResponseDto.recordDtoList findRecordTimeList(Integer pageIndex, String cursor, Integer categoryId, User user){
+        if (cursor != null)
+            return RecordConverter.toRecordSliceDtoList(recordService.findRecordSliceCreatedAt(user, categoryId, cursor), user, false);
+
+        Page<Record> records = null;
+        if (categoryId != 0)
+            records = recordService.findRecordPagingCategoryAndCreatedAt(user, categoryId, pageIndex);
+        else
+            records = recordService.findRecordPagingCreatedAt(user,pageIndex);
+        return RecordConverter.toRecordDtoList(records, user);
+    }
+
+    private RecordResponseDto.recordDtoList findRecordLikesList(Integer pageIndex, String cursor, Integer categoryId, User user){
+        if (cursor != null)
+            return RecordConverter.toRecordSliceDtoList(recordService.findRecordSliceLikes(user, categoryId, cursor), user, true);
+
+        Page<Record> records = null;
+        if (categoryId != 0)
+            records = recordService.findRecordPagingCategoryAndLikes(user, categoryId, pageIndex);
+        else
+            records = recordService.findRecordPagingLikes(user,pageIndex);
+        return RecordConverter.toRecordDtoList(records, user);
+    }
 }
@@ -2,6 +2,7 @@ package fithub.app.web.controller;
 
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import fithub.app.auth.dto.AuthUserInfo;
 import fithub.app.auth.handler.annotation.AuthUser;
 import fithub.app.base.Code;
 import fithub.app.base.ResponseDto;
@@ -327,11 +328,25 @@ public class UserRestController {
             @Parameter(name = "user", hidden = true),
     })
     @GetMapping("/users/my-page")
-    public ResponseDto<UserResponseDto.MyPageDto> getMyPage(@AuthUser User user){
+    public ResponseDto<UserResponseDto.MyPageDto> getMyPage(@AuthUser AuthUserInfo user){
         List<UserExercise> myExercises = userService.getMyExercises(user);
         return ResponseDto.of(UserConverter.toMyPageDto(user, myExercises));
     }
 
+    @Operation(summary = "마이 페이지 - 월별 인증 수 조회 API ✔️ 🔑", description = "지난 달까지의 월별 운동 인증 수를 최근 달부터 최대 12개월 보여줍니다. 이번 달은 포함되지 않습니다")
+    @ApiResponses({
+            @ApiResponse(responseCode = "2000", description = "OK : 정상응답"),
+            @ApiResponse(responseCode = "5000", description = "Server Error : 똘이에게 알려주세요",content =@Content(schema =  @Schema(implementation = ResponseDto.class)))
+    })
+    @Parameters({
+            @Parameter(name = "user", hidden = true),
+    })
+    @GetMapping("/users/my-page/monthly-records")
+    public ResponseDto<UserResponseDto.MonthlyRecordListDto> getMonthlyRecords(@AuthUser AuthUserInfo user){
+        List<MonthlyRecordHistory> historyList = userService.getMonthlyRecordHistory(user);
+        return ResponseDto.of(UserConverter.toMonthlyRecordListDto(historyList));
+    }
+
     @Operation(summary = "마이 페이지 - 내 프로필 변경 ✔️ 🔑", description = "마이 페이지에서 프로필 변경하는 API 입니다")
     @ApiResponses({
             @ApiResponse(responseCode = "2000", description = "OK : 정상응답"),
@@ -445,9 +460,8 @@ public class UserRestController {
             @Parameter(name = "user", hidden = true),
     })
     @GetMapping("/users/main-exercise")
-    public ResponseDto<UserResponseDto.CurrentMainExerciseDto> showCurrentMain(@AuthUser User user){
-        User findUser = userService.findUser(user.getId());
-        return ResponseDto.of(UserConverter.toCurrentMainExerciseDto(findUser));
+    public ResponseDto<UserResponseDto.CurrentMainExerciseDto> showCurrentMain(@AuthUser AuthUserInfo user){
+        return ResponseDto.of(UserConverter.toCurrentMainExerciseDto(user));
     }
 
     @Operation(summary = "나의 프로필 이미지 기본으로 변경 API ✔️ 🔑", description = "나의 프로필 이미지 기본으로 변경 API ")
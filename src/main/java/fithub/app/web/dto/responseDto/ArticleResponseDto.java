@@ -31,7 +31,7 @@ public class ArticleResponseDto {
         Boolean isScraped;
     }
 
-    @Builder
+    @Builder(toBuilder = true)
     @Getter
     @AllArgsConstructor(access = AccessLevel.PROTECTED)
     @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -49,7 +49,7 @@ public class ArticleResponseDto {
         String createdAt;
     }
 
-    @Builder
+    @Builder(toBuilder = true)
     @Getter
     @AllArgsConstructor(access = AccessLevel.PROTECTED)
     @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -60,6 +60,8 @@ public class ArticleResponseDto {
         Long totalElements;
         Boolean isFirst;
         Boolean isLast;
+        Boolean hasNext;
+        String nextCursor;
     }
 
     @Builder
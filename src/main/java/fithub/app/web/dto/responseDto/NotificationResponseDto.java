@@ -31,6 +31,8 @@ public class NotificationResponseDto {
         Long totalElements;
         Boolean isFirst;
         Boolean isLast;
+        Boolean hasNext;
+        String nextCursor;
     }
 
     @Builder
@@ -40,4 +42,13 @@ public class NotificationResponseDto {
     public static class NotificationConfirmDto{
         LocalDateTime confirmedAt;
     }
+
+    @Builder
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PROTECTED)
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class NotificationConfirmAllDto{
+        Integer confirmedCount;
+        LocalDateTime confirmedAt;
+    }
 }
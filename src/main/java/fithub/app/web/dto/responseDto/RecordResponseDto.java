@@ -28,7 +28,7 @@ public class RecordResponseDto {
         Boolean isLiked;
     }
 
-    @Builder
+    @Builder(toBuilder = true)
     @Getter
     @AllArgsConstructor(access = AccessLevel.PROTECTED)
     @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -45,7 +45,7 @@ public class RecordResponseDto {
         Boolean isLiked;
     }
 
-    @Builder
+    @Builder(toBuilder = true)
     @Getter
     @AllArgsConstructor(access = AccessLevel.PROTECTED)
     @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -56,6 +56,8 @@ public class RecordResponseDto {
         Long totalElements;
         Boolean isFirst;
         Boolean isLast;
+        Boolean hasNext;
+        String nextCursor;
     }
 
     @Builder
@@ -112,6 +112,24 @@ public class UserResponseDto {
         List<UserExerciseDto> myExerciseList;
     }
 
+    @Builder
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PROTECTED)
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class MonthlyRecordDto{
+        String month;
+        Long recordNum;
+    }
+
+    @Builder
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PROTECTED)
+    @NoArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class MonthlyRecordListDto{
+        List<MonthlyRecordDto> monthlyRecordList;
+        Integer listSize;
+    }
+
     @Builder
     @Getter
     @AllArgsConstructor(access = AccessLevel.PROTECTED)
@@ -0,0 +1,114 @@
+package fithub.app.auth.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fithub.app.config.RateLimitProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTest {
+
+    private StringRedisTemplate redisTemplate;
+
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName("article-write");
+        rule.setMethod("POST");
+        rule.setPath("/articles/{categoryId:[0-9]+}");
+        rule.setKey(RateLimitProperties.KeyType.USER);
+        rule.setCapacity(10L);
+        rule.setPeriodSeconds(60L);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRules(Collections.singletonList(rule));
+
+        redisTemplate = mock(StringRedisTemplate.class);
+        rateLimitFilter = new RateLimitFilter(redisTemplate, properties, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void limitsAuthenticatedUserByUserId() throws Exception {
+        authenticate("42");
+        givenRedisReturns(1L, "9");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(articleWrite(), response, chain);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(Collections.singletonList("rate-limit:article-write:42")),
+                anyString(), anyString(), anyString());
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void rejectsWithTooManyRequestsWhenBucketIsEmpty() throws Exception {
+        authenticate("42");
+        givenRedisReturns(0L, "0");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(articleWrite(), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void skipsUserRuleForAnonymousRequest() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        MockFilterChain chain = new MockFilterChain();
+        rateLimitFilter.doFilter(articleWrite(), new MockHttpServletResponse(), chain);
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), any(List.class), anyString(), anyString(), anyString());
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private MockHttpServletRequest articleWrite() {
+        return new MockHttpServletRequest("POST", "/articles/1");
+    }
+
+    private void authenticate(String userId) {
+        User principal = new User(userId, "", AuthorityUtils.createAuthorityList("ROLE_USER"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, "", principal.getAuthorities()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenRedisReturns(Long allowed, String remaining) {
+        when(redisTemplate.execute(any(RedisScript.class), any(List.class), anyString(), anyString(), anyString()))
+                .thenReturn(Arrays.asList(allowed, remaining));
+    }
+}
@@ -0,0 +1,110 @@
+package fithub.app.repository;
+
+import fithub.app.domain.MonthlyRecordHistory;
+import fithub.app.domain.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MonthlyRecordRolloverTest extends MySqlRepositoryTest {
+
+    private static final LocalDate RECORD_MONTH = YearMonth.now().atDay(1);
+
+    private static final LocalDateTime MONTH_END = YearMonth.now().plusMonths(1).atDay(1).atStartOfDay();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MonthlyRecordHistoryRepository monthlyRecordHistoryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void movesMonthlyRecordIntoHistory() {
+        Long userId = saveUser("rollover1", 5L);
+
+        rollover(userId, runAt(0));
+
+        assertThat(monthlyRecordNum(userId)).isZero();
+        assertThat(monthlyRecordHistoryRepository.findTop12ByUserIdOrderByRecordMonthDesc(userId))
+                .extracting(MonthlyRecordHistory::getRecordNum)
+                .containsExactly(5L);
+    }
+
+    @Test
+    void rerunForSameMonthDoesNotResetAgain() {
+        Long userId = saveUser("rollover2", 5L);
+        rollover(userId, runAt(-10));
+        setMonthlyRecordNum(userId, 3L);
+
+        rollover(userId, runAt(0));
+
+        assertThat(monthlyRecordNum(userId)).isEqualTo(3L);
+        assertThat(monthlyRecordHistoryRepository.findTop12ByUserIdOrderByRecordMonthDesc(userId))
+                .extracting(MonthlyRecordHistory::getRecordNum)
+                .containsExactly(5L);
+    }
+
+    @Test
+    void keepsRecordsPostedBetweenSnapshotAndReset() {
+        Long userId = saveUser("rollover3", 5L);
+        LocalDateTime runAt = runAt(0);
+
+        monthlyRecordHistoryRepository.snapshot(userId, userId, RECORD_MONTH, MONTH_END, runAt);
+        setMonthlyRecordNum(userId, 7L);
+        userRepository.resetMonthlyRecord(userId, userId, RECORD_MONTH, runAt);
+
+        assertThat(monthlyRecordNum(userId)).isEqualTo(2L);
+    }
+
+    @Test
+    void skipsUsersWhoJoinedAfterTheMonth() {
+        Long userId = saveUser("rollover4", 5L);
+
+        monthlyRecordHistoryRepository.snapshot(userId, userId, RECORD_MONTH.minusMonths(1), RECORD_MONTH.atStartOfDay(), runAt(0));
+        userRepository.resetMonthlyRecord(userId, userId, RECORD_MONTH.minusMonths(1), runAt(0));
+
+        assertThat(monthlyRecordNum(userId)).isEqualTo(5L);
+        assertThat(monthlyRecordHistoryRepository.findTop12ByUserIdOrderByRecordMonthDesc(userId)).isEmpty();
+    }
+
+    private void rollover(Long userId, LocalDateTime runAt) {
+        monthlyRecordHistoryRepository.snapshot(userId, userId, RECORD_MONTH, MONTH_END, runAt);
+        userRepository.resetMonthlyRecord(userId, userId, RECORD_MONTH, runAt);
+    }
+
+    private LocalDateTime runAt(long secondsFromNow) {
+        return LocalDateTime.now().plusSeconds(secondsFromNow).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    private Long saveUser(String nickname, Long monthlyRecordNum) {
+        User user = entityManager.persistAndFlush(User.builder()
+                .nickname(nickname)
+                .monthlyRecordNum(monthlyRecordNum)
+                .build());
+        entityManager.clear();
+        return user.getId();
+    }
+
+    private void setMonthlyRecordNum(Long userId, Long monthlyRecordNum) {
+        entityManager.getEntityManager()
+                .createNativeQuery("update user set monthly_record_num = :num where id = :id")
+                .setParameter("num", monthlyRecordNum)
+                .setParameter("id", userId)
+                .executeUpdate();
+    }
+
+    private Long monthlyRecordNum(Long userId) {
+        entityManager.clear();
+        return userRepository.findById(userId).orElseThrow().getMonthlyRecordNum();
+    }
+}
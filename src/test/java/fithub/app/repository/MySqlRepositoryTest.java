@@ -0,0 +1,43 @@
+package fithub.app.repository;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * 네이티브 MySQL 쿼리(insert ignore, update ... join, update ... limit)를 실제 MySQL 에서 확인하는 리포지토리 테스트의 공통 설정.
+ * Docker 가 없는 환경에서는 건너뛴다.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = MySqlRepositoryTest.JpaTestConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+abstract class MySqlRepositoryTest {
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.jpa.properties.hibernate.hbm2ddl.auto", () -> "create-drop");
+    }
+
+    @TestConfiguration
+    @EnableJpaAuditing
+    @EntityScan(basePackages = "fithub.app.domain")
+    @EnableJpaRepositories(basePackages = "fithub.app.repository")
+    static class JpaTestConfig {
+    }
+}
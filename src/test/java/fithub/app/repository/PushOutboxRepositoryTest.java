@@ -0,0 +1,144 @@
+package fithub.app.repository;
+
+import fithub.app.domain.PushOutbox;
+import fithub.app.domain.enums.PushPlatform;
+import fithub.app.domain.enums.PushStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PushOutboxRepositoryTest extends MySqlRepositoryTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private PushOutboxRepository pushOutboxRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void claimTakesOnlyDueRowsAndStampsToken() {
+        Long due = saveOutbox(PushStatus.PENDING, 0, now.minusSeconds(5));
+        saveOutbox(PushStatus.PENDING, 0, now.plusMinutes(5));
+        saveOutbox(PushStatus.DEAD, MAX_ATTEMPTS, now.minusSeconds(5));
+
+        int claimed = pushOutboxRepository.claim("token-a", now, now.plusMinutes(1), MAX_ATTEMPTS, 10);
+
+        entityManager.clear();
+        List<PushOutbox> outboxList = pushOutboxRepository.findAllByClaimToken("token-a");
+        assertThat(claimed).isEqualTo(1);
+        assertThat(outboxList).extracting(PushOutbox::getId).containsExactly(due);
+        assertThat(outboxList.get(0).getStatus()).isEqualTo(PushStatus.SENDING);
+        assertThat(outboxList.get(0).getAttempts()).isEqualTo(1);
+        assertThat(outboxList.get(0).getNextAttemptAt()).isEqualTo(now.plusMinutes(1));
+    }
+
+    @Test
+    void claimRespectsLimit() {
+        saveOutbox(PushStatus.PENDING, 0, now.minusSeconds(3));
+        saveOutbox(PushStatus.PENDING, 0, now.minusSeconds(2));
+        saveOutbox(PushStatus.PENDING, 0, now.minusSeconds(1));
+
+        assertThat(pushOutboxRepository.claim("token-a", now, now.plusMinutes(1), MAX_ATTEMPTS, 2)).isEqualTo(2);
+        assertThat(pushOutboxRepository.claim("token-b", now, now.plusMinutes(1), MAX_ATTEMPTS, 2)).isEqualTo(1);
+    }
+
+    @Test
+    void activeLeaseIsNotClaimedTwice() {
+        saveOutbox(PushStatus.PENDING, 0, now.minusSeconds(1));
+
+        pushOutboxRepository.claim("token-a", now, now.plusMinutes(1), MAX_ATTEMPTS, 10);
+
+        assertThat(pushOutboxRepository.claim("token-b", now, now.plusMinutes(1), MAX_ATTEMPTS, 10)).isZero();
+    }
+
+    @Test
+    void staleWorkerCannotFinalizeReclaimedRow() {
+        Long id = saveOutbox(PushStatus.PENDING, 0, now.minusSeconds(10));
+        pushOutboxRepository.claim("token-a", now.minusSeconds(5), now.minusSeconds(1), MAX_ATTEMPTS, 10);
+        pushOutboxRepository.claim("token-b", now, now.plusMinutes(1), MAX_ATTEMPTS, 10);
+
+        assertThat(pushOutboxRepository.deleteSent(id, "token-a")).isZero();
+        assertThat(pushOutboxRepository.scheduleRetry(id, "token-a", now.plusMinutes(5), "late")).isZero();
+        assertThat(pushOutboxRepository.markDead(id, "token-a", "late")).isZero();
+
+        PushOutbox outbox = find(id);
+        assertThat(outbox.getStatus()).isEqualTo(PushStatus.SENDING);
+        assertThat(outbox.getClaimToken()).isEqualTo("token-b");
+        assertThat(outbox.getAttempts()).isEqualTo(2);
+
+        assertThat(pushOutboxRepository.deleteSent(id, "token-b")).isEqualTo(1);
+        assertThat(pushOutboxRepository.findById(id)).isEmpty();
+    }
+
+    @Test
+    void scheduleRetryReleasesClaim() {
+        Long id = saveOutbox(PushStatus.PENDING, 0, now.minusSeconds(1));
+        pushOutboxRepository.claim("token-a", now, now.plusMinutes(1), MAX_ATTEMPTS, 10);
+
+        assertThat(pushOutboxRepository.scheduleRetry(id, "token-a", now.plusMinutes(5), "unavailable")).isEqualTo(1);
+
+        PushOutbox outbox = find(id);
+        assertThat(outbox.getStatus()).isEqualTo(PushStatus.PENDING);
+        assertThat(outbox.getClaimToken()).isNull();
+        assertThat(outbox.getNextAttemptAt()).isEqualTo(now.plusMinutes(5));
+        assertThat(outbox.getLastError()).isEqualTo("unavailable");
+    }
+
+    @Test
+    void expiredLeaseOnLastAttemptBecomesDead() {
+        Long lastAttempt = saveOutbox(PushStatus.SENDING, MAX_ATTEMPTS, now.minusSeconds(1));
+        Long retryable = saveOutbox(PushStatus.SENDING, 1, now.minusSeconds(1));
+
+        assertThat(pushOutboxRepository.markExpiredDead(now, MAX_ATTEMPTS)).isEqualTo(1);
+
+        assertThat(find(lastAttempt).getStatus()).isEqualTo(PushStatus.DEAD);
+        assertThat(find(retryable).getStatus()).isEqualTo(PushStatus.SENDING);
+    }
+
+    @Test
+    void deadRowsAreDeletedOnlyAfterRetention() {
+        Long old = saveOutbox(PushStatus.DEAD, MAX_ATTEMPTS, now.minusDays(30));
+        Long recent = saveOutbox(PushStatus.DEAD, MAX_ATTEMPTS, now.minusDays(1));
+        Long pending = saveOutbox(PushStatus.PENDING, 0, now.minusDays(30));
+
+        assertThat(pushOutboxRepository.deleteDeadBefore(now.minusDays(14), 100)).isEqualTo(1);
+
+        entityManager.clear();
+        assertThat(pushOutboxRepository.findById(old)).isEmpty();
+        assertThat(pushOutboxRepository.findById(recent)).isPresent();
+        assertThat(pushOutboxRepository.findById(pending)).isPresent();
+    }
+
+    private Long saveOutbox(PushStatus status, Integer attempts, LocalDateTime nextAttemptAt) {
+        PushOutbox outbox = entityManager.persistAndFlush(PushOutbox.builder()
+                .targetToken("fcm-token")
+                .platform(PushPlatform.ANDROID)
+                .title("title")
+                .body("body")
+                .targetView("ARTICLE")
+                .targetPK("1")
+                .targetNotification("1")
+                .refreshBody(false)
+                .status(status)
+                .attempts(attempts)
+                .nextAttemptAt(nextAttemptAt)
+                .build());
+        entityManager.clear();
+        return outbox.getId();
+    }
+
+    private PushOutbox find(Long id) {
+        entityManager.clear();
+        return pushOutboxRepository.findById(id).orElseThrow();
+    }
+}
@@ -0,0 +1,130 @@
+package fithub.app.utils;
+
+import fithub.app.base.Code;
+import fithub.app.base.exception.GeneralException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeedCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2023, 8, 1, 12, 30, 15);
+
+    @Test
+    void encodeAndDecodeKeepLikesCreatedAtAndId() {
+        FeedCursor decoded = FeedCursor.decode(FeedCursor.encode(42L, CREATED_AT, 7L));
+
+        assertThat(decoded.getLikes()).isEqualTo(42L);
+        assertThat(decoded.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(decoded.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void latestOrderCursorLeavesLikesOpen() {
+        FeedCursor decoded = FeedCursor.decode(FeedCursor.of(42L, CREATED_AT, 7L).encode(false));
+
+        assertThat(decoded.getLikes()).isEqualTo(Long.MAX_VALUE);
+        assertThat(decoded.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(decoded.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void blankCursorStartsFromFirstPage() {
+        FeedCursor decoded = FeedCursor.decode(" ");
+
+        assertThat(decoded.getLikes()).isEqualTo(Long.MAX_VALUE);
+        assertThat(decoded.getId()).isEqualTo(Long.MAX_VALUE);
+        assertThat(FeedCursor.decode(null).getCreatedAt()).isEqualTo(decoded.getCreatedAt());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> FeedCursor.decode("not-a-cursor"))
+                .isInstanceOf(GeneralException.class)
+                .extracting(e -> ((GeneralException) e).getErrorCode())
+                .isEqualTo(Code.INVALID_CURSOR);
+    }
+
+    @Test
+    void scrollFillsPageAcrossBlockedRuns() {
+        // 10..1 중 짝수만 보이는 상황
+        FeedSlice<FeedCursor> slice = FeedCursor.scroll(FeedCursor.first(), 3, c -> c.getId() % 2 == 0, Function.identity(),
+                feedOf(10, new AtomicInteger()));
+
+        assertThat(ids(slice.getContent())).containsExactly(10L, 8L, 6L);
+        assertThat(slice.isFirst()).isTrue();
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(slice.getNextCursor().getId()).isEqualTo(6L);
+    }
+
+    @Test
+    void scrollStopsAtRoundLimitWithAdvancedCursor() {
+        AtomicInteger calls = new AtomicInteger();
+
+        // 100개 전부 차단된 유저 글
+        FeedSlice<FeedCursor> slice = FeedCursor.scroll(FeedCursor.first(), 3, c -> false, Function.identity(),
+                feedOf(100, calls));
+
+        assertThat(slice.getContent()).isEmpty();
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(calls.get()).isEqualTo(5);
+        assertThat(slice.getNextCursor().getId()).isEqualTo(86L);
+
+        FeedSlice<FeedCursor> next = FeedCursor.scroll(FeedCursor.decode(slice.getNextCursor().encode(false)), 3,
+                c -> c.getId() <= 80, Function.identity(), feedOf(100, new AtomicInteger()));
+
+        assertThat(ids(next.getContent())).containsExactly(80L, 79L, 78L);
+        assertThat(next.isFirst()).isFalse();
+    }
+
+    @Test
+    void scrollCursorPointsAtLastReturnedItemWhenBatchIsCut() {
+        // 한 번에 3개씩 읽지만 앞의 2개만 가려져 있어서 두 번째 묶음 중간에서 끊긴다
+        FeedSlice<FeedCursor> slice = FeedCursor.scroll(FeedCursor.first(), 3, c -> c.getId() != 10 && c.getId() != 9, Function.identity(),
+                feedOf(10, new AtomicInteger()));
+
+        assertThat(ids(slice.getContent())).containsExactly(8L, 7L, 6L);
+        assertThat(slice.getNextCursor().getId()).isEqualTo(6L);
+    }
+
+    @Test
+    void scrollEndsWithoutCursorOnLastPage() {
+        FeedSlice<FeedCursor> slice = FeedCursor.scroll(FeedCursor.first(), 3, c -> c.getId() != 2, Function.identity(),
+                feedOf(4, new AtomicInteger()));
+
+        assertThat(ids(slice.getContent())).containsExactly(4L, 3L, 1L);
+        assertThat(slice.hasNext()).isFalse();
+        assertThat(slice.getNextCursor()).isNull();
+    }
+
+    // id 가 count..1 인 글을 id 내림차순으로 잘라주는 가짜 조회
+    private BiFunction<FeedCursor, Pageable, Slice<FeedCursor>> feedOf(long count, AtomicInteger calls) {
+        return (cursor, pageable) -> {
+            calls.incrementAndGet();
+            List<FeedCursor> rows = LongStream.iterate(count, id -> id - 1)
+                    .limit(count)
+                    .filter(id -> id < cursor.getId())
+                    .limit(pageable.getPageSize() + 1L)
+                    .mapToObj(id -> FeedCursor.of(0L, CREATED_AT, id))
+                    .collect(Collectors.toList());
+            boolean hasNext = rows.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+        };
+    }
+
+    private List<Long> ids(List<FeedCursor> cursors) {
+        return cursors.stream().map(FeedCursor::getId).collect(Collectors.toList());
+    }
+}